@@ -1,17 +1,25 @@
 package com.example.co2.api;
 
-import com.example.co2.dto.ForecastDtos.ForecastResponse;
+import com.example.co2.dto.ForecastDtos.BatchItem;
 import com.example.co2.service.ForecastService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * /api/forecast 엔드포인트
  * - /api/forecast            : buildingId 없이 (from/to + (builtYear>0 또는 pnu) 필요)
  * - /api/forecast/{id}       : buildingId 경로변수 사용
+ * - POST /api/forecast/batch : 여러 건물을 한 번에 (본문: BatchItem 배열)
  *
  * 공통 규칙
  *  - 기본 구간: 현재년도(now) ~ now+10 (포함)
@@ -19,6 +27,8 @@ import java.time.LocalDate;
  *  - to < from 이면 스왑
  *  - builtYear <= 0 이면 무시(null)
  *  - (no-id 엔드포인트만) 컨텍스트 없으면 400
+ *  - 응답 바디는 서비스가 돌려준 JSON 바이트(ForecastResponse 스키마)를 그대로 내보낸다
+ *    → 캐시 HIT 시 역직렬화/재직렬화 없음
  */
 @RestController
 @RequiredArgsConstructor
@@ -28,9 +38,13 @@ public class ForecastApiController {
 
     private final ForecastService forecastService;
 
+    // 배치 1회 최대 건수(초과 시 400)
+    @Value("${app.forecast.batch.max-items:500}")
+    private int batchMaxItems;
+
     /** id 없음: /api/forecast?from=YYYY&to=YYYY&scenario=default&builtYear=2011&use=...&floorArea=...&pnu=... */
     @GetMapping("/api/forecast")
-    public ResponseEntity<ForecastResponse> getForecastNoId(
+    public ResponseEntity<byte[]> getForecastNoId(
             @RequestParam(required = false) Integer from,
             @RequestParam(required = false) Integer to,
             @RequestParam(required = false, defaultValue = "default") String scenario,
@@ -57,7 +71,7 @@ public class ForecastApiController {
             return ResponseEntity.badRequest().build();
         }
 
-        ForecastResponse res = forecastService.forecast(
+        byte[] res = forecastService.forecastJson(
                 null,          // buildingId 없음
                 yyFrom, yyTo,
                 scenario,
@@ -66,12 +80,12 @@ public class ForecastApiController {
                 floorArea,
                 pnu
         );
-        return ResponseEntity.ok(res);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(res);
     }
 
     /** id 버전: /api/forecast/{id}?from=YYYY&to=YYYY&scenario=...&builtYear=...&use=...&floorArea=...&pnu=... */
     @GetMapping("/api/forecast/{id}")
-    public ResponseEntity<ForecastResponse> getForecastById(
+    public ResponseEntity<byte[]> getForecastById(
             @PathVariable("id") Long buildingId,
             @RequestParam(required = false) Integer from,
             @RequestParam(required = false) Integer to,
@@ -92,7 +106,7 @@ public class ForecastApiController {
 
         Integer by = (builtYear != null && builtYear > 0) ? builtYear : null;
 
-        ForecastResponse res = forecastService.forecast(
+        byte[] res = forecastService.forecastJson(
                 buildingId,
                 yyFrom, yyTo,
                 scenario,
@@ -101,7 +115,66 @@ public class ForecastApiController {
                 floorArea,
                 pnu
         );
-        return ResponseEntity.ok(res);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(res);
+    }
+
+    /**
+     * 배치: POST /api/forecast/batch
+     *  - 본문: [{ buildingId?, from?, to?, scenario?, builtYear?, use?, floorArea?, pnu? }, ...]
+     *  - 항목별 기본값/범위 보정은 GET 엔드포인트와 동일
+     *  - 응답: [{ "index": i, "forecast": {...} } | { "index": i, "error": "..." }, ...] (입력 순서)
+     *    · buildingId도 없고 builtYear/pnu도 없는 항목은 error로 표시(단건 400과 같은 기준)
+     *  - 서비스가 돌려준 항목별 JSON 바이트를 그대로 이어 붙여 스트리밍(전체 응답을 메모리에 조립하지 않음)
+     */
+    @PostMapping("/api/forecast/batch")
+    public ResponseEntity<StreamingResponseBody> getForecastBatch(@RequestBody List<BatchItem> items) {
+        if (items == null || items.isEmpty() || items.size() > batchMaxItems) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int now = LocalDate.now().getYear();
+
+        // 항목 정규화 — 유효한 항목만 서비스로 넘기고, 무효 항목 위치를 기억
+        List<BatchItem> valid = new ArrayList<>(items.size());
+        boolean[] invalid = new boolean[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem it = items.get(i);
+            Integer by = (it == null || it.builtYear() == null || it.builtYear() <= 0) ? null : it.builtYear();
+            if (it == null || (it.buildingId() == null && by == null && !nonEmpty(it.pnu()))) {
+                invalid[i] = true;
+                continue;
+            }
+
+            int yyFrom = (it.from() != null) ? it.from() : now;
+            int yyTo   = (it.to()   != null) ? it.to()   : (yyFrom + HORIZON_YEARS);
+            if (yyTo < yyFrom) { int t = yyFrom; yyFrom = yyTo; yyTo = t; }
+            if (yyTo == yyFrom) yyTo = yyFrom + HORIZON_YEARS;
+
+            String scenario = nonEmpty(it.scenario()) ? it.scenario() : "default";
+
+            valid.add(new BatchItem(it.buildingId(), yyFrom, yyTo, scenario, by, it.use(), it.floorArea(), it.pnu()));
+        }
+
+        List<byte[]> results = valid.isEmpty() ? List.of() : forecastService.forecastJsonBatch(valid);
+
+        StreamingResponseBody body = (OutputStream out) -> {
+            out.write('[');
+            int next = 0; // results 커서(유효 항목 순서)
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) out.write(',');
+                out.write(("{\"index\":" + i + ",").getBytes(StandardCharsets.US_ASCII));
+                if (invalid[i]) {
+                    out.write("\"error\":\"builtYear or pnu required\"}".getBytes(StandardCharsets.US_ASCII));
+                } else {
+                    out.write("\"forecast\":".getBytes(StandardCharsets.US_ASCII));
+                    out.write(results.get(next++));
+                    out.write('}');
+                }
+            }
+            out.write(']');
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /* ---------- helpers ---------- */
@@ -1,16 +1,24 @@
 package com.example.co2.api;
 
+import com.example.co2.dto.MlLogEvent;
 import com.example.co2.service.MlBridgeService;
+import com.example.co2.service.MlLogQueryService;
+import com.example.co2.service.MlMetricsRollup;
+import com.example.co2.service.MlTrainEventStream;
+import com.example.co2.service.MlVariantComparer;
+import com.example.co2.util.JsonlTailReader;
+import com.example.co2.util.MlLogEventParser;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 import java.util.List;
 import java.util.HashMap;
-import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.Objects;
-import java.util.Comparator;
 
 /* ============================================================
  * ForecastMlController
@@ -23,11 +31,15 @@ import java.util.Comparator;
  * - 클래스 레벨 prefix: /api/forecast/ml  (중복 매핑 금지)
  * - 하위 엔드포인트:
  *   1) POST /predict?variant=C    → 예측
- *   2) POST /train                → 학습 시작(비동기 응답 형식으로 202 반환)
+ *   2) POST /train                → 학습 시작(비동기 응답 형식으로 202 반환, 진행 중이면 합류/대기/409 — MlBridgeService 단일 실행)
  *   3) GET  /train/status?jobId=… → 학습 상태 폴링
  *   4) GET  /logs/latest?lastN=50 → 최근 JSONL 로그 tail
  *   5) GET  /logs/by-run?runId=…  → 특정 run 로그 집합
- *   6) GET  /run/current          → 서버가 기억하는 최신 run_id
+ *   6) GET  /run/current          → 서버가 기억하는 최신 run_id + 학습 작업 상태(job)
+ *   7) GET  /train/stream?runId=… → 학습 로그 SSE(폴링 대체, 파일 감시 스레드 1개가 모든 구독자에게 푸시)
+ *   8) GET  /logs/query?from=…&to=…&kind=… → 전체 일자 로그 조건 검색(NDJSON 스트리밍)
+ *   9) GET  /metrics/rollup?runId=… → 학습 지표 run·variant별 요약(백그라운드 집계, O(1) 조회)
+ *  10) POST /predict/compare?variants=A,B,C&baseline=C → 같은 요청을 variant별 동시 예측 + baseline 대비 차이
  *
  * [응답 포맷]
  * - 모든 핸들러는 ResponseEntity<Map<String,Object>> (리스트는 List<Map<..>>)로 통일
@@ -39,21 +51,31 @@ import java.util.Comparator;
  * [검색 앵커]
  * - [SG-ANCHOR:MLCTRL-CLASS]
  * - [SG-ANCHOR:MLCTRL-PREDICT]
+ * - [SG-ANCHOR:MLCTRL-PREDICT-COMPARE]
  * - [SG-ANCHOR:MLCTRL-TRAIN]
  * - [SG-ANCHOR:MLCTRL-STATUS]
+ * - [SG-ANCHOR:MLCTRL-STREAM]
  * - [SG-ANCHOR:MLCTRL-LOGS]
+ * - [SG-ANCHOR:MLCTRL-LOGS-QUERY]
+ * - [SG-ANCHOR:MLCTRL-METRICS-ROLLUP]
  * ============================================================ */
 @RestController
 @RequestMapping("/api/forecast/ml") // [SG-ANCHOR:MLCTRL-CLASS]
 public class ForecastMlController {
 
 	private final MlBridgeService ml;
+	private final MlTrainEventStream trainEvents;
+	private final MlLogQueryService logQuery;
+	private final MlMetricsRollup metricsRollup;
+	private final MlVariantComparer variantComparer;
 
-	// [ADD][SG-MLCTRL] 가장 최근 run_id(jobId) 보관 (프로세스 단위 기억)
-	private final AtomicReference<String> lastRunId = new AtomicReference<>(null);
-
-	public ForecastMlController(MlBridgeService ml) {
+	public ForecastMlController(MlBridgeService ml, MlTrainEventStream trainEvents, MlLogQueryService logQuery,
+								MlMetricsRollup metricsRollup, MlVariantComparer variantComparer) {
 		this.ml = ml;
+		this.trainEvents = trainEvents;
+		this.logQuery = logQuery;
+		this.metricsRollup = metricsRollup;
+		this.variantComparer = variantComparer;
 	}
 
 	/* ------------------------------------------------------------
@@ -78,6 +100,30 @@ public class ForecastMlController {
 			}
 		}
 		Map<String, Object> body = ml.predict(payload, variant);
+		variantComparer.shadow(payload, variant, body);   // 섀도 평가(표본일 때만, 백그라운드)
+		return ResponseEntity.ok(body);
+	}
+
+	/* ------------------------------------------------------------
+	 * 10) variant 동시 비교
+	 *    POST /api/forecast/ml/predict/compare?variants=A,B,C&baseline=C&deadlineMs=3000
+	 *  - 바디: /predict와 같은 payload — FE가 variant마다 /predict를 순서대로 부르던 것 대체
+	 *  - variant별 예측을 동시에 실행, 전부 끝나거나 deadlineMs가 지나면 응답
+	 *  - 반환: { ok, baseline, results{A,B,C}, latencyMs{…}, divergence{A:{savingPctDelta,…,labelAgrees}}, incomplete[] }
+	 * ------------------------------------------------------------ */
+	// [SG-ANCHOR:MLCTRL-PREDICT-COMPARE]
+	@PostMapping("/predict/compare")
+	public ResponseEntity<Map<String, Object>> predictCompare(
+			@RequestParam(name = "variants", required = false) List<String> variants,
+			@RequestParam(name = "baseline", defaultValue = "C") String baseline,
+			@RequestParam(name = "deadlineMs", required = false) Long deadlineMs,
+			@RequestBody Map<String, Object> payload
+	) {
+		Object built = payload.get("builtYear");
+		if (built instanceof Number && !Double.isFinite(((Number) built).doubleValue())) {
+			return ResponseEntity.badRequest().body(Map.of("ok", false, "error", "invalid builtYear"));
+		}
+		Map<String, Object> body = variantComparer.compare(payload, variants, baseline, variantComparer.clampDeadline(deadlineMs));
 		return ResponseEntity.ok(body);
 	}
 
@@ -87,13 +133,23 @@ public class ForecastMlController {
 	 *  - 변경점:
 	 *    (1) FastAPI /train을 먼저 호출하여 jobId/run_id 확보
 	 *    (2) 응답 JSON에 jobId와 run_id를 동일 값(접두어 없음)으로 내려 FE가 즉시 setRunId 가능
-	 *    (3) lastRunId 에 고정(pinning)
+	 *    (3) MlBridgeService에 run_id 고정(pinning) — 작업 상태/최신 run_id는 서비스가 한 곳에서 관리
+	 *    (4) 진행 중 학습이 있으면 새 학습 X(savegreen.ml.train.on-busy)
+	 *        · join  : 진행 중 작업의 jobId로 202(deduplicated=true)
+	 *        · queue : 202(queued=true, queuedBehind) — 끝난 뒤 서버가 1회 더 시작
+	 *        · reject: 409(진행 중 작업 정보 job 포함)
 	 * ------------------------------------------------------------ */
 	// [SG-ANCHOR:ML-TRAIN-ASYNC]
 	@PostMapping("/train")
 	public ResponseEntity<Map<String, Object>> startTrainAsync() {
 		// 1) FastAPI → /train 호출 (동기). 예: { "jobId": "20251024-094930-A10C45" }
 		Map<String, Object> rsp = ml.startTrain();
+		if (rsp != null && Boolean.TRUE.equals(rsp.get("rejected"))) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(rsp);
+		}
+		if (rsp != null && Boolean.TRUE.equals(rsp.get("queued"))) {
+			return ResponseEntity.accepted().body(rsp);
+		}
 
 		String rid = null;
 		if (rsp != null) {
@@ -115,7 +171,7 @@ public class ForecastMlController {
 		}
 
 		// 4) run_id 고정 (로그/상태/FE 모두 같은 값 사용)
-		lastRunId.set(rid);
+		ml.pinRunId(rid);
 
 		// 5) FE로 즉시 회신 (★ 접두어 없음, jobId==run_id)
 		Map<String, Object> ack = new java.util.LinkedHashMap<>();
@@ -123,6 +179,7 @@ public class ForecastMlController {
 		ack.put("accepted", true);
 		ack.put("jobId", rid);   // ★ "train-" 같은 접두어 금지
 		ack.put("run_id", rid);  // ★ FE가 곧바로 SaveGreen.MLLogs.setRunId(rid)
+		if (rsp != null && Boolean.TRUE.equals(rsp.get("deduplicated"))) ack.put("deduplicated", true);
 		return ResponseEntity.accepted().body(ack);
 	}
 
@@ -145,56 +202,30 @@ public class ForecastMlController {
 		return ResponseEntity.ok(body);
 	}
 
+	/* ------------------------------------------------------------
+	 * 7) 학습 로그 스트림(SSE)
+	 *    GET /api/forecast/ml/train/stream?runId=...
+	 *  - /train/status, /logs/latest 반복 폴링 대체: 로그 파일은 서버의 감시 스레드 1개만 읽는다.
+	 *  - 구독 직후 보관 중인 이 run의 최근 이벤트를 먼저 보내고, 이후 새 JSONL 줄마다 푸시.
+	 *  - 각 메시지 data = 로그 레코드 JSON(/logs/by-run 항목과 같은 구조), id = 레코드 id
+	 *  - runId 생략 시 서버가 기억하는 최신 run_id 사용, 'train-' 접두어는 제거
+	 * ------------------------------------------------------------ */
+	// [SG-ANCHOR:MLCTRL-STREAM]
+	@GetMapping(value = "/train/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter trainStream(@RequestParam(name = "runId", required = false) String runId) {
+		String rid = (runId == null || runId.isBlank()) ? ml.currentRunId() : runId.trim();
+		if (rid != null && rid.startsWith("train-")) rid = rid.substring(6);
+		if (rid == null || rid.isBlank()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "runId is required");
+		}
+		return trainEvents.subscribe(rid);
+	}
+
 	// ==== [HELPER] 최근 로그에서 가장 최신 run_id 추정(sniff) ====
-	@SuppressWarnings("unchecked")
+	// - MlRunIndex가 색인 중 기억한 값(train_start 이벤트 / score_train·score_test·cv 지표 중 가장 최근)
 	private String sniffLatestRunIdFromTail() {
 		try {
-			Map<String, Object> latest = ml.tailLatestLogs(1000); // tail 크게
-			if (latest == null) return null;
-
-			// lastN / items / lines 중 있는 걸 사용
-			Object any = latest.get("lastN");
-			if (!(any instanceof java.util.List<?>)) {
-				any = (latest.get("items") instanceof java.util.List<?>)
-						? latest.get("items") : latest.get("lines");
-			}
-			if (!(any instanceof java.util.List<?> list)) return null;
-
-			// ts 내림차순으로 훑으며 run_id 찾기 (train_start 우선)
-			return list.stream()
-					.filter(Map.class::isInstance)
-					.map(o -> (Map<String, Object>) o)
-					.sorted(Comparator.comparing(
-							(Map<String, Object> m) -> {
-								Object ts = m.get("ts");
-								return (ts != null) ? String.valueOf(ts) : "";
-							}
-					).reversed())
-					.map(m -> {
-						String rid = null;
-						Object tags = m.get("tags");
-						if (tags instanceof Map<?, ?> t) {
-							Object v = ((Map<?, ?>) t).get("run_id");
-							if (v == null) v = ((Map<?, ?>) t).get("runId");
-							if (v != null) rid = String.valueOf(v);
-						}
-						if (rid == null) { // 혹시 top-level에 있는 경우
-							Object v = m.get("run_id");
-							if (v == null) v = m.get("runId");
-							if (v != null) rid = String.valueOf(v);
-						}
-						String kind = String.valueOf(m.get("kind"));
-						String type = String.valueOf(m.get("type"));
-						// 우선순위: train_start(event) > metrics(score_* / cv)
-						boolean meaningful = "event".equals(type) && "train_start".equals(kind)
-								|| ("metrics".equals(type) && (
-								"score_train".equals(kind) || "score_test".equals(kind) || "cv".equals(kind)
-						));
-						return (rid != null && meaningful) ? rid : null;
-					})
-					.filter(Objects::nonNull)
-					.findFirst()
-					.orElse(null);
+			return ml.latestRunId();
 		} catch (Exception ignore) {
 			return null;
 		}
@@ -204,11 +235,11 @@ public class ForecastMlController {
 	// 프론트: GET /api/forecast/ml/run/current
 	@GetMapping("/run/current")
 	public ResponseEntity<Map<String, Object>> getCurrentRun() {
-		String id = lastRunId.get();
+		String id = ml.currentRunId();
 		if (id == null || id.isBlank()) {
 			// ★ 서버가 기억 못했으면 최근 로그에서 추정
 			id = sniffLatestRunIdFromTail();
-			if (id != null) lastRunId.set(id);
+			ml.pinRunId(id);
 		}
 		Map<String, Object> out = new HashMap<>();
 		if (id == null || id.isBlank()) {
@@ -220,6 +251,8 @@ public class ForecastMlController {
 		out.put("ok", true);
 		out.put("run_id", id);
 		out.put("runId", id);
+		Map<String, Object> job = ml.currentTrainJob();
+		if (job != null && id.equals(job.get("jobId"))) out.put("job", job);   // state/progress(서버 추적)
 		return ResponseEntity.ok(out);
 	}
 
@@ -228,6 +261,8 @@ public class ForecastMlController {
 	 *    GET /api/forecast/ml/logs/latest?lastN=50
 	 *  - KST 기준 오늘 파일 우선, 없으면 디렉토리 최신 파일.
 	 *  - { ok, path, count, lastEntry, lastN[] } 형태로 반환.
+	 *  - 주의: savegreen.ml.inference.enabled=true 면 JVM에서 처리한 /predict(InProcessScorer)는
+	 *    ML 서버를 거치지 않으므로 predict_variant 줄이 기록되지 않는다(HTTP 폴백된 요청만 남음).
 	 * ------------------------------------------------------------ */
 	// [SG-ANCHOR:MLCTRL-LOGS]
 	@GetMapping("/logs/latest")
@@ -243,63 +278,104 @@ public class ForecastMlController {
 	 *    GET /api/forecast/ml/logs/by-run?runId=...
 	 *  - 변경점: runId가 'train-...' 이어도 접두어 제거 후 매칭
 	 *  - 매칭: tags.run_id → top-level run_id 순으로 검사(둘 다 허용)
+	 *  - MlRunIndex 색인 기반: 모든 일자 파일에서 run 전체(과거 "오늘 파일 마지막 2000줄" 제한 없음)
 	 * ------------------------------------------------------------ */
 	// [SG-ANCHOR:MLCTRL-LOGS-BYRUN]
 	@GetMapping("/logs/by-run")
-	public ResponseEntity<List<Map<String, Object>>> logsByRun(@RequestParam("runId") String runId) {
+	public ResponseEntity<List<MlLogEvent>> logsByRun(@RequestParam("runId") String runId) {
 		if (runId == null || runId.isBlank()) return ResponseEntity.ok(List.of());
 
 		// ★ 접두어 제거
 		if (runId.startsWith("train-")) runId = runId.substring(6);
 
-		Map<String, Object> latest = ml.tailLatestLogs(2000); // tail 넉넉히
-		List<Map<String, Object>> all = new ArrayList<>();
+		// run_id 색인(MlRunIndex)으로 해당 run의 줄만 직접 읽음 — 일자 파일/줄 수 제한 없음
+		return ResponseEntity.ok(ml.logsByRun(runId));
+	}
 
-		Object any = (latest != null) ? latest.get("lastN") : null;
-		if (!(any instanceof List<?>)) {
-			any = (latest != null && latest.get("items") instanceof List<?>)
-					? latest.get("items")
-					: (latest != null ? latest.get("lines") : null);
-		}
-		if (!(any instanceof List<?> list)) return ResponseEntity.ok(all);
-
-		for (Object o : list) {
-			if (!(o instanceof Map)) continue;
-			@SuppressWarnings("unchecked")
-			Map<String, Object> m = (Map<String, Object>) o;
-
-			String rid = null;
-			Object tags = m.get("tags");
-			if (tags instanceof Map<?, ?> t) {
-				Object v = t.get("run_id"); if (v == null) v = t.get("runId");
-				if (v != null) rid = String.valueOf(v);
+	/* ------------------------------------------------------------
+	 * 8) 로그 조건 검색(전체 일자 파일)
+	 *    GET /api/forecast/ml/logs/query?from=2025-10-01&to=2025-10-24&kind=predict_variant&variant=C&limit=500
+	 *  - from/to : 'YYYY-MM-DD'(KST 하루 시작; to는 그날 끝까지 포함) 또는 ISO 일시('2025-10-24T09:00', 오프셋 없으면 KST)
+	 *  - type(event|metrics) / kind / variant / runId('train-' 접두어 제거) / pnu — 생략하면 조건 없음
+	 *  - 응답: application/x-ndjson, 한 줄 = 로그 레코드 JSON(/logs/by-run 항목과 같은 구조), 날짜/기록 순
+	 *  - 파일 구간 병렬 스캔(MlLogQueryService) + limit 도달 시 조기 종료, 찾는 대로 flush
+	 * ------------------------------------------------------------ */
+	// [SG-ANCHOR:MLCTRL-LOGS-QUERY]
+	@GetMapping(value = "/logs/query", produces = "application/x-ndjson")
+	public ResponseEntity<StreamingResponseBody> queryLogs(
+			@RequestParam(name = "from", required = false) String from,
+			@RequestParam(name = "to", required = false) String to,
+			@RequestParam(name = "type", required = false) String type,
+			@RequestParam(name = "kind", required = false) String kind,
+			@RequestParam(name = "variant", required = false) String variant,
+			@RequestParam(name = "runId", required = false) String runId,
+			@RequestParam(name = "pnu", required = false) String pnu,
+			@RequestParam(name = "limit", defaultValue = "1000") int limit
+	) {
+		String rid = (runId != null && runId.startsWith("train-")) ? runId.substring(6) : runId;
+		MlLogQueryService.Query q = new MlLogQueryService.Query(
+				parseQueryTime(from, false), parseQueryTime(to, true),
+				trimToNull(type), trimToNull(kind), trimToNull(variant), trimToNull(rid), trimToNull(pnu),
+				logQuery.clampLimit(limit));
+
+		StreamingResponseBody body = out -> logQuery.stream(q, out);
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+	}
+
+	private static final java.time.ZoneId KST = java.time.ZoneId.of("Asia/Seoul");
+
+	/** 'YYYY-MM-DD' | ISO 오프셋 일시 | ISO 로컬 일시(KST) → Instant (end=true인 날짜는 다음 날 0시) */
+	private static java.time.Instant parseQueryTime(String s, boolean end) {
+		if (s == null || s.isBlank()) return null;
+		String v = s.trim();
+		try {
+			if (v.length() == 10) {
+				java.time.LocalDate d = java.time.LocalDate.parse(v);
+				return (end ? d.plusDays(1) : d).atStartOfDay(KST).toInstant();
 			}
-			if (rid == null) { // 혹시 top-level
-				Object v = m.get("run_id"); if (v == null) v = m.get("runId");
-				if (v != null) rid = String.valueOf(v);
+			try {
+				return java.time.OffsetDateTime.parse(v).toInstant();
+			} catch (java.time.format.DateTimeParseException noOffset) {
+				return java.time.LocalDateTime.parse(v).atZone(KST).toInstant();
 			}
-			if (!runId.equals(rid)) continue;
+		} catch (java.time.format.DateTimeParseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid date/time: " + v);
+		}
+	}
 
-			// (선택) type=="metrics"만 반환하려면 아래 주석 해제
-			// if (!"metrics".equals(String.valueOf(m.get("type")))) continue;
+	private static String trimToNull(String s) {
+		return (s == null || s.isBlank()) ? null : s.trim();
+	}
 
-			all.add(m);
+	/* ------------------------------------------------------------
+	 * 9) 학습 지표 요약
+	 *    GET /api/forecast/ml/metrics/rollup            → variant별 요약(run 간 비교)
+	 *    GET /api/forecast/ml/metrics/rollup?runId=...  → 해당 run의 variant별 요약
+	 *  - score_train / score_test / cv 지표마다 { n, last, best, mean, trend }
+	 *  - MlMetricsRollup이 백그라운드에서 새 로그 줄만 접어 둔 스냅샷을 그대로 반환(로그 양과 무관)
+	 *  - 모르는 run → { ok:false, runId }
+	 * ------------------------------------------------------------ */
+	// [SG-ANCHOR:MLCTRL-METRICS-ROLLUP]
+	@GetMapping("/metrics/rollup")
+	public ResponseEntity<Map<String, Object>> getMetricsRollup(@RequestParam(name = "runId", required = false) String runId) {
+		if (runId == null || runId.isBlank()) return ResponseEntity.ok(metricsRollup.summary());
+
+		String rid = runId.trim();
+		if (rid.startsWith("train-")) rid = rid.substring(6);
+		Map<String, Object> run = metricsRollup.run(rid);
+		if (run == null) {
+			Map<String, Object> out = new HashMap<>();
+			out.put("ok", false);
+			out.put("runId", rid);
+			return ResponseEntity.ok(out);
 		}
-		return ResponseEntity.ok(all);
+		return ResponseEntity.ok(run);
 	}
 
 	// [추가] 로그 디렉터리 주입(없으면 기본값 logs/app)
 	@org.springframework.beans.factory.annotation.Value("${app.ml.logs.dir:logs/app}")
 	private String mlLogsDir;
 
-	// [추가] 최신 JSONL 파일에서 최근 N줄 읽기(간단 버전)
-	private java.util.List<String> readLastLines(java.nio.file.Path file, int limit) throws java.io.IOException {
-		java.util.List<String> all = java.nio.file.Files.readAllLines(file);
-		int size = all.size();
-		int from = Math.max(0, size - limit);
-		return all.subList(from, size);
-	}
-
 	// [추가] 디렉터리에서 가장 최근 JSONL 파일 찾기
 	private java.nio.file.Path findLatestJsonl(java.nio.file.Path dir) throws java.io.IOException {
 		try (java.util.stream.Stream<java.nio.file.Path> s = java.nio.file.Files.list(dir)) {
@@ -312,7 +388,25 @@ public class ForecastMlController {
 		}
 	}
 
+	// getLatestMlLogs 투영: tags + metrics + predict_variant payload 6개 필드
+	private static final MlLogEventParser.Projection LATEST_LOG_PROJECTION = new MlLogEventParser.Projection(
+			true, true, java.util.Set.of("variant", "savingPct", "buildingName", "pnu", "floorAreaM2", "builtYear"));
+
+	private static String textOrEmpty(Object v) {
+		return (v != null) ? String.valueOf(v) : "";
+	}
+
+	private static double doubleOrZero(Object v) {
+		if (v instanceof Number num) return num.doubleValue();
+		if (v instanceof String str) {
+			try { return Double.parseDouble(str.trim()); } catch (NumberFormatException ignore) { }
+		}
+		return 0.0;
+	}
+
 	// [추가] GET /api/forecast/ml/logs/latest  → predict_variant(건물별) + 학습 메트릭 전달
+	//  - predict_variant 줄은 ML 서버 /predict 만 기록한다. InProcessScorer(savegreen.ml.inference.enabled=true)가
+	//    처리한 요청은 빠지므로, 켜 둔 배포에서는 예측 페이지의 건물별 A/B/C 로그가 비거나 일부만 보인다.
 	@org.springframework.web.bind.annotation.GetMapping("/api/forecast/ml/logs/latest")
 	public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> getLatestMlLogs(
 			@org.springframework.web.bind.annotation.RequestParam(name = "limit", required = false, defaultValue = "300") int limit,
@@ -334,48 +428,39 @@ public class ForecastMlController {
 				return org.springframework.http.ResponseEntity.ok(body);
 			}
 
-			com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
-			for (String line : readLastLines(latest, limit)) {
-				line = line.trim();
-				if (line.isEmpty()) continue;
-				try {
-					com.fasterxml.jackson.databind.JsonNode n = om.readTree(line);
-
-					// 기본 필드 추출
-					String ev = n.path("event").asText("");
-					if (!eventFilter.isEmpty() && !eventFilter.equals(ev)) continue;
-
-					java.util.Map<String, Object> one = new java.util.HashMap<>();
-					one.put("ts", n.path("ts").asText(""));
-					one.put("event", ev);
-
-					// tags(chart/run_id)와 payload(variant/savingPct 등)만 골라서 전달
-					com.fasterxml.jackson.databind.JsonNode tags = n.path("tags");
-					if (!tags.isMissingNode() && tags.isObject()) {
-						if (tags.has("chart")) one.put("chart", tags.get("chart").asText(""));
-						if (tags.has("run_id")) one.put("runId", tags.get("run_id").asText(""));
-					}
-					com.fasterxml.jackson.databind.JsonNode payload = n.path("payload");
-					if (!payload.isMissingNode() && payload.isObject()) {
-						if (payload.has("variant")) one.put("variant", payload.get("variant").asText(""));
-						if (payload.has("savingPct")) one.put("savingPct", payload.get("savingPct").asDouble());
-						if (payload.has("buildingName")) one.put("buildingName", payload.get("buildingName").asText(""));
-						if (payload.has("pnu")) one.put("pnu", payload.get("pnu").asText(""));
-						if (payload.has("floorAreaM2")) one.put("floorAreaM2", payload.get("floorAreaM2").asDouble());
-						if (payload.has("builtYear")) one.put("builtYear", payload.get("builtYear").asDouble());
-					}
-
-					// 학습 메트릭(train/test)도 그대로 통과(필요 시 FE에서 거를 수 있게)
-					com.fasterxml.jackson.databind.JsonNode metrics = n.path("metrics");
-					if (!metrics.isMissingNode() && metrics.isObject()) {
-						java.util.Map<String, Object> m = om.convertValue(metrics, java.util.Map.class);
-						one.put("metrics", m);
-					}
-
-					events.add(one);
-				} catch (Exception ignore) {
-					// 파싱 실패 라인 무시
+			// 파일 전체를 읽지 않고 끝에서부터 limit줄만(JsonlTailReader 공용)
+			// 줄마다 스트리밍 파서로 event/ts/tags/metrics + 아래 payload 필드만 추출(나머지 하위 트리는 건너뜀)
+			for (String line : JsonlTailReader.readLastLines(latest, limit)) {
+				MlLogEvent n = MlLogEventParser.parse(line.trim(), LATEST_LOG_PROJECTION);
+				if (n == null) continue;	// 파싱 실패 라인 무시
+
+				// 기본 필드 추출
+				String ev = (n.event() != null) ? n.event() : "";
+				if (!eventFilter.isEmpty() && !eventFilter.equals(ev)) continue;
+
+				java.util.Map<String, Object> one = new java.util.HashMap<>();
+				one.put("ts", (n.ts() != null) ? n.ts() : "");
+				one.put("event", ev);
+
+				// tags(chart/run_id)와 payload(variant/savingPct 등)만 골라서 전달
+				if (n.tags() != null) {
+					if (n.tags().containsKey("chart")) one.put("chart", textOrEmpty(n.tags().get("chart")));
+					if (n.tags().containsKey("run_id")) one.put("runId", textOrEmpty(n.tags().get("run_id")));
 				}
+				Map<String, Object> payload = n.payload();
+				if (payload != null) {
+					if (payload.containsKey("variant")) one.put("variant", textOrEmpty(payload.get("variant")));
+					if (payload.containsKey("savingPct")) one.put("savingPct", doubleOrZero(payload.get("savingPct")));
+					if (payload.containsKey("buildingName")) one.put("buildingName", textOrEmpty(payload.get("buildingName")));
+					if (payload.containsKey("pnu")) one.put("pnu", textOrEmpty(payload.get("pnu")));
+					if (payload.containsKey("floorAreaM2")) one.put("floorAreaM2", doubleOrZero(payload.get("floorAreaM2")));
+					if (payload.containsKey("builtYear")) one.put("builtYear", doubleOrZero(payload.get("builtYear")));
+				}
+
+				// 학습 메트릭(train/test)도 그대로 통과(필요 시 FE에서 거를 수 있게)
+				if (n.metrics() != null) one.put("metrics", n.metrics());
+
+				events.add(one);
 			}
 
 			return org.springframework.http.ResponseEntity.ok(body);
@@ -16,13 +16,54 @@ public class CacheHousekeeping {
 
     private final ApiCacheRepository repo;
 
-    @Value("${app.cache.ttl-minutes:30}")
-    private int ttlMinutes;
+    // ForecastService와 동일한 stale 유예창 — 유예창 안의 행은 stale 응답용으로 남겨둔다
+    @Value("${app.cache.stale-grace-minutes:5}")
+    private int staleGraceMinutes;
 
+    // 한 번에 지울 최대 행 수(= 트랜잭션 1개 크기)
+    @Value("${app.cache.evict.chunk-size:1000}")
+    private int chunkSize;
+
+    // 청크 사이 쉬는 시간 — 라이브 트래픽 upsert가 잠금을 얻을 틈을 준다
+    @Value("${app.cache.evict.pause-ms:50}")
+    private long pauseMs;
+
+    // 1회 실행 시간 예산 — 초과하면 남은 행은 다음 주기로 넘긴다
+    @Value("${app.cache.evict.max-run-ms:5000}")
+    private long maxRunMs;
+
+    /*
+     * expires_at 인덱스 기반 청크 삭제
+     * - 예전: DELETE ... WHERE expires_at <= :cutoff OR created_at <= :cutoff (한 방, OR로 넓게 스캔)
+     * - 지금: expires_at 순으로 chunk-size 건씩 지우고 pause-ms 쉬기를 max-run-ms 안에서 반복
+     * - created_at 조건은 제거: upsert 때마다 expires_at = 기록 시각 + TTL 로 갱신되므로
+     *   expires_at만으로 "오래된 행"이 모두 걸러진다(갱신 중인 행을 created_at으로 지우는 문제도 사라짐).
+     */
     @Scheduled(cron = "${app.cache.evict-cron:0 */10 * * * *}") // 필요시 0 */30 * * * *
     public void evictExpired() {
-        var cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
-        int n = repo.deleteExpired(cutoff); // createdAt <= :cutoff 또는 expiresAt <= :cutoff
-        if (n > 0) log.info("api_cache evicted {} rows (cutoff={})", n, cutoff);
+        var cutoff = LocalDateTime.now().minusMinutes(Math.max(0, staleGraceMinutes));
+        int limit = Math.max(1, chunkSize);
+        long deadline = System.currentTimeMillis() + Math.max(0L, maxRunMs);
+
+        int total = 0, chunks = 0;
+        while (true) {
+            int n = repo.deleteExpiredChunk(cutoff, limit);
+            total += n;
+            chunks++;
+            if (n < limit) break;                               // 더 지울 행 없음
+            if (System.currentTimeMillis() >= deadline) {       // 시간 예산 소진 → 다음 주기에 이어서
+                log.info("api_cache eviction time budget reached ({} ms); continuing next run", maxRunMs);
+                break;
+            }
+            if (pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (total > 0) log.info("api_cache evicted {} rows in {} chunks (cutoff={})", total, chunks, cutoff);
     }
 }
@@ -2,23 +2,35 @@
 // HttpConfig.java
 // ------------------------------------------------------------
 // 역할
-// 1) FastAPI(ML) 호출 전용 RestTemplate 빈을 구성한다.
-// 2) application.properties 의 ml.* 프로퍼티(접속/읽기 타임아웃)를 적용한다.
-// 3) 연결/읽기 타임아웃 기본값은 각각 1500ms / 3000ms 로 안전한 디폴트를 둔다.
+// 1) 외부(HTTP) 호출용 공유 클라이언트를 한 곳에서 구성한다.
+//    - outboundConnectionManager : 호스트(route)별 커넥션 풀 + keep-alive 재사용
+//    - outboundHttpClient        : 위 풀을 쓰는 Apache HttpClient 5 (유휴/만료 커넥션 백그라운드 정리)
+// 2) FastAPI(ML) 호출 전용 RestTemplate 빈(mlRestTemplate)을 위 클라이언트 위에 만든다.
+// 3) application.properties 의 ml.* 프로퍼티(접속/읽기 타임아웃)를 적용한다.
+//    (미설정 시 savegreen.ml.timeout.ms → 그것도 없으면 둘 다 5000ms)
+// 4) 풀 사용량을 Micrometer 지표로 노출한다.
+//    - httpcomponents.httpclient.pool.total.connections{state=available|leased, httpclient=outbound}
+//    - httpcomponents.httpclient.pool.total.pending / total.max / route.max.default
 //
 // 사용 방법
 // - application.properties:
 //     ml.base-url=http://127.0.0.1:8000
-//     ml.timeout-ms.connect=1500
-//     ml.timeout-ms.read=3000
+//     ml.timeout-ms.connect=5000
+//     ml.timeout-ms.read=5000
+//     app.http.pool.max-total=100            # 전체 커넥션 상한
+//     app.http.pool.max-per-route=20         # 호스트(route)당 커넥션 상한
+//     app.http.pool.acquire-timeout-ms=1000  # 풀에서 커넥션을 빌릴 때 최대 대기
+//     app.http.pool.keep-alive-ms=30000      # 서버가 Keep-Alive 헤더를 안 줄 때 재사용 유지 시간
+//     app.http.pool.idle-evict-ms=30000      # 이 시간 이상 놀던 커넥션은 닫음
 // - 서비스 코드(MlBridgeService 등)에서 이 빈을 주입받아 사용:
-//     private final RestTemplate mlRestTemplate;
-//     public MlBridgeService(RestTemplate mlRestTemplate, @Value("${ml.base-url}") String mlBaseUrl) { ... }
+//     public MlBridgeService(@Qualifier("mlRestTemplate") RestTemplate rest, ...) { ... }
 //
 // 주의
-// - 여기는 "ml.*" 만 읽는다. 기존 "app.ml.*"는 더 이상 사용하지 않는다.
+// - 타임아웃은 "ml.*" 를 우선 읽는다. 기존 "app.ml.*"는 더 이상 사용하지 않는다.
 // - RestTemplate 은 baseUrl 개념이 없으므로, 서비스 코드에서 URL을 조합해 호출해야 한다.
-// - 타임아웃은 HttpComponentsClientHttpRequestFactory 로 구성한다.
+// - 커넥션 타임아웃은 ConnectionConfig(풀), 응답 읽기 타임아웃은 요청 팩토리에서 구성한다.
+// - 다른 외부 API용 RestTemplate이 필요하면 outboundHttpClient 를 주입받아 팩토리만 새로 만들 것
+//   (클라이언트/풀을 따로 만들지 말 것).
 //
 // 확장 포인트
 // - 필요 시 인터셉터(요청 로깅/공통 헤더), 오류 핸들러(custom ResponseErrorHandler)를 추가해도 된다.
@@ -27,12 +39,26 @@
 // package 라인은 기존 파일의 패키지를 그대로 유지하세요.
 // package com.yourcompany.yourapp.config;
 package com.example.co2.config;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Iterator;
+
 @Configuration
 public class HttpConfig {
 
@@ -40,26 +66,96 @@ public class HttpConfig {
 	// 타임아웃 프로퍼티 바인딩
 	// - ml.timeout-ms.connect: 백엔드(ML) 소켓 연결을 맺는 데 허용하는 최대 시간
 	// - ml.timeout-ms.read   : 연결 이후 응답 바디를 읽는 데 허용하는 최대 시간
-	// - 기본값: 1500ms / 3000ms (프로퍼티가 비어 있어도 동작)
+	// - 기본값: savegreen.ml.timeout.ms(MlBridgeService 기존 키) → 둘 다 5000ms(예전 MlBridgeService 기본값과 동일)
 	// --------------------------------------------------------
-	@Value("${ml.timeout-ms.connect:1500}")
+	@Value("${ml.timeout-ms.connect:${savegreen.ml.timeout.ms:5000}}")
 	private int connectTimeoutMs;
 
-	@Value("${ml.timeout-ms.read:3000}")
+	@Value("${ml.timeout-ms.read:${savegreen.ml.timeout.ms:5000}}")
 	private int readTimeoutMs;
 
+	// --------------------------------------------------------
+	// 커넥션 풀 프로퍼티 바인딩 (app.http.pool.*)
+	// --------------------------------------------------------
+	@Value("${app.http.pool.max-total:100}")
+	private int poolMaxTotal;
+
+	@Value("${app.http.pool.max-per-route:20}")
+	private int poolMaxPerRoute;
+
+	@Value("${app.http.pool.acquire-timeout-ms:1000}")
+	private long poolAcquireTimeoutMs;
+
+	@Value("${app.http.pool.keep-alive-ms:30000}")
+	private long keepAliveMs;
+
+	@Value("${app.http.pool.idle-evict-ms:30000}")
+	private long idleEvictMs;
+
+	// --------------------------------------------------------
+	// 공유 커넥션 풀
+	// - route(스킴+호스트+포트)마다 max-per-route 까지, 전체 max-total 까지
+	// - 오래 쉬던 커넥션은 재사용 직전에 유효성 검사(validateAfterInactivity)
+	// - 지표: PoolingHttpClientConnectionManagerMetricsBinder (httpclient=outbound)
+	// --------------------------------------------------------
+	@Bean(destroyMethod = "close")
+	public PoolingHttpClientConnectionManager outboundConnectionManager(MeterRegistry meterRegistry) {
+		PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+				.setMaxConnTotal(poolMaxTotal)
+				.setMaxConnPerRoute(poolMaxPerRoute)
+				.setDefaultConnectionConfig(ConnectionConfig.custom()
+						.setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+						.setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+						.setValidateAfterInactivity(TimeValue.ofSeconds(2))
+						.build())
+				.build();
+
+		new PoolingHttpClientConnectionManagerMetricsBinder(cm, "outbound").bindTo(meterRegistry);
+		return cm;
+	}
+
+	// --------------------------------------------------------
+	// 공유 HttpClient
+	// - keep-alive: 서버 Keep-Alive: timeout=N 헤더가 있으면 그 값, 없으면 app.http.pool.keep-alive-ms
+	// - 백그라운드 정리 스레드가 만료/유휴 커넥션을 닫는다(FastAPI 재시작 후 죽은 소켓 재사용 방지)
+	// - 풀을 shared로 두면 HttpClient가 정리 스레드를 띄우지 않으므로 기본(비공유) 유지
+	//   → 클라이언트 close 시 풀도 함께 닫힌다(풀 빈의 close는 중복 호출돼도 무해)
+	// --------------------------------------------------------
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager outboundConnectionManager) {
+		return HttpClients.custom()
+				.setConnectionManager(outboundConnectionManager)
+				.setKeepAliveStrategy((response, context) -> {
+					Iterator<HeaderElement> it = MessageSupport.iterate(response, "Keep-Alive");
+					while (it.hasNext()) {
+						HeaderElement he = it.next();
+						if ("timeout".equalsIgnoreCase(he.getName()) && he.getValue() != null) {
+							try {
+								return TimeValue.ofSeconds(Long.parseLong(he.getValue().trim()));
+							} catch (NumberFormatException ignore) {
+								// 잘못된 헤더 → 기본값
+							}
+						}
+					}
+					return TimeValue.ofMilliseconds(keepAliveMs);
+				})
+				.evictExpiredConnections()
+				.evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+				.build();
+	}
+
 	// --------------------------------------------------------
 	// ML 전용 RestTemplate 빈
 	// - 빈 이름을 "mlRestTemplate"로 고정하여 주입 시 혼동 방지
 	// - 프로젝트에 RestTemplate가 여럿이면 @Primary 추가 고려
+	// - 커넥션은 outboundHttpClient 풀에서 빌려 쓰고 반납(keep-alive 재사용)
 	// --------------------------------------------------------
 	@Bean(name = "mlRestTemplate")
 	// @Primary
-	public RestTemplate mlRestTemplate() {
-		HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-		factory.setConnectTimeout(connectTimeoutMs);
-		factory.setReadTimeout(readTimeoutMs);
+	public RestTemplate mlRestTemplate(CloseableHttpClient outboundHttpClient) {
+		HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(outboundHttpClient);
+		factory.setConnectionRequestTimeout(Duration.ofMillis(poolAcquireTimeoutMs));
+		factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
 		return new RestTemplate(factory);
 	}
 }
-
@@ -1,12 +1,15 @@
 package com.example.co2.dto;
 
-import java.util.List;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 public class ForecastDtos {
 
-    /** 최종 응답 스키마 (FE가 사용하는 핵심만) */
+    /** 최종 응답 스키마 (FE가 사용하는 핵심만)
+     * - 시계열은 원시 배열(long[]/int[]) — 박싱 없이 계산/직렬화
+     * - JSON 모양은 그대로: years는 문자열 배열(["2025", ...]), 직렬화는 ForecastResponseSerializer */
+    @JsonSerialize(using = ForecastResponseSerializer.class)
     public record ForecastResponse(
-            List<String> years,
+            int[] years,
             Series series,
             Cost cost,
             Kpi kpi
@@ -14,13 +17,13 @@ public class ForecastDtos {
 
     /** 에너지(kWh/년) 시리즈 */
     public record Series(
-            List<Long> after,
-            List<Long> saving
+            long[] after,
+            long[] saving
     ) {}
 
     /** 비용(원/년) 시리즈 - 절감액만 사용 */
     public record Cost(
-            List<Long> saving
+            long[] saving
     ) {}
 
     /** KPI 지표 */
@@ -30,4 +33,16 @@ public class ForecastDtos {
             Integer savingPct,     // 절감률 % (정수, 없으면 FE 계산 가능)
             double  paybackYears   // 회수기간(년)
     ) {}
+
+    /** 배치 예측 요청의 건물 1건 (GET /api/forecast 쿼리 파라미터와 동일 의미, 모두 선택) */
+    public record BatchItem(
+            Long    buildingId,
+            Integer from,
+            Integer to,
+            String  scenario,
+            Integer builtYear,
+            String  use,
+            Double  floorArea,
+            String  pnu
+    ) {}
 }
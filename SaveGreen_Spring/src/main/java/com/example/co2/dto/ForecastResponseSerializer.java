@@ -0,0 +1,106 @@
+package com.example.co2.dto;
+
+import com.example.co2.dto.ForecastDtos.Cost;
+import com.example.co2.dto.ForecastDtos.ForecastResponse;
+import com.example.co2.dto.ForecastDtos.Kpi;
+import com.example.co2.dto.ForecastDtos.Series;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * ForecastResponse → JSON (JsonGenerator에 바로 기록)
+ * - 기본 record 직렬화와 같은 모양/필드 순서: years(문자열) → series → cost → kpi
+ * - long[]은 writeArray로 한 번에, 연도는 재사용 char 버퍼로 문자열 기록 → 요소별 박싱/String 생성 없음
+ */
+public class ForecastResponseSerializer extends StdSerializer<ForecastResponse> {
+
+    public ForecastResponseSerializer() {
+        super(ForecastResponse.class);
+    }
+
+    @Override
+    public void serialize(ForecastResponse r, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+
+        gen.writeFieldName("years");
+        writeYears(gen, r.years());
+
+        Series series = r.series();
+        gen.writeFieldName("series");
+        if (series == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            writeLongs(gen, "after", series.after());
+            writeLongs(gen, "saving", series.saving());
+            gen.writeEndObject();
+        }
+
+        Cost cost = r.cost();
+        gen.writeFieldName("cost");
+        if (cost == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            writeLongs(gen, "saving", cost.saving());
+            gen.writeEndObject();
+        }
+
+        Kpi kpi = r.kpi();
+        gen.writeFieldName("kpi");
+        if (kpi == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            gen.writeNumberField("savingKwhYr", kpi.savingKwhYr());
+            gen.writeNumberField("savingCostYr", kpi.savingCostYr());
+            gen.writeFieldName("savingPct");
+            if (kpi.savingPct() == null) gen.writeNull(); else gen.writeNumber(kpi.savingPct());
+            gen.writeNumberField("paybackYears", kpi.paybackYears());
+            gen.writeEndObject();
+        }
+
+        gen.writeEndObject();
+    }
+
+    private static void writeLongs(JsonGenerator gen, String name, long[] values) throws IOException {
+        gen.writeFieldName(name);
+        if (values == null) {
+            gen.writeNull();
+        } else {
+            gen.writeArray(values, 0, values.length);
+        }
+    }
+
+    /** 연도는 FE 호환을 위해 문자열로 ("2025") */
+    private static void writeYears(JsonGenerator gen, int[] years) throws IOException {
+        if (years == null) {
+            gen.writeNull();
+            return;
+        }
+        char[] digits = new char[11];
+        gen.writeStartArray(years, years.length);
+        for (int y : years) {
+            int len = formatInt(y, digits);
+            gen.writeString(digits, digits.length - len, len);
+        }
+        gen.writeEndArray();
+    }
+
+    /** digits 배열 끝에서부터 10진수로 채우고 길이를 반환 */
+    private static int formatInt(int v, char[] digits) {
+        int pos = digits.length;
+        long n = v;
+        boolean negative = n < 0;
+        if (negative) n = -n;
+        do {
+            digits[--pos] = (char) ('0' + (n % 10));
+            n /= 10;
+        } while (n != 0);
+        if (negative) digits[--pos] = '-';
+        return digits.length - pos;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.co2.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/* =========================================================
+ * MlLogEvent.java
+ * ---------------------------------------------------------
+ * 역할:
+ * 	- ML JSONL 로그 한 줄의 타입 모델(ml_logging.log_event / log_metrics 레코드)
+ * 	- MlLogEventParser가 JsonParser(스트리밍)로 필요한 필드만 채운다
+ * 		→ Map 트리 생성/숫자 정규화 재귀 복사 없이 응답 직렬화까지 그대로 사용
+ *
+ * 레코드 모양(요약):
+ * 	- { id, ts, type:'event'|'metrics', kind, area, event?, message?|msg?,
+ * 	    payload{...}, metrics{...}, tags{ run_id, model, chart, ... }, run_id? }
+ *
+ * 직렬화:
+ * 	- null 필드는 생략(원본 줄에 없던 키가 생기지 않음)
+ * 	- 숫자는 모두 Double(기존 /logs 응답의 숫자 정규화 규칙과 동일)
+ * 	- payload는 투영(Projection)으로 고른 스칼라 필드만, metrics/tags는 투영에 포함될 때만
+ * ========================================================= */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MlLogEvent(
+		String id,
+		String ts,
+		String type,
+		String kind,
+		String area,
+		String event,
+		String message,
+		String msg,
+		@JsonProperty("run_id") String runIdTop,	// top-level run_id/runId(예전 포맷)
+		Map<String, Object> tags,
+		Map<String, Object> payload,
+		Map<String, Object> metrics
+) {
+
+	/** run_id 판정: tags.run_id → tags.runId → top-level run_id/runId */
+	public String resolveRunId() {
+		if (tags != null) {
+			Object v = tags.get("run_id");
+			if (v == null) v = tags.get("runId");
+			if (v != null) return String.valueOf(v);
+		}
+		return runIdTop;
+	}
+
+	/** tags의 문자열 값(없으면 null) */
+	public String tag(String key) {
+		Object v = (tags != null) ? tags.get(key) : null;
+		return (v != null) ? String.valueOf(v) : null;
+	}
+}
@@ -22,16 +22,29 @@ public class ApiCache {
     @Column(name = "building_id")
     private Long buildingId;
 
-    @Column(name = "cache_key_hash", length = 64, nullable = false, unique = true)
-    private String cacheKeyHash;
+    // SHA-256(cache_key_raw) 32바이트 — V9에서 cache_key_hash(64자 hex)를 대체
+    @Column(name = "cache_key_bin", columnDefinition = "binary(32)", nullable = false, unique = true)
+    private byte[] cacheKeyBin;
 
     @Column(name = "cache_key_raw", length = 512)
     private String cacheKeyRaw;
 
     // MySQL 8 JSON 컬럼 - 문자열로 매핑 (유효한 JSON 문자열만 넣으세요)
-    @Column(name = "payload_json", columnDefinition = "json", nullable = false)
+    // - app.cache.payload-codec=binary 로 저장된 행은 null, 대신 payload_bin 사용
+    @Column(name = "payload_json", columnDefinition = "json")
     private String payloadJson;
 
+    // 바이너리 코덱(ForecastBinaryCodec) 페이로드 — JSON 코덱으로 저장된 행은 null
+    @Column(name = "payload_bin", columnDefinition = "blob")
+    private byte[] payloadBin;
+
+    // payload에서 파생된 값(HIT 경로 로그용) — 저장 시 미리 계산, 구버전 행은 null
+    @Column(name = "status_score")
+    private Integer statusScore;
+
+    @Column(name = "status_label", length = 20)
+    private String statusLabel;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,62 @@
+package com.example.co2.inference;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 학습 파이프라인의 ColumnTransformer 재현
+ * - 수치: StandardScaler  → (x − mean) / scale
+ * - 범주: OneHotEncoder(handle_unknown='ignore') → 모르는 범주는 해당 칸 전부 0
+ * - 출력 열 순서: 수치 열(산출물의 columns 순) 다음 범주별 원핫 칸(categories 순) — sklearn과 동일
+ *
+ * 열 이름은 로드 시점에 FeatureRow 필드 번호로 바꿔 둔다(예측 때 문자열 비교/맵 조회 없음).
+ */
+final class FeaturePreprocessor {
+
+	private final int[] numericFields;     // FeatureRow.numeric(i) 번호
+	private final double[] mean;
+	private final double[] scale;
+	private final String[][] categories;   // 범주 열마다 학습 때 본 값들(원핫 칸 순서)
+	private final int width;
+
+	FeaturePreprocessor(List<String> numericColumns, double[] mean, double[] scale, List<Map.Entry<String, List<String>>> categorical) {
+		if (numericColumns.size() != mean.length || mean.length != scale.length) {
+			throw new IllegalArgumentException("numeric scaler shape mismatch");
+		}
+		this.numericFields = new int[numericColumns.size()];
+		for (int i = 0; i < numericFields.length; i++) numericFields[i] = FeatureRow.numericIndex(numericColumns.get(i));
+		this.mean = mean.clone();
+		this.scale = scale.clone();
+
+		this.categories = new String[categorical.size()][];
+		int w = numericFields.length;
+		for (int i = 0; i < categories.length; i++) {
+			Map.Entry<String, List<String>> c = categorical.get(i);
+			if (!FeatureRow.CATEGORICAL_TYPE.equals(c.getKey())) {
+				throw new IllegalArgumentException("unsupported categorical column: " + c.getKey());
+			}
+			categories[i] = c.getValue().toArray(new String[0]);
+			w += categories[i].length;
+		}
+		this.width = w;
+	}
+
+	int width() {
+		return width;
+	}
+
+	double[] transform(FeatureRow row) {
+		double[] x = new double[width];
+		int k = 0;
+		for (int i = 0; i < numericFields.length; i++) {
+			x[k++] = (row.numeric(numericFields[i]) - mean[i]) / scale[i];
+		}
+		for (String[] cats : categories) {
+			String v = row.type();
+			for (String c : cats) {
+				x[k++] = c.equals(v) ? 1.0 : 0.0;
+			}
+		}
+		return x;
+	}
+}
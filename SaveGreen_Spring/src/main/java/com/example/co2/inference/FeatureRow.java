@@ -0,0 +1,31 @@
+package com.example.co2.inference;
+
+/*
+ * 모델 입력 1행 — ml/app/model.py _make_feature_frame 과 같은 5개 컬럼
+ *   ["type", "floorAreaM2", "builtYear", "energy_kwh", "eui_kwh_m2y"]
+ * energy_kwh / eui_kwh_m2y 는 PayloadReader가 _derive_energy_eui 규칙으로 채운다.
+ */
+record FeatureRow(String type, double floorAreaM2, double builtYear, double energyKwh, double euiKwhM2y) {
+
+	static final String CATEGORICAL_TYPE = "type";
+
+	/** 산출물의 수치 열 이름 → numeric(i) 번호 */
+	static int numericIndex(String column) {
+		return switch (column) {
+			case "floorAreaM2" -> 0;
+			case "builtYear" -> 1;
+			case "energy_kwh" -> 2;
+			case "eui_kwh_m2y" -> 3;
+			default -> throw new IllegalArgumentException("unsupported numeric column: " + column);
+		};
+	}
+
+	double numeric(int i) {
+		return switch (i) {
+			case 0 -> floorAreaM2;
+			case 1 -> builtYear;
+			case 2 -> energyKwh;
+			default -> euiKwhM2y;
+		};
+	}
+}
@@ -0,0 +1,146 @@
+package com.example.co2.inference;
+
+import com.example.co2.dto.PredictDtos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * InProcessScorer — 내보낸 모델(model_export.json)로 JVM 안에서 직접 예측
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - /predict 마다 FastAPI 왕복 + ModelManager.predict_variant의 1행 DataFrame/joblib 파이프라인 호출을
+ *    건너뛴다. 모델이 작아(ElasticNet 계수 + 200그루 트리) 계산 자체는 마이크로초 단위.
+ *
+ * 동작
+ *  - savegreen.ml.inference.artifact(기본 ../ml/data/model_export.json)를 읽어 A/B/C 예측.
+ *    파일은 학습이 끝날 때 train.py(app/export.py)가 pkl/manifest와 같은 버전으로 원자적으로 교체한다.
+ *  - 기본 비활성(savegreen.ml.inference.enabled=false) — 실제 학습 산출물로 export.py 정합성을
+ *    확인한 배포에서만 켠다.
+ *  - 파일 수정 시각이 바뀌면 다시 로드(@Scheduled poll-ms + 학습 완료 시 MlBridgeService가 reload()).
+ *    로드 실패 시 이전 모델 유지, 처음부터 없으면 비활성(전부 HTTP).
+ *  - 로드할 때마다 산출물의 parity(파이썬 예측값)를 이 JVM 모델로 다시 예측해 비교하고,
+ *    하나라도 parity-tolerance를 넘으면 그 산출물은 거부(이전 모델 유지 / 없으면 HTTP만).
+ *    → 내보내기(계수·컬럼 순서 등)가 틀린 모델이 조용히 실서비스 경로가 되는 것을 막는다.
+ *  - predict(...)가 null → 호출 쪽이 기존 HTTP 경로(FastAPI)를 그대로 사용:
+ *      · 산출물 없음 / enabled=false
+ *      · 파이썬과 같은 결과를 낼 수 없는 입력(PredictInput.from 이 null)
+ *      · 요청 variant에 필요한 모델이 없음(파이썬은 규칙 폴백)
+ *
+ * 정합성
+ *  - 산출물의 parity(파이썬 예측값)와 비교하는 테스트: src/test/java/.../inference
+ *  - 차이: 이 경로는 ML 서버의 predict_variant 로그(JSONL)를 남기지 않는다.
+ *    → 켜 두면 /logs/latest·/logs/query 와 예측 페이지의 건물별 A/B/C 로그에
+ *      JVM에서 처리한 요청이 빠진다(ForecastMlController /logs/latest 주석 참고).
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class InProcessScorer {
+
+	private final boolean enabled;
+	private final Path artifactPath;
+	private final double parityTolerance;
+	private final ObjectMapper objectMapper;
+
+	private volatile ModelArtifact model;       // null = 사용 불가
+	private volatile FileTime loadedMtime;
+
+	public InProcessScorer(
+			ObjectMapper objectMapper,
+			@Value("${savegreen.ml.inference.enabled:false}") boolean enabled,
+			@Value("${savegreen.ml.inference.artifact:../ml/data/model_export.json}") String artifact,
+			@Value("${savegreen.ml.inference.parity-tolerance:1e-6}") double parityTolerance
+	) {
+		this.objectMapper = objectMapper;
+		this.enabled = enabled;
+		this.artifactPath = Paths.get(artifact);
+		this.parityTolerance = parityTolerance;
+		if (enabled) reload();
+	}
+
+	/** 사용 가능한 모델의 버전(파이썬 응답/ /model/status 의 modelVersion 과 같음), 없으면 null */
+	public String modelVersion() {
+		ModelArtifact m = model;
+		return (m == null) ? null : m.modelVersion();
+	}
+
+	/*
+	 * 표준 /predict 응답(FastAPI 응답과 같은 모양) — 처리할 수 없으면 null(→ HTTP)
+	 * - payload: FastAPI로 보내던 바디 그대로(단가/CAPEX 등 DTO 밖 필드 포함)
+	 */
+	public Map<String, Object> predict(Map<String, Object> payload, String variant) {
+		ModelArtifact m = model;
+		if (m == null) return null;
+		PredictInput in = PredictInput.from(payload);
+		if (in == null) return null;
+
+		String v = normalizeVariant(variant);
+		double pct = m.predictPct(in.features(), v);
+		if (Double.isNaN(pct)) return null;
+		return ResponseAssembler.assemble(in, v, pct, m.modelVersion());
+	}
+
+	/** 요청 DTO → variant 절감률(%, 0..100 — 응답의 kpi.savingPct는 여기서 0..40으로 클램프됨), 처리 불가면 empty */
+	public OptionalDouble score(PredictDtos.PredictRequest req, String variant) {
+		ModelArtifact m = model;
+		PredictInput in = (m == null) ? null : PredictInput.from(req);
+		if (in == null) return OptionalDouble.empty();
+		double pct = m.predictPct(in.features(), normalizeVariant(variant));
+		return Double.isNaN(pct) ? OptionalDouble.empty() : OptionalDouble.of(pct);
+	}
+
+	private static String normalizeVariant(String variant) {
+		return (variant == null || variant.isBlank()) ? "C" : variant.toUpperCase(Locale.ROOT);
+	}
+
+	/* ===== 로드/재로드 ===== */
+
+	/** 파일이 바뀌었으면 다시 읽음(학습 완료 직후 MlBridgeService가 즉시 호출) */
+	public synchronized void reload() {
+		if (!enabled) return;
+		FileTime mtime;
+		try {
+			mtime = Files.getLastModifiedTime(artifactPath);
+		} catch (IOException ex) {
+			if (model != null && loadedMtime != null) log.info("[inference] artifact gone ({}) — keep {}", artifactPath, model.modelVersion());
+			loadedMtime = null;
+			return;
+		}
+		if (mtime.equals(loadedMtime)) return;
+
+		try (InputStream in = Files.newInputStream(artifactPath)) {
+			ModelArtifact next = ModelArtifact.read(in, objectMapper);
+			String mismatch = next.parityMismatch(parityTolerance);
+			if (mismatch != null) {
+				throw new IOException("parity check failed (modelVersion=" + next.modelVersion() + "): " + mismatch);
+			}
+			model = next;
+			log.info("[inference] loaded {} (modelVersion={}, A={}, B={}, parity={} ok)",
+					artifactPath, next.modelVersion(), next.has("A"), next.has("B"), next.parity().size());
+		} catch (IOException | RuntimeException ex) {
+			log.warn("[inference] load failed ({}): {} — {}", artifactPath, ex.toString(),
+					(model == null) ? "HTTP only" : "keep " + model.modelVersion());
+		}
+		loadedMtime = mtime;   // 실패한 파일도 같은 파일이면 다시 시도하지 않음(다음 교체 때 재시도)
+	}
+
+	@Scheduled(initialDelayString = "${savegreen.ml.inference.poll-ms:10000}",
+			fixedDelayString = "${savegreen.ml.inference.poll-ms:10000}")
+	public void poll() {
+		reload();
+	}
+}
@@ -0,0 +1,203 @@
+package com.example.co2.inference;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * model_export.json(ml/app/export.py가 학습 직후 기록) 로드 결과 — 불변
+ * - A: ElasticNet 파이프라인, B: RandomForest 파이프라인(둘 중 하나는 없을 수 있음)
+ * - C: A/B 가중 평균, 가중치는 ModelManager._ensemble_weights()와 같은 규칙으로 미리 정규화되어 기록됨
+ * - parity: 같은 산출물로 파이썬이 낸 A/B/C 값 — 예측에는 쓰지 않고, 로드 시 parityMismatch()로 검증
+ */
+final class ModelArtifact {
+
+	static final String FORMAT = "savegreen.portable-model";
+	static final int FORMAT_VERSION = 1;
+	static final String DEFAULT_MODEL_VERSION = "2025.10.C";   // model.py _model_version_hint 기본값
+
+	/** 파이썬 예측값 1건: payload(/predict 바디 모양) + A/B/C(모델이 없으면 null) */
+	record ParityCase(Map<String, Object> payload, Double a, Double b, Double c) {}
+
+	private final String modelVersion;
+	private final Regressor a;
+	private final Regressor b;
+	private final double wA;
+	private final double wB;
+	private final List<ParityCase> parity;
+
+	private ModelArtifact(String modelVersion, Regressor a, Regressor b, double wA, double wB, List<ParityCase> parity) {
+		this.modelVersion = modelVersion;
+		this.a = a;
+		this.b = b;
+		this.wA = wA;
+		this.wB = wB;
+		this.parity = parity;
+	}
+
+	String modelVersion() {
+		return modelVersion;
+	}
+
+	boolean has(String model) {
+		return "A".equals(model) ? a != null : "B".equals(model) ? b != null : (a != null || b != null);
+	}
+
+	List<ParityCase> parity() {
+		return parity;
+	}
+
+	/*
+	 * parity 표본을 이 모델로 다시 예측해 파이썬 값과 비교 — 모두 맞으면 null, 아니면 첫 불일치 설명
+	 * - 허용 오차: 상대 relTol(값이 1 미만이면 절대 relTol)
+	 * - 표본이 없거나, 표본 입력을 재현할 수 없거나(PredictInput.from null),
+	 *   파이썬에는 있던 모델이 여기 없으면(또는 그 반대) 불일치로 본다.
+	 */
+	String parityMismatch(double relTol) {
+		if (parity.isEmpty()) return "no parity samples";
+		for (int i = 0; i < parity.size(); i++) {
+			ParityCase c = parity.get(i);
+			PredictInput in = PredictInput.from(c.payload());
+			if (in == null) return "parity[" + i + "]: payload not reproducible";
+			FeatureRow row = in.features();
+			String bad = mismatch("A", c.a(), predictA(row), relTol);
+			if (bad == null) bad = mismatch("B", c.b(), predictB(row), relTol);
+			if (bad == null) bad = mismatch("C", c.c(), predictPct(row, "C"), relTol);
+			if (bad != null) return "parity[" + i + "] " + bad;
+		}
+		return null;
+	}
+
+	private static String mismatch(String model, Double expected, double actual, double relTol) {
+		if (expected == null) {
+			return Double.isNaN(actual) ? null : model + ": expected none, got " + actual;
+		}
+		if (Double.isNaN(actual)) return model + ": expected " + expected + ", got none";
+		double diff = Math.abs(expected - actual);
+		return (diff <= relTol * Math.max(1.0, Math.abs(expected))) ? null
+				: model + ": expected " + expected + ", got " + actual;
+	}
+
+	/** A 예측(0..100 클립), 모델이 없으면 NaN */
+	double predictA(FeatureRow row) {
+		return (a == null) ? Double.NaN : clip100(a.predict(row));
+	}
+
+	/** B 예측(0..100 클립), 모델이 없으면 NaN */
+	double predictB(FeatureRow row) {
+		return (b == null) ? Double.NaN : clip100(b.predict(row));
+	}
+
+	/*
+	 * variant별 절감률(%) — ModelManager._predict_pct / _pct_from 과 같은 규칙
+	 * - A / B: 해당 모델 값
+	 * - 그 외(C 및 모르는 값): 둘 다 있으면 clip(wA·a + wB·b), 하나만 있으면 그 값
+	 * - 필요한 모델이 없으면 NaN(파이썬은 규칙 폴백 → 호출 쪽이 HTTP로 넘김)
+	 */
+	double predictPct(FeatureRow row, String variant) {
+		if ("A".equals(variant)) return predictA(row);
+		if ("B".equals(variant)) return predictB(row);
+		double av = predictA(row);
+		double bv = predictB(row);
+		if (Double.isNaN(av)) return bv;
+		if (Double.isNaN(bv)) return av;
+		return clip100(wA * av + wB * bv);
+	}
+
+	private static double clip100(double v) {
+		return Math.max(0.0, Math.min(v, 100.0));
+	}
+
+	/* ===== 로드 ===== */
+
+	static ModelArtifact read(InputStream in, ObjectMapper mapper) throws IOException {
+		JsonNode root = mapper.readTree(in);
+		if (root == null || !FORMAT.equals(root.path("format").asText())) {
+			throw new IOException("not a portable model export");
+		}
+		if (root.path("formatVersion").asInt() != FORMAT_VERSION) {
+			throw new IOException("unsupported formatVersion: " + root.path("formatVersion"));
+		}
+
+		String version = root.path("modelVersion").asText("").strip();
+		if (version.isEmpty()) version = DEFAULT_MODEL_VERSION;
+
+		try {
+			JsonNode models = root.path("models");
+			Regressor a = models.has("A") ? regressor(models.get("A")) : null;
+			Regressor b = models.has("B") ? regressor(models.get("B")) : null;
+			if (a == null && b == null) throw new IOException("no models in export");
+
+			JsonNode ens = root.path("ensemble");
+			double wA = ens.path("wA").asDouble(0.5);
+			double wB = ens.path("wB").asDouble(0.5);
+
+			List<ParityCase> parity = new ArrayList<>();
+			for (JsonNode p : root.path("parity")) {
+				Map<String, Object> payload = mapper.convertValue(p.path("payload"), new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {});
+				parity.add(new ParityCase(payload, nullableDouble(p.get("A")), nullableDouble(p.get("B")), nullableDouble(p.get("C"))));
+			}
+			return new ModelArtifact(version, a, b, wA, wB, Collections.unmodifiableList(parity));
+		} catch (IllegalArgumentException ex) {
+			throw new IOException("invalid model export: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static Regressor regressor(JsonNode m) throws IOException {
+		FeaturePreprocessor pre = preprocessor(m.path("preprocess"));
+		String kind = m.path("estimator").asText();
+		switch (kind) {
+			case "linear":
+				return new Regressor.Linear(pre, doubles(m.path("coef")), m.path("intercept").asDouble());
+			case "forest": {
+				JsonNode ts = m.path("trees");
+				Regressor.Tree[] trees = new Regressor.Tree[ts.size()];
+				for (int i = 0; i < trees.length; i++) {
+					JsonNode t = ts.get(i);
+					trees[i] = new Regressor.Tree(ints(t.path("left")), ints(t.path("right")), ints(t.path("feature")),
+							doubles(t.path("threshold")), doubles(t.path("value")));
+				}
+				return new Regressor.Forest(pre, trees);
+			}
+			default:
+				throw new IOException("unsupported estimator: " + kind);
+		}
+	}
+
+	private static FeaturePreprocessor preprocessor(JsonNode p) {
+		JsonNode num = p.path("numeric");
+		List<String> cols = new ArrayList<>();
+		for (JsonNode c : num.path("columns")) cols.add(c.asText());
+
+		List<Map.Entry<String, List<String>>> cats = new ArrayList<>();
+		for (JsonNode c : p.path("categorical")) {
+			List<String> values = new ArrayList<>();
+			for (JsonNode v : c.path("categories")) values.add(v.asText());
+			cats.add(new AbstractMap.SimpleImmutableEntry<>(c.path("column").asText(), values));
+		}
+		return new FeaturePreprocessor(cols, doubles(num.path("mean")), doubles(num.path("scale")), cats);
+	}
+
+	private static double[] doubles(JsonNode arr) {
+		double[] out = new double[arr.size()];
+		for (int i = 0; i < out.length; i++) out[i] = arr.get(i).asDouble();
+		return out;
+	}
+
+	private static int[] ints(JsonNode arr) {
+		int[] out = new int[arr.size()];
+		for (int i = 0; i < out.length; i++) out[i] = arr.get(i).asInt();
+		return out;
+	}
+
+	private static Double nullableDouble(JsonNode n) {
+		return (n == null || n.isNull()) ? null : n.asDouble();
+	}
+}
@@ -0,0 +1,93 @@
+package com.example.co2.inference;
+
+import com.example.co2.dto.PredictDtos;
+
+import java.util.Map;
+
+/*
+ * /predict 입력 중 예측·응답 조립에 쓰는 값만 뽑은 것
+ * - 파이썬 쪽 해석(main._coerce_numeric_fields → model._make_feature_frame / _derive_energy_eui /
+ *   _finalize_response)과 결과가 같다고 확신할 수 있는 입력만 받는다.
+ *   그 밖의 모양(숫자 자리에 문자열, type 누락, 면적 누락 등 — 파이썬이 400/예측 실패/규칙 폴백으로 가는 경우)은
+ *   from(...)이 null → 호출 쪽이 기존 HTTP 경로로 넘긴다.
+ * - 숫자 필드 null = 미입력(파이썬 기본값 적용)
+ */
+record PredictInput(
+		String type,
+		double floorAreaM2,
+		Number builtYear,
+		Double energyKwh,
+		Double baselineKwh,
+		Number yearsFrom,
+		Number yearsTo,
+		Double tariffKrwPerKwh,
+		Double escalation,
+		Double capexPerM2,
+		Double capexFixed,
+		Double capexFreeAreaM2,
+		Object buildingName,
+		Object pnu
+) {
+
+	static final double DEFAULT_EUI = 250.0;   // model.py DEFAULT_EUI (kWh/㎡·년)
+
+	/** FastAPI로 보내던 payload 그대로(Map) → 입력, 그대로 재현할 수 없으면 null */
+	static PredictInput from(Map<String, Object> p) {
+		if (p == null) return null;
+		if (!(p.get("type") instanceof String type)) return null;
+		Double floor = number(p, "floorAreaM2");
+		if (floor == null || Double.isNaN(floor) || !(p.get("builtYear") instanceof Number built)) return null;
+		try {
+			return new PredictInput(
+					type, floor, built,
+					number(p, "energy_kwh"), number(p, "baselineKwh"),
+					yearNumber(p, "yearsFrom"), yearNumber(p, "yearsTo"),
+					number(p, "tariffKrwPerKwh"), number(p, "electricityEscalationPctPerYear"),
+					number(p, "capexPerM2"), number(p, "capexFixed"), number(p, "capexFreeAreaM2"),
+					p.get("buildingName"), p.get("pnu"));
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/** 요청 DTO → 입력(DTO에 없는 단가/CAPEX/baselineKwh는 기본값), 필수 값이 없으면 null */
+	static PredictInput from(PredictDtos.PredictRequest r) {
+		if (r == null || r.getType() == null || r.getFloorAreaM2() == null || r.getBuiltYear() == null) return null;
+		if (Double.isNaN(r.getFloorAreaM2())) return null;
+		return new PredictInput(
+				r.getType(), r.getFloorAreaM2(), r.getBuiltYear(),
+				r.getEnergy_kwh(), null,
+				r.getYearsFrom(), r.getYearsTo(),
+				null, null, null, null, null,
+				r.getBuildingName(), r.getPnu());
+	}
+
+	/*
+	 * 모델 입력 1행 — _derive_energy_eui
+	 * - energy = energy_kwh → baselineKwh → (면적>0 ? 면적×250 : 300,000)
+	 * - eui = 면적>0 ? energy/면적 : 250 (payload의 eui_kwh_m2y는 쓰지 않음)
+	 */
+	FeatureRow features() {
+		double energy = (energyKwh != null) ? energyKwh
+				: (baselineKwh != null) ? baselineKwh
+				: (floorAreaM2 > 0) ? floorAreaM2 * DEFAULT_EUI : 300_000.0;
+		double eui = (floorAreaM2 > 0) ? energy / floorAreaM2 : DEFAULT_EUI;
+		return new FeatureRow(type, floorAreaM2, builtYear.doubleValue(), energy, eui);
+	}
+
+	/** 숫자 필드: 없음/null → null, 숫자 → double, 그 밖(문자열/불리언 등) → IllegalArgumentException */
+	private static Double number(Map<String, Object> p, String key) {
+		Object v = p.get(key);
+		if (v == null) return null;
+		if (v instanceof Number n) return n.doubleValue();
+		throw new IllegalArgumentException(key);
+	}
+
+	/** yearsFrom/yearsTo: 파이썬 int(x) 그대로 받을 수 있는 숫자만(문자열 연도는 HTTP 경로) */
+	private static Number yearNumber(Map<String, Object> p, String key) {
+		Object v = p.get(key);
+		if (v == null) return null;
+		if (v instanceof Number n && Double.isFinite(n.doubleValue())) return n;
+		throw new IllegalArgumentException(key);
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.co2.inference;
+
+/*
+ * 파이프라인 1개(A 또는 B) = 전처리 + 추정기
+ * - predict 값은 학습 타깃(절감률 %) 그대로 — 0..100 클립은 호출 쪽(ModelArtifact)이 한다(_predict_with와 동일).
+ */
+interface Regressor {
+
+	double predict(FeatureRow row);
+
+	/* ===== ElasticNet: x·coef + intercept ===== */
+	record Linear(FeaturePreprocessor pre, double[] coef, double intercept) implements Regressor {
+
+		public Linear {
+			if (coef.length != pre.width()) throw new IllegalArgumentException("coef length " + coef.length + " != features " + pre.width());
+		}
+
+		@Override
+		public double predict(FeatureRow row) {
+			double[] x = pre.transform(row);
+			double y = 0.0;
+			for (int i = 0; i < x.length; i++) y += x[i] * coef[i];
+			return y + intercept;
+		}
+	}
+
+	/* ===== RandomForestRegressor: 트리 예측값의 평균 =====
+	 * - 트리는 배열형(sklearn tree_ 그대로): left/right(-1 = 잎), feature, threshold, value
+	 * - sklearn은 트리에 넣기 전 입력을 float32로 바꾼 뒤 float64 threshold와 비교한다
+	 *   → 같은 자리에서 (double)(float) 변환을 해야 경계값에서 갈래가 같아진다.
+	 */
+	record Forest(FeaturePreprocessor pre, Tree[] trees) implements Regressor {
+
+		public Forest {
+			if (trees.length == 0) throw new IllegalArgumentException("empty forest");
+			for (Tree t : trees) t.check(pre.width());
+		}
+
+		@Override
+		public double predict(FeatureRow row) {
+			double[] x = pre.transform(row);
+			for (int i = 0; i < x.length; i++) x[i] = (float) x[i];
+			double sum = 0.0;
+			for (Tree t : trees) sum += t.predict(x);
+			return sum / trees.length;
+		}
+	}
+
+	record Tree(int[] left, int[] right, int[] feature, double[] threshold, double[] value) {
+
+		double predict(double[] x) {
+			int node = 0;
+			while (left[node] >= 0) {
+				node = (x[feature[node]] <= threshold[node]) ? left[node] : right[node];
+			}
+			return value[node];
+		}
+
+		/** 로드 시 1회: 배열 길이/자식 번호/특성 번호 범위 확인(예측 중 인덱스 오류 방지) */
+		void check(int width) {
+			int n = left.length;
+			if (n == 0 || right.length != n || feature.length != n || threshold.length != n || value.length != n) {
+				throw new IllegalArgumentException("tree arrays length mismatch");
+			}
+			for (int i = 0; i < n; i++) {
+				if (left[i] < 0) continue;
+				if (left[i] <= i || left[i] >= n || right[i] <= i || right[i] >= n) {
+					throw new IllegalArgumentException("tree child index out of range at node " + i);
+				}
+				if (feature[i] < 0 || feature[i] >= width) {
+					throw new IllegalArgumentException("tree feature index out of range at node " + i);
+				}
+			}
+		}
+	}
+}
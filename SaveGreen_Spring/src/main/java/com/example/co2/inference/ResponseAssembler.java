@@ -0,0 +1,145 @@
+package com.example.co2.inference;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 절감률(%) → /predict 표준 응답 — ModelManager._assemble / _finalize_response / _build_years 이식
+ * - 키 순서/값/반올림을 파이썬 응답과 같게 유지(FE·예측 캐시가 두 경로를 구분하지 않음).
+ * - round(x, n): 파이썬은 double의 정확한 10진 값을 half-even으로 반올림 → new BigDecimal(double)로 동일하게.
+ * - 단가/상승률/CAPEX 기본값은 model.py 상수와 같다.
+ */
+final class ResponseAssembler {
+
+	static final double DEFAULT_TARIFF = 130.0;             // KRW/kWh
+	static final double DEFAULT_CAPEX_PER_M2 = 200_000.0;   // KRW/㎡
+	static final double DEFAULT_ESCALATION = 0.03;          // 전력단가 연 상승률
+	static final int UI_COST_AXIS_MAX = 60_000_000;
+
+	private ResponseAssembler() {}
+
+	static Map<String, Object> assemble(PredictInput in, String variant, double savingPct, String modelVersion) {
+		return assemble(in, variant, savingPct, modelVersion, Year.now().getValue());
+	}
+
+	/** nowYear: 기본 연도 범위·연식 점수 기준(테스트에서 고정) */
+	static Map<String, Object> assemble(PredictInput in, String variant, double savingPct, String modelVersion, int nowYear) {
+		List<Integer> years = buildYears(in.yearsFrom(), in.yearsTo(), nowYear);
+
+		double floor = in.floorAreaM2();
+		double baseline = (in.baselineKwh() != null) ? in.baselineKwh()
+				: (floor > 0) ? floor * PredictInput.DEFAULT_EUI : 300_000.0;
+
+		// 현실성용 절감률 클램프(판정용) : 0~40%
+		double pct = Math.max(0.0, Math.min(savingPct, 40.0));
+
+		double tariff0 = orElse(in.tariffKrwPerKwh(), DEFAULT_TARIFF);
+		double escal = orElse(in.escalation(), DEFAULT_ESCALATION);
+		double capexPerM2 = orElse(in.capexPerM2(), DEFAULT_CAPEX_PER_M2);
+
+		double after = baseline * (1.0 - pct / 100.0);
+		double savingKwh = baseline - after;
+		List<Double> seriesAfter = new ArrayList<>(years.size());
+		List<Double> seriesSaving = new ArrayList<>(years.size());
+		List<Double> costSaving = new ArrayList<>(years.size());
+		for (int i = 0; i < years.size(); i++) {
+			seriesAfter.add(round(after, 4));
+			seriesSaving.add(round(savingKwh, 4));
+			costSaving.add(round(savingKwh * (tariff0 * Math.pow(1.0 + escal, i)), 2));
+		}
+
+		// KPI: CAPEX 및 첫 해 절감비용(= 판정 기준)
+		double capexFixed = orElse(in.capexFixed(), 0.0);
+		double effArea = Math.max(0.0, floor - orElse(in.capexFreeAreaM2(), 0.0));
+		double capex = Math.max(0.0, capexFixed + capexPerM2 * effArea);
+		double firstSavingCost = costSaving.get(0);
+		double payback = (firstSavingCost > 0) ? capex / firstSavingCost : 99.0;
+
+		// 라벨/점수(18/10/8/12) — 낮은 절감률·긴 회수기간은 비추천
+		int savingPctPts = 0, paybackPts = 0, agePts = 0, score = 0;
+		String label;
+		if (pct < 5.0 || payback > 20.0) {
+			label = "NOT_RECOMMEND";
+		} else {
+			savingPctPts = (pct >= 18.0) ? 2 : (pct >= 10.0) ? 1 : 0;
+			paybackPts = (payback <= 8.0) ? 2 : (payback <= 12.0) ? 1 : 0;
+			long builtYear = (long) in.builtYear().doubleValue();   // int(x or 0): 0쪽으로 버림
+			if (builtYear > 0 && builtYear <= nowYear) {
+				long age = nowYear - builtYear;
+				agePts = (age >= 25) ? 2 : (age >= 10) ? 1 : 0;
+			} else {
+				agePts = 1;
+			}
+			score = savingPctPts + paybackPts + agePts;
+			label = (score >= 4) ? "RECOMMEND" : (score >= 2) ? "CONDITIONAL" : "NOT_RECOMMEND";
+		}
+
+		Map<String, Object> scoreDetail = new LinkedHashMap<>();
+		scoreDetail.put("savingPctPts", savingPctPts);
+		scoreDetail.put("paybackPts", paybackPts);
+		scoreDetail.put("agePts", agePts);
+		scoreDetail.put("total", score);
+
+		Map<String, Object> kpi = new LinkedHashMap<>();
+		kpi.put("savingCostYr", firstSavingCost);
+		kpi.put("savingKwhYr", round(savingKwh, 4));
+		kpi.put("savingPct", round(pct, 4));
+		kpi.put("paybackYears", round(payback, 3));
+		kpi.put("label", label);
+		kpi.put("scoreDetail", scoreDetail);
+
+		Map<String, Object> series = new LinkedHashMap<>();
+		series.put("after", seriesAfter);
+		series.put("savingKwhYr", seriesSaving);
+
+		Map<String, Object> contextEcho = new LinkedHashMap<>();
+		contextEcho.put("buildingName", in.buildingName());
+		contextEcho.put("pnu", in.pnu());
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("schemaVersion", "1.0");
+		body.put("modelVersion", modelVersion);
+		body.put("years", years);
+		body.put("series", series);
+		body.put("cost", Map.of("savingKrwYr", costSaving));
+		body.put("kpi", kpi);
+		body.put("contextEcho", contextEcho);
+		body.put("debug", Map.of("warnings", List.of()));
+		body.put("source", "ML");
+		body.put("variant", variant);
+		Map<String, Object> uiHints = new LinkedHashMap<>();
+		uiHints.put("costAxisMax", UI_COST_AXIS_MAX);
+		uiHints.put("animation", Map.of("order", "bar->point->line"));
+		body.put("uiHints", uiHints);
+		return body;
+	}
+
+	/** _build_years: from 없으면 올해, to 없으면 from+10, 뒤집혔으면 교환, 양끝 포함(0도 '없음') */
+	static List<Integer> buildYears(Number from, Number to, int nowYear) {
+		int yf = (from != null && from.doubleValue() != 0) ? (int) from.doubleValue() : nowYear;
+		int yt = (to != null && to.doubleValue() != 0) ? (int) to.doubleValue() : yf + 10;
+		if (yt < yf) {
+			int t = yf;
+			yf = yt;
+			yt = t;
+		}
+		List<Integer> years = new ArrayList<>(yt - yf + 1);
+		for (int y = yf; y <= yt; y++) years.add(y);
+		return years;
+	}
+
+	/** 파이썬 round(x, n) */
+	static double round(double x, int n) {
+		if (!Double.isFinite(x)) return x;
+		return new BigDecimal(x).setScale(n, RoundingMode.HALF_EVEN).doubleValue();
+	}
+
+	private static double orElse(Double v, double dflt) {
+		return (v != null) ? v : dflt;
+	}
+}
@@ -6,42 +6,59 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface ApiCacheRepository extends JpaRepository<ApiCache, Long> {
+public interface ApiCacheRepository extends JpaRepository<ApiCache, Long>, ApiCacheRepositoryCustom {
 
     /* 캐시 조회 (유효기간 내) — 서비스에서 사용하는 시그니처 */
-    Optional<ApiCache> findTopByCacheKeyHashAndExpiresAtAfter(String cacheKeyHash, LocalDateTime now);
+    Optional<ApiCache> findTopByCacheKeyBinAndExpiresAtAfter(byte[] cacheKeyBin, LocalDateTime now);
 
-    /* MySQL 8 JSON UPSERT — 테이블/컬럼명 소문자 + 백틱 통일 */
+    /* 다건 캐시 조회 (배치 예측) — WHERE cache_key_bin IN (...) AND expires_at > :now 한 번으로 조회 */
+    List<ApiCache> findByCacheKeyBinInAndExpiresAtAfter(Collection<byte[]> cacheKeyBins, LocalDateTime now);
+
+    /* MySQL 8 JSON UPSERT — 테이블/컬럼명 소문자 + 백틱 통일
+     * - payload(JSON)와 payloadBin(바이너리 코덱) 중 하나만 채워 보낸다 */
     @Modifying
     @Transactional
     @Query(value = """
         INSERT INTO `api_cache`
-          (`cache_key_hash`, `cache_key_raw`, `payload_json`, `expires_at`, `building_id`, `guest_ip`, `created_at`)
+          (`cache_key_bin`, `cache_key_raw`, `payload_json`, `payload_bin`, `status_score`, `status_label`, `expires_at`, `building_id`, `guest_ip`, `created_at`)
         VALUES
-          (:hash, :raw, CAST(:payload AS JSON), :expiresAt, :buildingId, :guestIp, NOW(3))
+          (:keyBin, :raw, CAST(:payload AS JSON), :payloadBin, :statusScore, :statusLabel, :expiresAt, :buildingId, :guestIp, NOW(3))
         ON DUPLICATE KEY UPDATE
           `cache_key_raw` = VALUES(`cache_key_raw`),
           `payload_json`  = VALUES(`payload_json`),
+          `payload_bin`   = VALUES(`payload_bin`),
+          `status_score`  = VALUES(`status_score`),
+          `status_label`  = VALUES(`status_label`),
           `expires_at`    = VALUES(`expires_at`),
           `building_id`   = VALUES(`building_id`),
           `guest_ip`      = VALUES(`guest_ip`)
         """, nativeQuery = true)
-    int upsert(@Param("hash") String hash,
+    int upsert(@Param("keyBin") byte[] keyBin,
                @Param("raw") String raw,
                @Param("payload") String payload,
+               @Param("payloadBin") byte[] payloadBin,
+               @Param("statusScore") Integer statusScore,
+               @Param("statusLabel") String statusLabel,
                @Param("expiresAt") LocalDateTime expiresAt,
                @Param("buildingId") Long buildingId,
                @Param("guestIp") String guestIp);
 
-    /* ⬇⬇⬇ 여기 추가: 만료/오래된 레코드 삭제 (하우스키핑) */
+    /* ⬇⬇⬇ 여기 추가: 만료 레코드 삭제 (하우스키핑) — 한 번에 limit 건씩
+     * - expires_at 인덱스(idx_api_cache_exp_id)를 순서대로 훑으며 앞쪽부터 지움 → 짧은 트랜잭션/좁은 잠금
+     * - cutoff: stale 유예창까지 지난 시각 (now - grace)
+     * - 반환값 < limit 이면 더 지울 행이 없다는 뜻 */
     @Modifying
     @Transactional
     @Query(value = """
         DELETE FROM `api_cache`
         WHERE `expires_at` <= :cutoff
-           OR `created_at` <= :cutoff
+        ORDER BY `expires_at`, `cache_id`
+        LIMIT :limit
         """, nativeQuery = true)
-    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+    int deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff,
+                           @Param("limit") int limit);
 }
@@ -0,0 +1,10 @@
+package com.example.co2.repository;
+
+import java.util.List;
+
+/* api_cache — JPA 파생/@Query로 표현하기 어려운 쿼리(가변 길이 다건 UPSERT 등) */
+public interface ApiCacheRepositoryCustom {
+
+    /** 여러 행을 한 번의 INSERT ... ON DUPLICATE KEY UPDATE 로 저장 (반환: 영향받은 행 수, 구간별 커밋) */
+    int upsertAll(List<ApiCacheUpsert> rows);
+}
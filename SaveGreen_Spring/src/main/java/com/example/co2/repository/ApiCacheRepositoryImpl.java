@@ -0,0 +1,76 @@
+package com.example.co2.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * ApiCacheRepositoryCustom 구현 (Spring Data가 "Impl" 접미사로 자동 연결)
+ * - 다건 UPSERT는 VALUES 절을 행 수만큼 늘린 단일 문장으로 보낸다.
+ * - 한 문장이 너무 커지지 않도록 CHUNK_ROWS 단위로 나눠 실행.
+ * - 트랜잭션으로 묶지 않는다: 구간(문장)마다 따로 커밋 → 한 구간이 실패해도 앞 구간은 남는다.
+ *   (다건 INSERT 한 문장은 그 자체로 원자적, 실패 시 호출 쪽이 행 단위로 재시도 — ApiCacheWriteBehind)
+ * - 컬럼/UPDATE 절은 ApiCacheRepository.upsert(...)와 동일하게 유지할 것.
+ */
+@RequiredArgsConstructor
+public class ApiCacheRepositoryImpl implements ApiCacheRepositoryCustom {
+
+    private static final int CHUNK_ROWS = 200;
+
+    private static final String INSERT_HEAD = """
+        INSERT INTO `api_cache`
+          (`cache_key_bin`, `cache_key_raw`, `payload_json`, `payload_bin`, `status_score`, `status_label`, `expires_at`, `building_id`, `guest_ip`, `created_at`)
+        VALUES
+        """;
+
+    private static final String ROW_VALUES = "(?, ?, CAST(? AS JSON), ?, ?, ?, ?, ?, ?, NOW(3))";
+
+    private static final String UPSERT_TAIL = """
+
+        ON DUPLICATE KEY UPDATE
+          `cache_key_raw` = VALUES(`cache_key_raw`),
+          `payload_json`  = VALUES(`payload_json`),
+          `payload_bin`   = VALUES(`payload_bin`),
+          `status_score`  = VALUES(`status_score`),
+          `status_label`  = VALUES(`status_label`),
+          `expires_at`    = VALUES(`expires_at`),
+          `building_id`   = VALUES(`building_id`),
+          `guest_ip`      = VALUES(`guest_ip`)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertAll(List<ApiCacheUpsert> rows) {
+        if (rows == null || rows.isEmpty()) return 0;
+
+        int affected = 0;
+        for (int from = 0; from < rows.size(); from += CHUNK_ROWS) {
+            List<ApiCacheUpsert> chunk = rows.subList(from, Math.min(rows.size(), from + CHUNK_ROWS));
+
+            StringBuilder sql = new StringBuilder(INSERT_HEAD.length() + chunk.size() * (ROW_VALUES.length() + 2) + UPSERT_TAIL.length());
+            sql.append(INSERT_HEAD);
+            List<Object> args = new ArrayList<>(chunk.size() * 9);
+            for (int i = 0; i < chunk.size(); i++) {
+                ApiCacheUpsert r = chunk.get(i);
+                if (i > 0) sql.append(",\n");
+                sql.append(ROW_VALUES);
+                args.add(r.key().bytes());
+                args.add(r.raw());
+                args.add(r.payload());
+                args.add(r.payloadBin());
+                args.add(r.statusScore());
+                args.add(r.statusLabel());
+                args.add(r.expiresAt());
+                args.add(r.buildingId());
+                args.add(r.guestIp());
+            }
+            sql.append(UPSERT_TAIL);
+
+            affected += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.co2.repository;
+
+import com.example.co2.util.CacheKey;
+
+import java.time.LocalDateTime;
+
+/**
+ * api_cache 다건 UPSERT 한 행 분량의 값.
+ * - 단건 upsert(...) 파라미터와 같은 구성.
+ * - payload(JSON 문자열)와 payloadBin(ForecastBinaryCodec) 중 코덱에 맞는 하나만 채운다.
+ */
+public record ApiCacheUpsert(
+        CacheKey key,
+        String raw,
+        String payload,
+        byte[] payloadBin,
+        Integer statusScore,
+        String statusLabel,
+        LocalDateTime expiresAt,
+        Long buildingId,
+        String guestIp
+) {}
@@ -0,0 +1,217 @@
+package com.example.co2.service;
+
+import com.example.co2.repository.ApiCacheRepository;
+import com.example.co2.repository.ApiCacheUpsert;
+import com.example.co2.util.CacheKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * ApiCacheWriteBehind — api_cache UPSERT 쓰기 지연(write-behind) 버퍼
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - 요청 스레드가 MySQL 커밋을 기다리지 않도록, 캐시 쓰기를 큐에 넣고 바로 반환.
+ *  - 전용 스레드 하나가 큐를 비우며 "batch-size 건 또는 flush-ms 경과" 단위로
+ *    다건 UPSERT(ApiCacheRepository.upsertAll) 한 번에 기록한다.
+ *
+ * 동작 규칙
+ *  - 같은 배치 안의 같은 키는 마지막 값만 기록(중복 UPSERT 제거).
+ *  - 다건 UPSERT가 실패하면(예: 한 행이 컬럼 제약 위반) 그 배치를 행 단위로 다시 기록
+ *    → 잘못된 행만 실패로 세고 나머지는 저장(예전 단건 UPSERT처럼 자기 행만 잃음).
+ *  - 큐가 가득 차면(overflow) 새 쓰기는 버린다 → 값은 이미 L1에 있고, 다음 MISS 때 다시 기록됨.
+ *  - 종료 시(@PreDestroy) 남은 항목을 모두 기록하고 멈춘다.
+ *  - enabled=false 이면 큐 없이 호출 스레드에서 바로 기록(기존 동기 방식).
+ *
+ * 지표(Micrometer)
+ *  - forecast.cache.write_behind.queue       : 현재 큐 길이(gauge)
+ *  - forecast.cache.write_behind.batch_size  : 한 번에 기록한 행 수(summary)
+ *  - forecast.cache.write_behind.flush       : 배치 기록 소요 시간(timer)
+ *  - forecast.cache.write_behind.dropped     : overflow로 버린 쓰기 수
+ *  - forecast.cache.write_behind.failed      : 기록 실패한 행 수
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class ApiCacheWriteBehind {
+
+	private final ApiCacheRepository apiCacheRepository;
+	private final boolean enabled;
+	private final int batchSize;
+	private final long flushMs;
+	private final BlockingQueue<ApiCacheUpsert> queue;
+
+	private final DistributionSummary batchSizeSummary;
+	private final Timer flushTimer;
+	private final Counter droppedCounter;
+	private final Counter failedCounter;
+
+	private volatile boolean running;
+	private Thread flusher;
+
+	public ApiCacheWriteBehind(
+			ApiCacheRepository apiCacheRepository,
+			MeterRegistry meterRegistry,
+			@Value("${app.cache.write-behind.enabled:true}") boolean enabled,
+			@Value("${app.cache.write-behind.capacity:10000}") int capacity,
+			@Value("${app.cache.write-behind.batch-size:200}") int batchSize,
+			@Value("${app.cache.write-behind.flush-ms:200}") long flushMs
+	) {
+		this.apiCacheRepository = apiCacheRepository;
+		this.enabled = enabled;
+		this.batchSize = Math.max(1, batchSize);
+		this.flushMs = Math.max(1L, flushMs);
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+
+		Gauge.builder("forecast.cache.write_behind.queue", queue, BlockingQueue::size)
+				.description("api_cache 쓰기 대기 큐 길이")
+				.register(meterRegistry);
+		this.batchSizeSummary = DistributionSummary.builder("forecast.cache.write_behind.batch_size")
+				.description("다건 UPSERT 1회당 행 수")
+				.register(meterRegistry);
+		this.flushTimer = Timer.builder("forecast.cache.write_behind.flush")
+				.description("다건 UPSERT 1회 소요 시간")
+				.register(meterRegistry);
+		this.droppedCounter = Counter.builder("forecast.cache.write_behind.dropped")
+				.description("큐가 가득 차 버린 쓰기 수")
+				.register(meterRegistry);
+		this.failedCounter = Counter.builder("forecast.cache.write_behind.failed")
+				.description("기록에 실패한 행 수")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		if (!enabled) return;
+		running = true;
+		flusher = new Thread(this::runLoop, "api-cache-write-behind");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/** 종료 시: 스레드를 멈추고 남은 항목을 모두 기록 */
+	@PreDestroy
+	void stop() {
+		if (!enabled) return;
+		running = false;
+		flusher.interrupt();
+		try {
+			flusher.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		List<ApiCacheUpsert> rest = new ArrayList<>(queue.size());
+		queue.drainTo(rest);
+		for (int from = 0; from < rest.size(); from += batchSize) {
+			flush(rest.subList(from, Math.min(rest.size(), from + batchSize)));
+		}
+		if (!rest.isEmpty()) log.info("api_cache write-behind flushed {} rows on shutdown", rest.size());
+	}
+
+	/** 캐시 쓰기 1건 등록(요청 스레드는 기다리지 않음) */
+	public void submit(ApiCacheUpsert row) {
+		if (!enabled) {
+			flush(List.of(row));
+			return;
+		}
+		if (!queue.offer(row)) {
+			droppedCounter.increment();
+			log.debug("api_cache write-behind queue full; dropped hash = {}", row.key());
+		}
+	}
+
+	/** 캐시 쓰기 여러 건 등록 */
+	public void submitAll(Collection<ApiCacheUpsert> rows) {
+		if (!enabled) {
+			flush(new ArrayList<>(rows));
+			return;
+		}
+		for (ApiCacheUpsert row : rows) submit(row);
+	}
+
+	/* ===== 내부 구현 ===== */
+
+	private void runLoop() {
+		List<ApiCacheUpsert> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				// 첫 항목을 기다린 뒤, flush-ms 창 안에서 batch-size까지 모은다
+				ApiCacheUpsert first = queue.poll(flushMs, TimeUnit.MILLISECONDS);
+				if (first == null) continue;
+				batch.add(first);
+
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+				while (batch.size() < batchSize) {
+					queue.drainTo(batch, batchSize - batch.size());
+					if (batch.size() >= batchSize) break;
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) break;
+					ApiCacheUpsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) break;
+					batch.add(next);
+				}
+
+				flush(batch);
+			} catch (InterruptedException e) {
+				// stop()에서 깨운 경우 — 모아둔 배치는 기록하고 루프 종료 판단
+				flush(batch);
+				if (!running) break;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/** 같은 키는 마지막 값만 남기고 다건 UPSERT 한 번으로 기록 */
+	private void flush(List<ApiCacheUpsert> rows) {
+		if (rows.isEmpty()) return;
+
+		Map<CacheKey, ApiCacheUpsert> latest = new LinkedHashMap<>();
+		for (ApiCacheUpsert r : rows) latest.put(r.key(), r);
+		List<ApiCacheUpsert> unique = new ArrayList<>(latest.values());
+
+		long t0 = System.nanoTime();
+		try {
+			apiCacheRepository.upsertAll(unique);
+			batchSizeSummary.record(unique.size());
+		} catch (Exception e) {
+			log.warn("api_cache write-behind batch upsert failed rows = {}; retrying one by one", unique.size(), e);
+			retryEach(unique);
+		} finally {
+			flushTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/** 배치 실패 시: 행마다 따로 UPSERT(같은 값 재기록은 무해) — 실패한 행만 failed로 셈 */
+	private void retryEach(List<ApiCacheUpsert> rows) {
+		int failed = 0;
+		for (ApiCacheUpsert r : rows) {
+			try {
+				apiCacheRepository.upsertAll(List.of(r));
+			} catch (Exception e) {
+				failed++;
+				log.warn("api_cache write-behind row failed hash = {}: {}", r.key(), e.toString());
+			}
+		}
+		if (failed > 0) failedCounter.increment(failed);
+		batchSizeSummary.record(rows.size() - failed);
+	}
+}
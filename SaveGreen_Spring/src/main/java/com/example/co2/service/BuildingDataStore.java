@@ -0,0 +1,179 @@
+package com.example.co2.service;
+
+import com.example.co2.dto.SearchBuilding;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * BuildingDataStore — 건물 더미 데이터(JSON) 1회 로드 + PNU 색인 + 변경 시 재로드
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - SearchBuildingJsonService / FinderSearchBuildingService / BuildingEnergyJsonService가
+ *    요청마다 classpath JSON을 다시 열어 전체 파싱 → findByPnu 선형 탐색하던 것을 대체.
+ *
+ * 데이터셋
+ *  - SEARCH : searchbuildingdata.json (검색/그린파인더 두 서비스가 같은 스냅샷 공유)
+ *  - ENERGY : buildingenergydata.json (용도별 원단위/월별 비율)
+ *  - 위치: savegreen.building-data.search-location / energy-location (classpath: 또는 file:)
+ *
+ * 스냅샷
+ *  - 로드 결과는 불변 Snapshot { all(로드 순서), byPnu(trim한 PNU → 같은 PNU 레코드들, 로드 순서) }
+ *    → 읽는 쪽은 volatile 참조 1개만 읽음(잠금 없음), 재로드는 새 스냅샷을 만든 뒤 참조만 교체.
+ *  - 레코드(SearchBuilding)는 공유 객체 — 읽기 전용으로만 사용할 것(수정 금지).
+ *
+ * 재로드
+ *  - @Scheduled(poll-ms)로 리소스의 수정 시각/크기를 확인, 바뀌었으면 다시 파싱해 교체.
+ *    (jar 안 리소스는 바뀌지 않으므로 사실상 1회 로드, 개발 중 target/classes·file: 위치는 바로 반영)
+ *  - 재로드 실패 시 이전 스냅샷 유지. 기동 시 로드 실패면 첫 조회 때 다시 시도하고,
+ *    그래도 실패하면 예전과 같은 IllegalStateException("... 로드 실패 ...").
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class BuildingDataStore {
+
+	public enum Dataset { SEARCH, ENERGY }
+
+	/** 불변 스냅샷 — all/byPnu 모두 수정 불가 */
+	public static final class Snapshot {
+		private final List<SearchBuilding> all;
+		private final Map<String, List<SearchBuilding>> byPnu;
+		private final long lastModified;
+		private final long length;
+
+		Snapshot(List<SearchBuilding> rows, long lastModified, long length) {
+			List<SearchBuilding> all = new ArrayList<>(rows.size());
+			Map<String, List<SearchBuilding>> idx = new HashMap<>();
+			for (SearchBuilding b : rows) {
+				all.add(b);
+				if (b == null || b.getPnu() == null) continue;
+				idx.computeIfAbsent(b.getPnu().trim(), k -> new ArrayList<>(1)).add(b);
+			}
+			idx.replaceAll((k, v) -> List.copyOf(v));
+			this.all = Collections.unmodifiableList(all);   // 원본 JSON의 null 항목도 그대로(List.copyOf는 null 불가)
+			this.byPnu = Map.copyOf(idx);
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		/** 전체 레코드(로드 순서, null 항목 포함 가능) */
+		public List<SearchBuilding> all() {
+			return all;
+		}
+
+		/** 앞뒤 공백을 뺀 PNU가 같은 레코드들(로드 순서), 없으면 빈 목록 — O(1) */
+		public List<SearchBuilding> byPnu(String pnu) {
+			if (pnu == null) return List.of();
+			return byPnu.getOrDefault(pnu.trim(), List.of());
+		}
+
+		/** byPnu의 첫 레코드(예전 선형 탐색의 첫 일치와 같음), 없으면 null */
+		public SearchBuilding firstByPnu(String pnu) {
+			List<SearchBuilding> list = byPnu(pnu);
+			return list.isEmpty() ? null : list.get(0);
+		}
+	}
+
+	private static final TypeReference<List<SearchBuilding>> ROWS = new TypeReference<>() {};
+
+	private final ObjectMapper objectMapper;
+	private final Map<Dataset, Resource> resources = new HashMap<>();
+	private final Map<Dataset, String> locations = new HashMap<>();
+	private volatile Snapshot search;
+	private volatile Snapshot energy;
+
+	public BuildingDataStore(
+			ObjectMapper objectMapper,
+			ResourceLoader resourceLoader,
+			@Value("${savegreen.building-data.search-location:classpath:static/dummy/searchbuildingdata.json}") String searchLocation,
+			@Value("${savegreen.building-data.energy-location:classpath:static/dummy/buildingenergydata.json}") String energyLocation
+	) {
+		this.objectMapper = objectMapper;
+		locations.put(Dataset.SEARCH, searchLocation);
+		locations.put(Dataset.ENERGY, energyLocation);
+		resources.put(Dataset.SEARCH, resourceLoader.getResource(searchLocation));
+		resources.put(Dataset.ENERGY, resourceLoader.getResource(energyLocation));
+		for (Dataset d : Dataset.values()) {
+			try {
+				reload(d);
+			} catch (IOException | RuntimeException ex) {
+				log.warn("[building-data] {} initial load failed ({}): {}", d, locations.get(d), ex.toString());
+			}
+		}
+	}
+
+	/* ===== 조회 ===== */
+
+	/** 검색용 데이터(searchbuildingdata.json) 현재 스냅샷 */
+	public Snapshot search() {
+		Snapshot s = search;
+		return (s != null) ? s : loadOrThrow(Dataset.SEARCH, "searchbuildingdata 로드 실패 : ");
+	}
+
+	/** 에너지 데이터(buildingenergydata.json) 현재 스냅샷 */
+	public Snapshot energy() {
+		Snapshot s = energy;
+		return (s != null) ? s : loadOrThrow(Dataset.ENERGY, "buildingenergydata 로드 실패: ");
+	}
+
+	/* ===== 로드/재로드 ===== */
+
+	@Scheduled(initialDelayString = "${savegreen.building-data.poll-ms:5000}",
+			fixedDelayString = "${savegreen.building-data.poll-ms:5000}")
+	public void poll() {
+		for (Dataset d : Dataset.values()) {
+			try {
+				reload(d);
+			} catch (IOException | RuntimeException ex) {
+				log.warn("[building-data] {} reload failed ({}), keep previous: {}", d, locations.get(d), ex.toString());
+			}
+		}
+	}
+
+	private Snapshot loadOrThrow(Dataset d, String message) {
+		try {
+			Snapshot s = reload(d);
+			if (s != null) return s;
+		} catch (IOException | RuntimeException ex) {
+			throw new IllegalStateException(message + locations.get(d), ex);
+		}
+		throw new IllegalStateException(message + locations.get(d));
+	}
+
+	/** 리소스가 바뀌었으면(또는 아직 없으면) 다시 읽어 교체, 현재 스냅샷 반환 */
+	private synchronized Snapshot reload(Dataset d) throws IOException {
+		Resource r = resources.get(d);
+		Snapshot cur = current(d);
+		long mtime = r.lastModified();
+		long length = r.contentLength();
+		if (cur != null && cur.lastModified == mtime && cur.length == length) return cur;
+
+		List<SearchBuilding> rows;
+		try (InputStream is = r.getInputStream()) {
+			rows = objectMapper.readValue(is, ROWS);
+		}
+		Snapshot next = new Snapshot((rows == null) ? List.of() : rows, mtime, length);
+		if (d == Dataset.SEARCH) search = next; else energy = next;
+		if (cur != null) log.info("[building-data] {} reloaded: {} rows ({})", d, next.all.size(), locations.get(d));
+		return next;
+	}
+
+	private Snapshot current(Dataset d) {
+		return (d == Dataset.SEARCH) ? search : energy;
+	}
+}
@@ -1,78 +1,52 @@
 package com.example.co2.service;
 
 import com.example.co2.dto.SearchBuilding;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class BuildingEnergyJsonService {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private static final String ENERGY_JSON_PATH = "static/dummy/buildingenergydata.json";
+    // buildingenergydata.json — 기동 시 1회 로드(BuildingDataStore, 파일이 바뀌면 재로드)
+    private final BuildingDataStore store;
 
-   
+    /** 전체 레코드(읽기 전용, 공유 스냅샷) */
     public List<SearchBuilding> readAll() {
-        try (InputStream is = new ClassPathResource(ENERGY_JSON_PATH).getInputStream()) {
-            return objectMapper.readValue(is, new TypeReference<List<SearchBuilding>>() {});
-        } catch (Exception e) {
-            throw new IllegalStateException("buildingenergydata 로드 실패: " + ENERGY_JSON_PATH, e);
-        }
+        return store.energy().all();
     }
 
-   
+    /*
+     * 용도(buildingType2)별 원단위 색인 — 에너지 스냅샷이 바뀔 때만 다시 만든다.
+     *  - 키: trim한 buildingType2 (예전 trim().equals 비교와 동일)
+     *  - sorted: 원단위 오름차순 double[] (null 원단위 제외) → 백분위는 이진 탐색
+     *  - sum   : 로드 순서대로 더한 합(예전 루프와 같은 순서 → 평균 값도 동일)
+     */
+    private volatile IntensityIndex intensityIndex;
+
     public Double avgIntensityByCategory(String category) {
         if (category == null) return null;
 
-        List<SearchBuilding> list = readAll();
-        double sum = 0.0;
-        int count = 0;
-
-        for (SearchBuilding b : list) {
-            if (b == null) continue;
-            String cat = b.getBuildingType2();
-            if (cat == null) continue;
-            if (!cat.trim().equals(category.trim())) continue;
-
-            Double inten = b.getEnergyIntensityKwhPerM2();
-            if (inten == null) continue;
-
-            sum += inten;
-            count++;
-        }
-        if (count == 0) return null;
-        return sum / count;
+        CategoryIntensities c = intensityIndex().get(category.trim());
+        if (c == null) return null;
+        return c.sum / c.sorted.length;
     }
     public Double percentileByCategory(String category, double value){
         if(category == null ) return null;
 
-        List<SearchBuilding>list = readAll();
-        List<Double> intensities = new ArrayList<>();
-        for (SearchBuilding b : list) {
-            if (b == null) continue;
-            if (b.getBuildingType2() == null) continue;
-            if (!b.getBuildingType2().trim().equals(category.trim())) continue;
-            if (b.getEnergyIntensityKwhPerM2() == null) continue;
-            intensities.add(b.getEnergyIntensityKwhPerM2());
-        }
-        if (intensities.isEmpty()) return null;
+        CategoryIntensities c = intensityIndex().get(category.trim());
+        if (c == null) return null;
 
-        Collections.sort(intensities);
+        // value 이하인 원단위 개수 = 정렬 배열에서 value 초과가 처음 나오는 위치
+        int rank = c.countAtMost(value);
 
-        int rank = 0;
-        for (Double v : intensities) {
-            if (v <= value) rank++;
-        }
-
-        double percentile = (double) rank / intensities.size() * 100.0;
+        double percentile = (double) rank / c.sorted.length * 100.0;
         percentile = Math.round(percentile * 10) / 10.0;
 
         if (percentile==100){
@@ -84,6 +58,61 @@ public class BuildingEnergyJsonService {
 
         return percentile;
     }
+
+    /** 현재 에너지 스냅샷 기준 색인(스냅샷이 교체됐으면 새로 만듦) */
+    private Map<String, CategoryIntensities> intensityIndex() {
+        BuildingDataStore.Snapshot snap = store.energy();
+        IntensityIndex idx = intensityIndex;
+        if (idx == null || idx.source != snap) {
+            idx = IntensityIndex.build(snap);   // 동시에 두 번 만들어져도 결과는 같음(마지막 것이 남음)
+            intensityIndex = idx;
+        }
+        return idx.byCategory;
+    }
+
+    private record IntensityIndex(BuildingDataStore.Snapshot source, Map<String, CategoryIntensities> byCategory) {
+
+        static IntensityIndex build(BuildingDataStore.Snapshot snap) {
+            Map<String, List<Double>> values = new HashMap<>();
+            for (SearchBuilding b : snap.all()) {
+                if (b == null) continue;
+                String cat = b.getBuildingType2();
+                if (cat == null) continue;
+                Double inten = b.getEnergyIntensityKwhPerM2();
+                if (inten == null) continue;
+                values.computeIfAbsent(cat.trim(), k -> new ArrayList<>()).add(inten);
+            }
+
+            Map<String, CategoryIntensities> out = new HashMap<>();
+            values.forEach((cat, list) -> {
+                double[] sorted = new double[list.size()];
+                double sum = 0.0;
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = list.get(i);
+                    sum += sorted[i];
+                }
+                Arrays.sort(sorted);
+                out.put(cat, new CategoryIntensities(sorted, sum));
+            });
+            return new IntensityIndex(snap, Map.copyOf(out));
+        }
+    }
+
+    /** 한 용도의 원단위(오름차순, 비어 있지 않음) + 합계 */
+    private record CategoryIntensities(double[] sorted, double sum) {
+
+        /** sorted 중 value 이하 개수(upper bound) — value가 NaN이면 0(예전 v <= value 비교와 동일) */
+        int countAtMost(double value) {
+            int lo = 0, hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] <= value) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
     public List<Double> getMonthlyPercentByCategory(String category) {
         List<SearchBuilding> list = readAll();
         List<SearchBuilding> filtered = new ArrayList<>();
@@ -1,64 +1,43 @@
 package com.example.co2.service;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import com.example.co2.dto.SearchBuilding;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+    @Slf4j
     @Service
     @RequiredArgsConstructor
     public class FinderSearchBuildingService {
-        private final ObjectMapper objectMapper = new ObjectMapper();
-        private static final String SEARCH_JSON_PATH = "static/dummy/searchbuildingdata.json";
+        // searchbuildingdata.json — SearchBuildingJsonService와 같은 스냅샷 공유(BuildingDataStore)
+        private final BuildingDataStore store;
 
+        /** 전체 레코드(읽기 전용, 공유 스냅샷) */
         public List<SearchBuilding> readAll() {
-        try (InputStream is = new ClassPathResource(SEARCH_JSON_PATH).getInputStream()) {
-            System.out.println("JSON 파일 로드 시도: " + SEARCH_JSON_PATH);
-            List<SearchBuilding> data = objectMapper.readValue(is, new TypeReference<List<SearchBuilding>>() {});
-            System.out.println("JSON 데이터 개수: " + data.size());
-            return data;
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new IllegalStateException("searchbuildingdata 로드 실패 : " + SEARCH_JSON_PATH, e);
+            return store.search().all();
         }
-        
-    }
 
     public SearchBuilding findByPnu(String pnu){
 
         if (pnu == null) return null;
-        try {
-            List<SearchBuilding> list = readAll();
-            System.out.println("JSON 로드 성공, 데이터 수: " + list.size());
-            String target = pnu.trim();
-
-            for (SearchBuilding b : list) {
-                if (b == null || b.getPnu() == null) continue;
-                if (b.getPnu().trim().equals(target)) {
-                    System.out.println("매칭된 PNU: " + target);
-                    return b;
-                }
-            }
-            System.out.println("매칭 실패: " + target);
-            return null;
-        } catch (Exception e) {
-            e.printStackTrace(); 
-            throw e;
+        String target = pnu.trim();
+        SearchBuilding found = store.search().firstByPnu(target);
+        if (found != null) {
+            log.debug("매칭된 PNU: {}", target);
+        } else {
+            log.debug("매칭 실패: {}", target);
         }
-            
+        return found;
     }
 
     public List<Double> getMonthlyPercentByBuilding(String pnu) {
-        List<SearchBuilding> list = readAll();
+        List<SearchBuilding> list = store.search().byPnu(pnu);
 
         for (SearchBuilding b : list) {
             if (b == null) continue;
@@ -0,0 +1,37 @@
+package com.example.co2.service;
+
+/*
+ * 예측 시계열 계산(원시 배열) — ForecastService.computeStub가 사용
+ * - 연차별 Math.pow 대신 감소율을 누적 곱해 나간다: factor(i+1) = factor(i) × (1 - rate)
+ * - 결과는 long[]/int[] 그대로 응답 DTO에 담겨 직렬화된다(중간 List/박싱 없음).
+ */
+public final class ForecastSeriesEngine {
+
+	private ForecastSeriesEngine() {}
+
+	/** from부터 len개 연도 */
+	public static int[] years(int from, int len) {
+		int[] out = new int[len];
+		for (int i = 0; i < len; i++) out[i] = from + i;
+		return out;
+	}
+
+	/** start × (1 - rate)^i 를 반올림(음수는 0) — i = 0..len-1 */
+	public static long[] decay(long start, double rate, int len) {
+		long[] out = new long[len];
+		final double keep = 1.0 - rate;
+		double value = start;
+		for (int i = 0; i < len; i++) {
+			out[i] = Math.max(0L, Math.round(value));
+			value *= keep;
+		}
+		return out;
+	}
+
+	/** 원소별 × factor (예: kWh × 원/kWh) */
+	public static long[] scale(long[] src, long factor) {
+		long[] out = new long[src.length];
+		for (int i = 0; i < src.length; i++) out[i] = src[i] * factor;
+		return out;
+	}
+}
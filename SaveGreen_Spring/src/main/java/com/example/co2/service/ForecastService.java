@@ -1,23 +1,47 @@
 package com.example.co2.service;
 
+import com.example.co2.dto.ForecastDtos.BatchItem;
 import com.example.co2.dto.ForecastDtos.Cost;
 import com.example.co2.dto.ForecastDtos.ForecastResponse;
 import com.example.co2.dto.ForecastDtos.Kpi;
 import com.example.co2.dto.ForecastDtos.Series;
 import com.example.co2.entity.ApiCache;
 import com.example.co2.repository.ApiCacheRepository;
-import com.example.co2.util.HashUtils;
+import com.example.co2.repository.ApiCacheUpsert;
+import com.example.co2.util.ForecastBinaryCodec;
+import com.example.co2.util.CacheKey;
+import com.example.co2.util.CacheKeyBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.time.Year;
 
 // [ADD] 로깅 (save→upsert 변경 로그 위해 추가)
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /*
@@ -50,6 +74,20 @@ import lombok.extern.slf4j.Slf4j;
  * 캐시 키
  *  - 요청 파라미터(builtYear/use/floorArea/pnu 포함) 해시 → upsert(HIT/MISS 정상 동작 확인).
  *
+ * 캐시 계층
+ *  - L1: JVM 내 Caffeine 캐시(크기 제한, 빈도 기반 축출). 직렬화된 응답 JSON 바이트 보관 → DB/Jackson 생략.
+ *  - L2: MySQL api_cache(인스턴스 간 공유). L1 MISS 시 조회하고, HIT이면 L1을 다시 채운다.
+ *  - L1 항목의 만료 시각은 L2 행의 expires_at과 동일 → L1이 L2보다 오래 살지 않는다.
+ *  - MISS 단일화(single-flight): 같은 키의 동시 MISS는 첫 요청(리더)만 계산·upsert하고
+ *    나머지는 리더의 결과를 기다렸다 공유한다(지표: forecast.cache.coalesced).
+ *  - stale-while-revalidate: expires_at이 지났어도 유예창(app.cache.stale-grace-minutes) 안이면
+ *    만료된 값을 즉시 반환하고, 해당 키의 재계산은 백그라운드에서 한 번만 수행한다.
+ *  - HIT 경로는 저장된 JSON 바이트를 그대로 응답(forecastJson) → 역직렬화/재직렬화 없음.
+ *    로그용 점수/라벨은 MISS 때 계산해 api_cache.status_score/status_label에 함께 저장.
+ *  - L2 쓰기는 ApiCacheWriteBehind 큐를 거쳐 비동기 다건 UPSERT로 기록(응답은 커밋을 기다리지 않음).
+ *  - app.cache.payload-codec=binary 이면 L2에는 payload_bin(ForecastBinaryCodec)으로 저장
+ *    → 행 크기/JSON 검증 비용 절감, 대신 L2 HIT 시 디코드 + JSON 직렬화 1회.
+ *
  * 주의
  *  - BASE_KWH/START_SAVING 등 "고정 상수만"으로 시계열을 만들면 건물 간 값이 같아짐.
  *    아래 computeStub(...)는 면적×EUI를 이용해 baseline을 건물별로 스케일하여 이 문제를 해결.
@@ -63,6 +101,15 @@ public class ForecastService {
 	@Value("${app.cache.ttl-minutes:10}")
 	private int ttlMinutes;
 
+	// 만료 후에도 stale 값을 내려줄 유예창(분). 0이면 stale-while-revalidate 비활성.
+	private final int staleGraceMinutes;
+
+	// L2 payload 저장 코덱: json(기본, payload_json) | binary(ForecastBinaryCodec, payload_bin)
+	private final boolean binaryPayload;
+
+	// api_cache.cache_key_raw 컬럼 길이(V3: VARCHAR(512))
+	private static final int CACHE_KEY_RAW_MAX = 512;
+
 	// FE와 동일 파라미터(더미 생성 기준)
 	//  - BASE_KWH, START_SAVING 은 과거 "고정 더미" 시절의 잔재 상수로 남겨두되,
 	//    아래 computeStub(...)에서는 건물 컨텍스트(면적×EUI) 기반으로 스케일링하므로 사용하지 않는다.
@@ -84,20 +131,100 @@ public class ForecastService {
 	private static final long   CAPEX_FIXED             = 30_000_000L;	// 원
 
 	private final ApiCacheRepository apiCacheRepository;
+	private final ApiCacheWriteBehind writeBehind;
 	private final ObjectMapper objectMapper;
 
-	public ForecastService(ApiCacheRepository apiCacheRepository, ObjectMapper objectMapper) {
+	// L1 캐시(키: cache_key_bin). 값은 직렬화된 응답 JSON + L2와 동일한 만료 시각.
+	private final Cache<CacheKey, CachedForecast> l1;
+
+	// 진행 중인 MISS 계산(키: cache_key_bin) — 같은 키의 동시 요청은 이 Future를 공유
+	private final ConcurrentMap<CacheKey, CompletableFuture<CachedForecast>> inflight = new ConcurrentHashMap<>();
+	private final Counter coalescedCounter;
+
+	// stale 응답 후 백그라운드 재계산용(작은 고정 풀 + 제한 큐, 넘치면 이번 갱신은 건너뜀)
+	private final ThreadPoolExecutor refreshExecutor;
+
+	public ForecastService(
+			ApiCacheRepository apiCacheRepository,
+			ApiCacheWriteBehind writeBehind,
+			ObjectMapper objectMapper,
+			MeterRegistry meterRegistry,
+			@Value("${app.cache.l1.max-size:2000}") long l1MaxSize,
+			@Value("${app.cache.stale-grace-minutes:5}") int staleGraceMinutes,
+			@Value("${app.cache.payload-codec:json}") String payloadCodec
+	) {
 		this.apiCacheRepository = apiCacheRepository;
+		this.writeBehind = writeBehind;
 		this.objectMapper = objectMapper;
+		this.staleGraceMinutes = Math.max(0, staleGraceMinutes);
+		this.binaryPayload = "binary".equalsIgnoreCase(payloadCodec);
+		this.l1 = Caffeine.newBuilder()
+				.maximumSize(l1MaxSize)
+				.expireAfter(new L1Expiry(this.staleGraceMinutes))
+				.build();
+		this.coalescedCounter = Counter.builder("forecast.cache.coalesced")
+				.description("동시 MISS 중 리더 계산 결과를 공유받은 요청 수")
+				.register(meterRegistry);
+
+		AtomicInteger seq = new AtomicInteger();
+		this.refreshExecutor = new ThreadPoolExecutor(
+				2, 2, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(256),
+				r -> {
+					Thread t = new Thread(r, "forecast-refresh-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+		);
 	}
 
-	/** 컨트롤러에서 호출되는 공개 메서드 (기존 시그니처) */
-	public ForecastResponse forecast(Long buildingId, int fromYear, int toYear, String scenario, Integer builtYear) {
-		return forecast(buildingId, fromYear, toYear, scenario, builtYear, null, null, null);
+	@PreDestroy
+	void shutdownRefreshExecutor() {
+		refreshExecutor.shutdown();
 	}
 
-	// [ADD] 확장 오버로드: use, floorArea, pnu 포함 → 캐시 키와 계산에 모두 반영
-	public ForecastResponse forecast(
+	/**
+	 * 캐시/DB를 거치지 않는 결정적 계산 — ML 차단기(MlCircuitBreaker)가 열렸을 때 MlBridgeService 폴백용.
+	 * 같은 입력이면 forecastJson(...) MISS 때와 같은 값을 돌려준다.
+	 */
+	public ForecastResponse computeDeterministic(
+			int fromYear,
+			int toYear,
+			Integer builtYear,
+			String use,
+			Double floorArea,
+			String pnu
+	) {
+		int[] range = normalizeRange(fromYear, toYear);
+		return computeStub(null, range[0], range[1], builtYear, use, floorArea, pnu);
+	}
+
+	/** computeDeterministic 결과의 추천 라벨(RECOMMEND / CONDITIONAL / NOT_RECOMMEND) */
+	public String statusLabel(ForecastResponse resp, Integer builtYear) {
+		return decideLabelByScore(resp.kpi().savingPct(), resp.kpi().paybackYears(), builtYear);
+	}
+
+	/**
+	 * 캐시된 JSON을 바이트 그대로 돌려주는 경로 (컨트롤러는 이 메서드를 사용).
+	 * - HIT: payload_json을 역직렬화/재직렬화하지 않고 그대로 응답 바디로 내보낸다.
+	 * - 로그용 점수/라벨은 저장 시 미리 계산해 둔 status_score/status_label 컬럼을 사용한다.
+	 * - MISS: 계산 결과를 한 번만 직렬화하여 L1/L2 저장과 응답에 같은 바이트를 쓴다.
+	 */
+	public byte[] forecastJson(
+			Long buildingId,
+			int fromYear,
+			int toYear,
+			String scenario,
+			Integer builtYear,
+			String use,
+			Double floorArea,
+			String pnu
+	) {
+		return resolve(buildQuery(buildingId, fromYear, toYear, scenario, builtYear, use, floorArea, pnu)).json();
+	}
+
+	/** 요청 파라미터 정규화 + 캐시 키 생성 */
+	private ForecastQuery buildQuery(
 			Long buildingId,
 			int fromYear,
 			int toYear,
@@ -111,78 +238,393 @@ public class ForecastService {
 		int[] range = normalizeRange(fromYear, toYear);
 		int from = range[0], to = range[1];
 
-		// 2) 캐시 키 구성 (기존 + builtYear/use/floorArea/pnu 추가)
-		String keyRaw = buildCacheKeyRaw(buildingId, from, to, scenario)
-				+ ";builtYear=" + ((builtYear == null || builtYear <= 0) ? "na" : String.valueOf(builtYear))
-				+ ";use=" + ((use == null || use.isBlank()) ? "na" : use.trim())
-				+ ";floorArea=" + ((floorArea == null) ? "na" : String.valueOf(floorArea))
-				+ ";pnu=" + ((pnu == null || pnu.isBlank()) ? "na" : pnu.trim());
-		String keyHash = HashUtils.sha256Hex(keyRaw);
-
-		// 3) 캐시 조회(미만료)
-		Optional<ApiCache> cached = apiCacheRepository.findTopByCacheKeyHashAndExpiresAtAfter(
-				keyHash, LocalDateTime.now()
+		// 2) 캐시 키 구성 (기존 + builtYear/use/floorArea/pnu 추가) — 스레드별 버퍼에 바로 써서 SHA-256
+		CacheKey key = writeCacheKey(buildingId, from, to, scenario, builtYear, use, floorArea, pnu).digest();
+		return new ForecastQuery(key, buildingId, from, to, scenario, builtYear, use, floorArea, pnu);
+	}
+
+	/** L1 → L2 → (단일화된) 계산 순으로 캐시 항목을 찾는다 */
+	private CachedForecast resolve(ForecastQuery q) {
+		final CacheKey key = q.key();
+		final LocalDateTime now = LocalDateTime.now();
+
+		// 3-1) L1 조회 — HIT이면 DB 왕복/JSON 처리 없이 바로 반환
+		CachedForecast hot = l1.getIfPresent(key);
+		if (hot != null && hot.expiresAt().isAfter(now)) {
+			log.debug("[forecast] L1 HIT hash = {}", key);
+			return hot;
+		}
+		if (hot != null && isWithinGrace(hot.expiresAt(), now)) {
+			log.debug("[forecast] L1 STALE hash = {}, refreshing in background", key);
+			scheduleRefresh(q);
+			return hot;
+		}
+
+		// 3-2) L2(api_cache) 조회 — 미만료 또는 유예창 안의 행까지
+		Optional<ApiCache> cached = apiCacheRepository.findTopByCacheKeyBinAndExpiresAtAfter(
+				key.bytes(), now.minusMinutes(staleGraceMinutes)
 		);
-		if (cached.isPresent()) {
-			log.info("[forecast] cache HIT hash = {}", keyHash);
-			try {
-				ForecastResponse r = objectMapper.readValue(
-						cached.get().getPayloadJson(), ForecastResponse.class
-				);
-				// 확인용 로그 (기존과 동일)
-				double pct = r.kpi().savingPct();
-				double payback = r.kpi().paybackYears();
-
-				// builtYear는 kpi에 없으므로, 메서드 파라미터 'builtYear'를 사용
-				Integer by = builtYear;
-
-				// label도 kpi에 없으므로, 현재 응답 값(pct, payback, builtYear)로 재판정
-				String label = decideLabelByScore(pct, payback, by);
-
-				int score = computeStatusScore(pct, payback, by);
-				log.info("[forecast] score = {}, label = {}, builtYear = {}, savingPct = {}%, payback = {}y",
-						score, label, by == null ? "na" : by, String.format("%.1f", pct), String.format("%.2f", payback));
-				return r;
-			} catch (Exception e) {
-				log.warn("[forecast] cache parse failed; recomputing", e);
-			}
+		CachedForecast fromL2 = cached.map(this::toCachedForecast).orElse(null);
+		if (fromL2 != null) {
+			ApiCache row = cached.get();
+			boolean stale = !row.getExpiresAt().isAfter(now);
+			log.info("[forecast] cache {} hash = {}", stale ? "STALE" : "HIT", key);
+
+			// L2 HIT → L1 재적재(만료 시각은 L2 행 기준). payload_json은 파싱하지 않는다.
+			CachedForecast entry = fromL2;
+			l1.put(key, entry);
+			if (stale) scheduleRefresh(q);
+
+			// 확인용 로그 — 점수/라벨은 저장 시 계산된 값(구버전 행은 na)
+			log.info("[forecast] score = {}, label = {}, builtYear = {}",
+					entry.score() == null ? "na" : entry.score(),
+					entry.label() == null ? "na" : entry.label(),
+					q.builtYear() == null ? "na" : q.builtYear());
+			return entry;
+		}
+
+		// 4) MISS 단일화 — 같은 키로 이미 계산 중이면 그 결과를 기다려 공유
+		CompletableFuture<CachedForecast> mine = new CompletableFuture<>();
+		CompletableFuture<CachedForecast> leader = inflight.putIfAbsent(key, mine);
+		if (leader != null) {
+			coalescedCounter.increment();
+			log.debug("[forecast] cache MISS coalesced hash = {}", key);
+			CachedForecast shared = leader.exceptionally(ex -> null).join();
+			// 리더가 실패/취소된 경우에만 직접 계산
+			return (shared != null) ? shared : computeAndStore(q);
+		}
+
+		try {
+			// 리더가 되기 직전에 다른 리더가 끝났을 수 있으므로 L1 재확인
+			CachedForecast fresh = l1.getIfPresent(key);
+			CachedForecast entry = (fresh != null && fresh.expiresAt().isAfter(LocalDateTime.now()))
+					? fresh
+					: computeAndStore(q);
+			mine.complete(entry);
+			return entry;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inflight.remove(key, mine);
+		}
+	}
+
+	/**
+	 * stale 응답 뒤 백그라운드 재계산 예약.
+	 * - 같은 키가 이미 계산/갱신 중이면(inflight) 아무것도 하지 않는다.
+	 * - 풀/큐가 가득 차면 이번 갱신은 건너뛴다(다음 stale 요청이 다시 시도).
+	 */
+	private void scheduleRefresh(ForecastQuery q) {
+		CompletableFuture<CachedForecast> mine = new CompletableFuture<>();
+		if (inflight.putIfAbsent(q.key(), mine) != null) return;
+
+		try {
+			refreshExecutor.execute(() -> {
+				try {
+					mine.complete(computeAndStore(q));
+				} catch (RuntimeException e) {
+					log.warn("[forecast] background refresh failed hash = {}", q.key(), e);
+					mine.completeExceptionally(e);
+				} finally {
+					inflight.remove(q.key(), mine);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.debug("[forecast] refresh queue full; skip hash = {}", q.key());
+			inflight.remove(q.key(), mine);
+			mine.cancel(false);
 		}
+	}
 
-		log.info("[forecast] cache MISS hash = {}, computing...", keyHash);
+	/** 만료됐지만 유예창 안인지 */
+	private boolean isWithinGrace(LocalDateTime expiresAt, LocalDateTime now) {
+		return staleGraceMinutes > 0 && expiresAt.plusMinutes(staleGraceMinutes).isAfter(now);
+	}
+
+	/** MISS 처리: 계산 → 직렬화(1회) → L1 적재 → L2 UPSERT 예약 (키당 동시에 하나만 실행됨) */
+	private CachedForecast computeAndStore(ForecastQuery q) {
+		final Computed c = computeEntry(q);
 
-		// 4) 계산 — 건물 컨텍스트(용도/면적/pnu)를 반영하여 "절대값"이 건물마다 달라지도록 한다.
+		// 캐시 저장 (L1 즉시 + L2는 write-behind 큐로 넘겨 요청 스레드는 커밋을 기다리지 않음)
+		l1.put(q.key(), c.entry());
+		writeBehind.submit(c.row());
+
+		return c.entry();
+	}
+
+	/** 계산 + 직렬화만 수행(저장 없음) — 단건/배치 MISS 공용 */
+	private Computed computeEntry(ForecastQuery q) {
+		log.info("[forecast] cache MISS hash = {}, computing...", q.key());
+
+		// 계산 — 건물 컨텍스트(용도/면적/pnu)를 반영하여 "절대값"이 건물마다 달라지도록 한다.
 		ForecastResponse resp = computeStub(
-				buildingId, from, to, builtYear, use, floorArea, pnu
+				q.buildingId(), q.from(), q.to(), q.builtYear(), q.use(), q.floorArea(), q.pnu()
 		);
 
-		// 5) 캐시 저장 (UPSERT)
+		// HIT 경로 로그용 파생값(점수/라벨)을 미리 계산해 payload 옆에 저장
+		final double pct = resp.kpi().savingPct();
+		final double payback = resp.kpi().paybackYears();
+		final int score = computeStatusScore(pct, payback, q.builtYear());
+		final String label = decideLabelByScore(pct, payback, q.builtYear());
+
+		final byte[] json;
 		try {
-			final String payload = objectMapper.writeValueAsString(resp);
-			final LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
-
-			apiCacheRepository.upsert(
-					keyHash,
-					keyRaw,
-					payload,
-					expiresAt,
-					buildingId,
-					null // guestIp 있으면 전달, 없으면 null
+			json = objectMapper.writeValueAsBytes(resp);
+		} catch (IOException e) {
+			throw new IllegalStateException("forecast payload serialize failed", e);
+		}
+
+		final LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+		final CachedForecast entry = new CachedForecast(json, score, label, expiresAt);
+		return new Computed(entry, toUpsertRow(q, resp, entry));
+	}
+
+	/* ============================================================================
+	 * 배치 예측 — 여러 건물을 한 번에 (결과는 입력 순서 그대로, 항목별 JSON 바이트)
+	 *  1) L1에서 먼저 찾고(유예창 안의 stale 포함)
+	 *  2) 남은 키는 WHERE cache_key_bin IN (...) 한 번으로 L2 조회
+	 *  3) 그래도 없는 키는 병렬 계산 후 write-behind 큐로 넘겨 다건 UPSERT로 저장
+	 *  - 같은 키가 단건 요청으로 계산 중이면 그 결과를 기다려 공유(single-flight 유지)
+	 *  - 같은 건물이 배치 안에 여러 번 있어도 키당 한 번만 처리
+	 * ========================================================================== */
+	public List<byte[]> forecastJsonBatch(List<BatchItem> items) {
+		final LocalDateTime now = LocalDateTime.now();
+
+		final List<ForecastQuery> queries = new ArrayList<>(items.size());
+		final Map<CacheKey, ForecastQuery> byKey = new LinkedHashMap<>();
+		for (BatchItem it : items) {
+			ForecastQuery q = buildQuery(
+					it.buildingId(), it.from(), it.to(), it.scenario(),
+					it.builtYear(), it.use(), it.floorArea(), it.pnu()
 			);
-		} catch (Exception e) {
-			log.warn("api_cache upsert failed hash = {}", keyHash, e);
+			queries.add(q);
+			byKey.putIfAbsent(q.key(), q);
+		}
+
+		final Map<CacheKey, CachedForecast> found = new HashMap<>();
+
+		// 1) L1
+		for (ForecastQuery q : byKey.values()) {
+			CachedForecast hot = l1.getIfPresent(q.key());
+			if (hot == null) continue;
+			if (hot.expiresAt().isAfter(now)) {
+				found.put(q.key(), hot);
+			} else if (isWithinGrace(hot.expiresAt(), now)) {
+				found.put(q.key(), hot);
+				scheduleRefresh(q);
+			}
+		}
+
+		// 2) L2 — 남은 키 전체를 IN (...) 한 번으로
+		List<byte[]> l2Keys = new ArrayList<>();
+		for (CacheKey k : byKey.keySet()) {
+			if (!found.containsKey(k)) l2Keys.add(k.bytes());
+		}
+		if (!l2Keys.isEmpty()) {
+			List<ApiCache> rows = apiCacheRepository.findByCacheKeyBinInAndExpiresAtAfter(
+					l2Keys, now.minusMinutes(staleGraceMinutes)
+			);
+			for (ApiCache row : rows) {
+				CachedForecast entry = toCachedForecast(row);
+				if (entry == null) continue; // 읽을 수 없는 행 → MISS로 재계산
+				CacheKey k = CacheKey.of(row.getCacheKeyBin());
+				found.put(k, entry);
+				l1.put(k, entry);
+				if (!row.getExpiresAt().isAfter(now)) scheduleRefresh(byKey.get(k));
+			}
+		}
+
+		// 3) MISS — 리더가 된 키만 이 배치에서 계산, 나머지는 진행 중인 계산을 공유
+		final List<ForecastQuery> leaders = new ArrayList<>();
+		final List<CompletableFuture<CachedForecast>> leaderFutures = new ArrayList<>();
+		final Map<CacheKey, CompletableFuture<CachedForecast>> followers = new HashMap<>();
+		for (ForecastQuery q : byKey.values()) {
+			if (found.containsKey(q.key())) continue;
+			CompletableFuture<CachedForecast> mine = new CompletableFuture<>();
+			CompletableFuture<CachedForecast> leader = inflight.putIfAbsent(q.key(), mine);
+			if (leader == null) {
+				leaders.add(q);
+				leaderFutures.add(mine);
+			} else {
+				coalescedCounter.increment();
+				followers.put(q.key(), leader);
+			}
+		}
+
+		if (!leaders.isEmpty()) {
+			log.info("[forecast] batch MISS {} of {} keys, computing...", leaders.size(), byKey.size());
+			try {
+				List<Computed> computed = leaders.parallelStream()
+						.map(this::computeEntry)
+						.toList();
+
+				List<ApiCacheUpsert> upserts = new ArrayList<>(leaders.size());
+				for (int i = 0; i < leaders.size(); i++) {
+					ForecastQuery q = leaders.get(i);
+					CachedForecast entry = computed.get(i).entry();
+					l1.put(q.key(), entry);
+					found.put(q.key(), entry);
+					upserts.add(computed.get(i).row());
+				}
+				writeBehind.submitAll(upserts);
+				for (int i = 0; i < leaders.size(); i++) {
+					leaderFutures.get(i).complete(computed.get(i).entry());
+				}
+			} catch (RuntimeException e) {
+				leaderFutures.forEach(f -> f.completeExceptionally(e));
+				throw e;
+			} finally {
+				for (int i = 0; i < leaders.size(); i++) {
+					inflight.remove(leaders.get(i).key(), leaderFutures.get(i));
+				}
+			}
+		}
+
+		for (Map.Entry<CacheKey, CompletableFuture<CachedForecast>> e : followers.entrySet()) {
+			CachedForecast shared = e.getValue().exceptionally(ex -> null).join();
+			found.put(e.getKey(), (shared != null) ? shared : computeAndStore(byKey.get(e.getKey())));
 		}
 
-		return resp;
+		List<byte[]> out = new ArrayList<>(queries.size());
+		for (ForecastQuery q : queries) {
+			out.add(found.get(q.key()).json());
+		}
+		return out;
+	}
+
+	/** 계산 결과 → api_cache UPSERT 행 (payload 코덱에 따라 payload_json 또는 payload_bin) */
+	/**
+	 * cache_key_raw 는 VARCHAR(512)(V3) — use/pnu 길이 제한이 없어 넘칠 수 있으므로 잘라서 저장.
+	 * 디버그용 컬럼이라 잘려도 조회(cache_key_bin)에는 영향 없음. 서로게이트 쌍은 쪼개지 않는다.
+	 */
+	private static String truncateKeyRaw(String raw) {
+		if (raw == null || raw.length() <= CACHE_KEY_RAW_MAX) return raw;
+		int end = CACHE_KEY_RAW_MAX;
+		if (Character.isHighSurrogate(raw.charAt(end - 1))) end--;
+		return raw.substring(0, end);
+	}
+
+	private ApiCacheUpsert toUpsertRow(ForecastQuery q, ForecastResponse resp, CachedForecast entry) {
+		final byte[] payloadBin = binaryPayload ? ForecastBinaryCodec.encode(resp) : null;
+		final String payloadJson = binaryPayload ? null : new String(entry.json(), StandardCharsets.UTF_8);
+
+		return new ApiCacheUpsert(
+				q.key(),
+				truncateKeyRaw(q.keyRaw()),
+				payloadJson,
+				payloadBin,
+				entry.score(),
+				entry.label(),
+				entry.expiresAt(),
+				q.buildingId(),
+				null // guestIp 있으면 전달, 없으면 null
+		);
+	}
+
+	/**
+	 * L2 행 → 캐시 항목
+	 * - payload_json 행: 파싱 없이 바이트로만 변환
+	 * - payload_bin 행: 디코드 후 JSON으로 한 번 직렬화(L1에는 JSON 바이트로 올라감)
+	 * - 읽을 수 없는 행이면 null → 호출부는 MISS로 처리
+	 */
+	private CachedForecast toCachedForecast(ApiCache row) {
+		byte[] json;
+		if (row.getPayloadJson() != null) {
+			json = row.getPayloadJson().getBytes(StandardCharsets.UTF_8);
+		} else if (row.getPayloadBin() != null) {
+			try {
+				json = objectMapper.writeValueAsBytes(ForecastBinaryCodec.decode(row.getPayloadBin()));
+			} catch (IOException | IllegalArgumentException e) {
+				log.warn("[forecast] cache payload decode failed hash = {}; recomputing", CacheKey.of(row.getCacheKeyBin()), e);
+				return null;
+			}
+		} else {
+			return null;
+		}
+		return new CachedForecast(json, row.getStatusScore(), row.getStatusLabel(), row.getExpiresAt());
 	}
 
 
 
 	/* ===== 내부 구현 ===== */
 
-	private String buildCacheKeyRaw(Long buildingId, int from, int to, String scenario) {
-		String b = (buildingId == null) ? "none" : String.valueOf(buildingId);
-		String scen = (scenario == null || scenario.isBlank()) ? "default" : scenario;
-		return "buildingId=" + b + ";from=" + from + ";to=" + to + ";scenario=" + scen;
+	/** 정규화된 요청 + 캐시 키 (MISS 계산/백그라운드 갱신에 그대로 전달) */
+	private record ForecastQuery(
+			CacheKey key,
+			Long buildingId,
+			int from,
+			int to,
+			String scenario,
+			Integer builtYear,
+			String use,
+			Double floorArea,
+			String pnu
+	) {
+		/** cache_key_raw(디버그용) — MISS 저장 시에만 문자열로 만든다 */
+		String keyRaw() {
+			return writeCacheKey(buildingId, from, to, scenario, builtYear, use, floorArea, pnu).toRawString();
+		}
+	}
+
+	/**
+	 * 캐시 항목(L1 값, single-flight 결과): 직렬화된 응답 JSON + 저장 시 계산한 점수/라벨 + 만료 시각.
+	 * - score/label은 V6 이전에 저장된 L2 행에서 올라온 경우 null일 수 있다.
+	 */
+	private record CachedForecast(byte[] json, Integer score, String label, LocalDateTime expiresAt) {}
+
+	/** MISS 계산 결과: L1에 올릴 항목 + L2에 기록할 행 */
+	private record Computed(CachedForecast entry, ApiCacheUpsert row) {}
+
+	/** L1 항목별 만료: 생성/갱신 시 (expiresAt + 유예창)까지 남은 시간, 읽기는 만료 시각을 바꾸지 않음 */
+	private static final class L1Expiry implements Expiry<CacheKey, CachedForecast> {
+		private final int graceMinutes;
+
+		L1Expiry(int graceMinutes) {
+			this.graceMinutes = graceMinutes;
+		}
+
+		@Override
+		public long expireAfterCreate(CacheKey key, CachedForecast value, long currentTime) {
+			return remainingNanos(value);
+		}
+
+		@Override
+		public long expireAfterUpdate(CacheKey key, CachedForecast value, long currentTime, long currentDuration) {
+			return remainingNanos(value);
+		}
+
+		@Override
+		public long expireAfterRead(CacheKey key, CachedForecast value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		private long remainingNanos(CachedForecast value) {
+			LocalDateTime evictAt = value.expiresAt().plusMinutes(graceMinutes);
+			long nanos = Duration.between(LocalDateTime.now(), evictAt).toNanos();
+			return Math.max(0L, nanos);
+		}
+	}
+
+	/**
+	 * 캐시 키 원문("buildingId=..;from=..;to=..;scenario=..;builtYear=..;use=..;floorArea=..;pnu=..")을
+	 * 현재 스레드의 CacheKeyBuilder 버퍼에 기록한다(문자열 생성 없음).
+	 * - 필드 순서/표기는 기존 keyRaw 문자열과 동일하게 유지할 것(V9에서 옮긴 기존 행과 같은 키가 나와야 함).
+	 * - 기존 문자열 + HashUtils.sha256Hex 결과와 같은지: ForecastCacheKeyTest
+	 */
+	static CacheKeyBuilder writeCacheKey(
+			Long buildingId, int from, int to, String scenario,
+			Integer builtYear, String use, Double floorArea, String pnu
+	) {
+		CacheKeyBuilder kb = CacheKeyBuilder.get().reset();
+		if (buildingId == null) kb.field("buildingId", "none"); else kb.field("buildingId", buildingId);
+		kb.field("from", from).field("to", to);
+		kb.field("scenario", (scenario == null || scenario.isBlank()) ? "default" : scenario);
+		if (builtYear == null || builtYear <= 0) kb.field("builtYear", "na"); else kb.field("builtYear", builtYear);
+		kb.field("use", (use == null || use.isBlank()) ? "na" : use.trim());
+		kb.field("floorArea", (floorArea == null) ? "na" : String.valueOf(floorArea));
+		kb.field("pnu", (pnu == null || pnu.isBlank()) ? "na" : pnu.trim());
+		return kb;
 	}
 
 	/** from==to면 +6 확장(총 7년), from>to면 스왑 */
@@ -211,8 +653,7 @@ public class ForecastService {
 		final int len = (to - from) + 1;
 
 		// 1) years
-		final List<String> years = new ArrayList<>(len);
-		for (int y = from; y <= to; y++) years.add(String.valueOf(y));
+		final int[] years = ForecastSeriesEngine.years(from, len);
 
 		// 2) baseline_kWh 산정
 		//    - 1순위: 면적 × EUI (면적이 유효한 경우)
@@ -230,34 +671,22 @@ public class ForecastService {
 		final double savingRate = SAVING_RATE;
 
 		// 4) 첫해 기준값
-		//    - after(0)   ≈ baselineKwh × (1 - 6%)
 		//    - saving(0)  ≈ baselineKwh × 8%
-		final long startAfterKwh   = Math.round(baselineKwh * (1.0 - afterRate));
 		final long startSavingKwh  = Math.round(baselineKwh * (savingRate));
 
-		// 5) 시계열 생성(형태: 지수감소 / 스케일: baselineKwh)
-		final List<Long> after  = new ArrayList<>(len);
-		final List<Long> saving = new ArrayList<>(len);
-		for (int i = 0; i < len; i++) {
-			// after: baseline × (1 - 6%)^i  (항상 우하향)
-			long afterVal  = Math.max(0L, Math.round(baselineKwh * Math.pow(1.0 - afterRate, i)));
-			// saving: (baseline × 8%) × (1 - 8%)^i (항상 우하향)
-			long savingVal = Math.max(0L, Math.round(startSavingKwh * Math.pow(1.0 - savingRate, i)));
-
-			after.add(afterVal);
-			saving.add(savingVal);
-		}
+		// 5) 시계열 생성(형태: 지수감소 / 스케일: baselineKwh) — 원시 배열, 감소율 누적 곱
+		//    - after : baseline × (1 - 6%)^i  (항상 우하향)
+		//    - saving: (baseline × 8%) × (1 - 8%)^i (항상 우하향)
+		final long[] after  = ForecastSeriesEngine.decay(baselineKwh, afterRate, len);
+		final long[] saving = ForecastSeriesEngine.decay(startSavingKwh, savingRate, len);
 
 		// 6) 절감 비용(원/년) 시계열: saving × 전력단가
-		final List<Long> costSaving = new ArrayList<>(len);
-		for (int i = 0; i < len; i++) {
-			costSaving.add(saving.get(i) * UNIT_PRICE);
-		}
+		final long[] costSaving = ForecastSeriesEngine.scale(saving, UNIT_PRICE);
 
 		// 7) KPI(마지막 연도 기준)
 		final int last = len - 1;
-		final long repSavingKwh  = saving.get(last);
-		final long repSavingCost = costSaving.get(last);
+		final long repSavingKwh  = saving[last];
+		final long repSavingCost = costSaving[last];
 
 		// 표시용 절감률(%): 정책상 정수. (원한다면 baseline 대비 동적 계산으로 바꿀 수 있음)
 		final int savingPctInt = (int) Math.round(savingRate * 100.0); // 8
@@ -292,10 +721,6 @@ public class ForecastService {
 		return new ForecastResponse(years, series, cost, kpi);
 	}
 
-	public ForecastResponse forecast(Long buildingId, int fromYear, int toYear, String scenario) {
-		return forecast(buildingId, fromYear, toYear, scenario, null);
-	}
-
 	/* ============================================================================
 	 * 점수 규칙 — ML / FE와 완전 일치
 	 *  - 가드: savingPct < 5% 또는 paybackYears > 12년 → 즉시 비추천(0점)
@@ -1,22 +1,41 @@
 package com.example.co2.service;
 
+import com.example.co2.dto.MlLogEvent;
+import com.example.co2.dto.PredictDtos;
+import com.example.co2.inference.InProcessScorer;
+import com.example.co2.util.CacheKey;
+import com.example.co2.util.CacheKeyBuilder;
+import com.example.co2.util.JsonlTailReader;
+import com.example.co2.util.MlLogEventParser;
+import com.example.co2.util.TypeRegionNormalizer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 import java.nio.file.*;
@@ -33,18 +52,30 @@ import java.nio.file.*;
  * [설정 키(application.properties)]
  * - savegreen.ml.baseUrl      : FastAPI 베이스 URL (예: http://127.0.0.1:8000)
  * - savegreen.ml.logs.root    : JSONL 로그 루트(예: logs/app 또는 D:/co2/ml/logs/app)
- * - savegreen.ml.timeout.ms   : 연결/읽기 타임아웃(ms)
+ * - savegreen.ml.timeout.ms   : 연결/읽기 타임아웃(ms) — HttpConfig(mlRestTemplate)가 읽음
+ * - savegreen.ml.batch.*      : predict 마이크로배치(enabled / window-ms / max-items)
+ * - savegreen.ml.cache.*      : 예측 결과 캐시(enabled / max-size / ttl-minutes / train-poll-ms)
+ * - savegreen.ml.breaker.*    : 호출 차단기(MlCircuitBreaker) — 열리면 ForecastService 결정적 계산으로 응답
+ * - savegreen.ml.train.*      : 학습 단일 실행(on-busy = join|queue|reject / max-duration-minutes)
  *
  * [공개 메서드]
- * - predict(payload, variant) : POST /predict?variant=...
- * - startTrain()              : POST /train
+ * - predict(payload, variant) : POST /predict?variant=...  (동시 요청은 POST /predict/many로 마이크로배치)
+ * - startTrain()              : POST /train (단일 실행 — 진행 중이면 합류/대기열/거절, savegreen.ml.train.on-busy)
  * - getTrainStatus(jobId)     : GET  /train/status?jobId=...
+ * - currentTrainJob()         : 서버가 추적 중인 학습 작업 상태(state/progress) 스냅샷
+ * - currentRunId()/pinRunId() : 서버가 기억하는 최신 run_id(컨트롤러 인스턴스별 기억 대체)
  * - tailLatestLogs(lastN)     : 최근 JSONL 파일 tail → { ok, path, count, lastEntry, lastN[] }
+ * - logsByRun(runId)          : run_id 색인(MlRunIndex)으로 해당 run 로그 전체
+ * - latestRunId()             : 최신 학습 run_id
  *
  * [검색 앵커]
  * - [SG-ANCHOR:MLBRIDGE-SERVICE]
  * - [SG-ANCHOR:MLBRIDGE-PREDICT]
+ * - [SG-ANCHOR:MLBRIDGE-BATCH]
+ * - [SG-ANCHOR:MLBRIDGE-CACHE]
+ * - [SG-ANCHOR:MLBRIDGE-BREAKER]
  * - [SG-ANCHOR:MLBRIDGE-TRAIN]
+ * - [SG-ANCHOR:MLBRIDGE-TRAIN-JOB]
  * - [SG-ANCHOR:MLBRIDGE-STATUS]
  * - [SG-ANCHOR:MLBRIDGE-LOGS]
  *
@@ -59,26 +90,101 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
     private final String baseUrl;
     private final Path logsRoot;
 
-    // [SG-ANCHOR:MLBRIDGE-SERVICE] — 생성자(타임아웃 최신 방식 적용)
+    // [SG-ANCHOR:MLBRIDGE-BATCH] — predict 마이크로배치 설정/상태
+    // - savegreen.ml.batch.enabled   : false면 호출마다 POST /predict (기존 방식)
+    // - savegreen.ml.batch.window-ms : 첫 요청 이후 같은 variant 요청을 모으는 최대 대기 시간
+    // - savegreen.ml.batch.max-items : 이 수만큼 모이면 창을 기다리지 않고 바로 전송
+    private final boolean batchEnabled;
+    private final long batchWindowNanos;
+    private final int batchMaxItems;
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition batchClosed = batchLock.newCondition();
+    private final Map<String, PendingBatch> openBatches = new HashMap<>(); // variant → 모으는 중인 배치 (batchLock 보호)
+    private final DistributionSummary batchSizeSummary;
+
+    // [SG-ANCHOR:MLBRIDGE-CACHE] — 예측 결과 캐시
+    // - 키: SHA-256(variant + ML 모델 버전 + 정규화된 요청) — 모델 버전이 바뀌면 옛 항목은 자연히 안 맞음
+    // - savegreen.ml.cache.enabled / max-size / ttl-minutes
+    // - startTrain()으로 시작한 학습이 READY가 되면 ML 서버 모델 재로딩 + 캐시 전체 무효화
+    //   (FE가 /train/status를 폴링하지 않아도 @Scheduled 감시가 대신 확인)
+    private final boolean cacheEnabled;
+    private final Cache<CacheKey, Map<String, Object>> predictCache;
+    private final ObjectMapper keyMapper;
+    private volatile String modelVersion;                               // null = 아직 모름 → /model/status 조회
+
+    // [SG-ANCHOR:MLBRIDGE-TRAIN-JOB] — 학습 작업 단일 실행(single-flight) + 상태 추적
+    // - 동시에 들어온 시작 요청(더블클릭/여러 사용자)은 POST /train 한 번의 결과를 함께 받는다.
+    // - 작업이 끝나기 전 추가 시작(savegreen.ml.train.on-busy):
+    //     join(기본) : 진행 중 작업의 jobId를 돌려줌(새 학습 X)
+    //     queue      : 끝난 뒤 1회 더 학습(대기 중 요청은 모두 그 1회로 합침)
+    //     reject     : 거절(진행 중 작업 정보 포함)
+    // - 상태/진행도는 여기서 한 곳에 보관: FE의 /train/status 폴링 + @Scheduled 감시가 갱신
+    // - max-duration-minutes 동안 끝나지 않으면(ML 서버 재기동 등) LOST로 보고 다음 시작을 막지 않음
+    private final String trainOnBusy;
+    private final long trainMaxDurationMs;
+    private final Object trainLock = new Object();
+    private TrainJob trainJob;                                          // 최근 작업(진행 중 또는 마지막) — trainLock
+    private CompletableFuture<Map<String, Object>> trainStarting;      // POST /train 진행 중 — trainLock
+    private boolean trainQueued;                                        // queue 정책: 현재 작업 뒤 1회 더 — trainLock
+    private volatile String pinnedRunId;
+
+    // [SG-ANCHOR:MLBRIDGE-BREAKER] — ML 서버 장애/지연 시 호출 차단 + 로컬 폴백
+    private final MlCircuitBreaker breaker;
+    private final ForecastService forecastService;
+
+    // [SG-ANCHOR:MLBRIDGE-LOGS-BYRUN] — run_id → (파일, 바이트 구간) 색인
+    private final MlRunIndex runIndex;
+
+    // [SG-ANCHOR:MLBRIDGE-INPROCESS] — 내보낸 모델(model_export.json)로 JVM 안에서 먼저 예측, 못 하면 HTTP
+    private final InProcessScorer scorer;
+
+    // [SG-ANCHOR:MLBRIDGE-SERVICE] — 생성자
+    // - HTTP 클라이언트는 HttpConfig의 공유 풀(mlRestTemplate → outboundHttpClient)을 사용
+    //   → /predict, /train, /train/status 호출이 keep-alive 커넥션을 재사용(호출마다 새 연결 X)
+    // - 타임아웃(savegreen.ml.timeout.ms / ml.timeout-ms.*)도 HttpConfig에서 적용
     public MlBridgeService(
+            @Qualifier("mlRestTemplate") RestTemplate rest,
             @Value("${savegreen.ml.baseUrl}") String baseUrl,
             @Value("${savegreen.ml.logs.root}") String logsRoot,
-            @Value("${savegreen.ml.timeout.ms:5000}") long timeoutMs
+            @Value("${savegreen.ml.batch.enabled:true}") boolean batchEnabled,
+            @Value("${savegreen.ml.batch.window-ms:5}") long batchWindowMs,
+            @Value("${savegreen.ml.batch.max-items:32}") int batchMaxItems,
+            @Value("${savegreen.ml.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${savegreen.ml.cache.max-size:5000}") long cacheMaxSize,
+            @Value("${savegreen.ml.cache.ttl-minutes:60}") long cacheTtlMinutes,
+            @Value("${savegreen.ml.train.on-busy:join}") String trainOnBusy,
+            @Value("${savegreen.ml.train.max-duration-minutes:120}") long trainMaxDurationMinutes,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            MlCircuitBreaker breaker,
+            ForecastService forecastService,
+            MlRunIndex runIndex,
+            InProcessScorer scorer
     ) {
-        // RestTemplateBuilder의 setConnectTimeout/setReadTimeout은 제거 예정 → requestFactory로 대체
-        this.rest = new RestTemplateBuilder()
-                .requestFactory(() -> {
-                    // 간단/표준 방식: JDK 기본 팩토리 사용
-                    org.springframework.http.client.SimpleClientHttpRequestFactory f =
-                            new org.springframework.http.client.SimpleClientHttpRequestFactory();
-
-                    // Spring 6.x에서는 Duration 지원. (환경에 따라 int ms 오버로드도 있습니다.)
-                    f.setConnectTimeout(java.time.Duration.ofMillis(timeoutMs));
-                    f.setReadTimeout(java.time.Duration.ofMillis(timeoutMs));
-                    return f;
-                })
+        this.runIndex = runIndex;
+        this.scorer = scorer;
+        this.rest = rest;
+        this.breaker = breaker;
+        this.forecastService = forecastService;
+        this.batchEnabled = batchEnabled;
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, batchWindowMs));
+        this.batchMaxItems = Math.max(1, batchMaxItems);
+        this.batchSizeSummary = DistributionSummary.builder("ml.predict.batch_size")
+                .description("FastAPI로 한 번에 보낸 predict 건수")
+                .register(meterRegistry);
+        this.cacheEnabled = cacheEnabled;
+        this.trainOnBusy = (trainOnBusy == null) ? "join" : trainOnBusy.trim().toLowerCase(Locale.ROOT);
+        this.trainMaxDurationMs = TimeUnit.MINUTES.toMillis(Math.max(1L, trainMaxDurationMinutes));
+        this.predictCache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, cacheMaxSize))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1L, cacheTtlMinutes)))
+                .recordStats()
                 .build();
-
+        CaffeineCacheMetrics.monitor(meterRegistry, predictCache, "ml.predict");
+        // 키 생성 전용: 요청 DTO에 없는 필드는 무시, 맵은 키 순서로 직렬화(같은 요청 → 같은 문자열)
+        this.keyMapper = objectMapper.copy()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
         this.baseUrl = java.util.Objects.requireNonNull(baseUrl, "savegreen.ml.baseUrl must not be null");
         this.logsRoot = java.nio.file.Paths.get(
                 java.util.Objects.requireNonNull(logsRoot, "savegreen.ml.logs.root must not be null")
@@ -92,11 +198,300 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
      * - 예외 발생 시 { ok:false, error } 반환
      * ------------------------------------------------------------ */
     // [SG-ANCHOR:MLBRIDGE-PREDICT]
+    // - batch.enabled=true 이면 같은 variant의 동시 요청을 모아 POST /predict/many 한 번으로 보낸다.
+    //   (첫 요청 스레드가 window-ms 동안/또는 max-items까지 모은 뒤 대표로 전송, 나머지는 결과만 기다림)
+    // - 응답 모양/에러 모양({ ok:false, error })은 단건 호출과 같다.
     public Map<String, Object> predict(Map<String, Object> payload, String variant) {
         final String v = (variant == null || variant.isBlank()) ? "C" : variant;
+        if (!cacheEnabled) return predictUncached(payload, v);
+
+        // [SG-ANCHOR:MLBRIDGE-CACHE] HIT → FastAPI 호출 없음
+        final String version = currentModelVersion();
+        final CacheKey key = predictCacheKey(payload, v, version);
+        if (key != null) {
+            Map<String, Object> hit = predictCache.getIfPresent(key);
+            if (hit != null) return hit;
+        }
+
+        Map<String, Object> body = predictUncached(payload, v);
+        if (key == null || !isCacheable(body)) return body;
+
+        // 응답의 modelVersion이 알던 버전과 다르면 서버 모델이 바뀐 것 → 전체 무효화 후 새 버전 키로 저장
+        Object reported = body.get("modelVersion");
+        CacheKey storeKey = key;
+        if (reported != null && !String.valueOf(reported).equals(version)) {
+            // JVM 내 모델이 있으면 그 버전이 기준 — ML 서버가 아직 옛 모델로 답한 HTTP 결과는 캐시만 건너뜀
+            if (scorer.modelVersion() != null) return body;
+            onModelChanged(String.valueOf(reported));
+            storeKey = predictCacheKey(payload, v, String.valueOf(reported));
+            if (storeKey == null) return body;
+        }
+        Map<String, Object> frozen = Collections.unmodifiableMap(body);
+        predictCache.put(storeKey, frozen);
+        return frozen;
+    }
+
+    /* ------------------------------------------------------------
+     * 예측 캐시 키
+     * - payload → PredictRequest 변환 후 TypeRegionNormalizer.normalizeInPlace
+     * - 정규화된 DTO 필드 + DTO에 없는 나머지 필드(단가/CAPEX 등, 응답에 영향) + 원본 type
+     *   (normalizer의 type 매핑은 손실이 있으나 ML 서버는 원본 payload를 받으므로 원본도 키에 포함)
+     * - 변환 불가(숫자 필드에 문자 등) → null: 캐시하지 않고 그대로 호출
+     * ------------------------------------------------------------ */
+    private CacheKey predictCacheKey(Map<String, Object> payload, String variant, String version) {
+        if (payload == null) return null;
+        try {
+            PredictDtos.PredictRequest req = keyMapper.convertValue(payload, PredictDtos.PredictRequest.class);
+            TypeRegionNormalizer.normalizeInPlace(req);
+
+            Map<String, Object> canonical = new TreeMap<>(payload);
+            Map<String, Object> normalized = keyMapper.convertValue(req, new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {});
+            canonical.putAll(normalized);
+            canonical.put("__typeRaw", (payload.get("type") == null) ? "" : String.valueOf(payload.get("type")).trim());
+
+            return CacheKeyBuilder.get().reset()
+                    .field("variant", variant.toUpperCase(Locale.ROOT))
+                    .field("model", (version == null) ? "na" : version)
+                    .field("req", keyMapper.writeValueAsString(canonical))
+                    .digest();
+        } catch (IllegalArgumentException | IOException ex) {
+            return null;
+        }
+    }
+
+    /** 정상 예측 응답만 캐시(에러 맵/규칙 폴백/차단기 폴백 결과 제외 — 모델 복구 후 다시 받아야 함) */
+    private static boolean isCacheable(Map<String, Object> body) {
+        if (body == null || !body.containsKey("kpi")) return false;
+        if (Boolean.FALSE.equals(body.get("ok")) || Boolean.TRUE.equals(body.get("fallback"))) return false;
+        return !"RULE_FALLBACK".equals(body.get("source"));
+    }
+
+    /** ML 서버가 보고하는 모델 버전(캐시) — 모르면 GET /model/status 한 번 조회, 실패 시 null */
+    private String currentModelVersion() {
+        String local = scorer.modelVersion();
+        if (local != null) return local;                                 // 산출물 버전 = ML 서버 manifest 버전
+        String v = modelVersion;
+        if (v != null) return v;
+        if (breaker.state() != MlCircuitBreaker.State.CLOSED) return null;   // 장애 중엔 조회로 타임아웃을 더 쓰지 않음
+        try {
+            ResponseEntity<Map<String, Object>> rsp = rest.exchange(
+                    baseUrl + "/model/status",
+                    org.springframework.http.HttpMethod.GET,
+                    org.springframework.http.HttpEntity.EMPTY,
+                    new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
+            );
+            Object reported = (rsp.getBody() != null) ? rsp.getBody().get("modelVersion") : null;
+            if (reported != null) modelVersion = v = String.valueOf(reported);
+        } catch (RestClientException ex) {
+            // 상태 조회 실패 → 이번 요청은 버전 "na"로 키 생성, 예측 응답의 modelVersion으로 곧 보정됨
+        }
+        return v;
+    }
+
+    /** 모델 버전 변경 감지 → 캐시 전체 무효화 */
+    private void onModelChanged(String newVersion) {
+        modelVersion = newVersion;
+        predictCache.invalidateAll();
+    }
+
+    /* ------------------------------------------------------------
+     * 학습 완료 처리: startTrain()으로 시작한 jobId가 READY가 되면
+     *  1) POST /admin/reload-model — ML 서버가 새 산출물을 메모리에 올림
+     *  2) 예측 캐시 전체 무효화 + 모델 버전 재조회(다음 예측 때)
+     * ------------------------------------------------------------ */
+    private void onTrainingFinished() {
+        try {
+            rest.exchange(
+                    baseUrl + "/admin/reload-model",
+                    org.springframework.http.HttpMethod.POST,
+                    new org.springframework.http.HttpEntity<>(null),
+                    new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
+            );
+        } catch (RestClientException ex) {
+            // 재로딩 실패해도 캐시는 비운다(서버가 다음 기동 때 새 모델을 올림)
+        }
+        scorer.reload();   // 학습이 새 model_export.json도 기록 → 폴링을 기다리지 않고 바로 교체
+        onModelChanged(null);
+    }
+
+    /*
+     * FE 폴링이 없어도 학습 완료를 놓치지 않도록 진행 중 작업 상태를 주기 확인
+     * - 너무 오래 끝나지 않은 작업은 LOST 처리, queue 정책으로 대기 중인 1회가 있으면 이어서 시작
+     */
+    @Scheduled(fixedDelayString = "${savegreen.ml.cache.train-poll-ms:10000}")
+    public void pollPendingTrainJobs() {
+        TrainJob job;
+        synchronized (trainLock) {
+            job = (trainJob != null && !trainJob.terminal()) ? trainJob : null;
+        }
+        if (job != null) {
+            getTrainStatus(job.jobId);
+            synchronized (trainLock) {
+                if (!job.terminal() && System.currentTimeMillis() - job.startedAt > trainMaxDurationMs) {
+                    job.update("LOST", job.progress, "no completion within " + TimeUnit.MILLISECONDS.toMinutes(trainMaxDurationMs) + " min");
+                }
+            }
+        }
+        boolean startQueued;
+        synchronized (trainLock) {
+            startQueued = trainQueued && trainStarting == null && (trainJob == null || trainJob.terminal());
+            if (startQueued) trainQueued = false;
+        }
+        if (startQueued) startTrain();
+    }
+
+    /** 캐시를 거치지 않는 예측(JVM 내 예측 → 마이크로배치 또는 단건) — 차단기가 열려 있으면 ML 서버를 부르지 않고 폴백 */
+    private Map<String, Object> predictUncached(Map<String, Object> payload, String v) {
+        // [SG-ANCHOR:MLBRIDGE-INPROCESS] 처리 가능한 요청은 HTTP/차단기를 거치지 않음
+        Map<String, Object> local = scorer.predict(payload, v);
+        if (local != null) return local;
+
+        MlCircuitBreaker.Permission permission = breaker.tryAcquire();
+        if (permission == MlCircuitBreaker.Permission.REJECTED) return fallbackPredict(payload, v);
+        // HALF_OPEN 시험 호출은 단건으로 — 시험 호출 1건 = HTTP 결과 1건
+        if (permission == MlCircuitBreaker.Permission.PROBE || !batchEnabled || batchMaxItems <= 1) {
+            return predictSingle(payload, v);
+        }
+
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        final PendingBatch batch;
+        final boolean leader;
+        batchLock.lock();
+        try {
+            PendingBatch open = openBatches.get(v);
+            leader = (open == null);
+            batch = leader ? new PendingBatch(v) : open;
+            if (leader) openBatches.put(v, batch);
+            batch.add(payload, result);
+            if (batch.size() >= batchMaxItems) {
+                openBatches.remove(v, batch);   // 가득 참 → 새 요청은 다음 배치로
+                batchClosed.signalAll();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            dispatch(batch);
+        }
+        return result.join();
+    }
+
+    /** 리더: 창이 끝나거나 배치가 가득 찰 때까지 대기 후 배치를 닫는다 */
+    private void awaitWindow(PendingBatch batch) {
+        batchLock.lock();
+        try {
+            long nanos = batchWindowNanos;
+            while (openBatches.get(batch.variant) == batch && nanos > 0L) {
+                nanos = batchClosed.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            openBatches.remove(batch.variant, batch);
+            batchLock.unlock();
+        }
+    }
+
+    /** 닫힌 배치 전송 → 결과를 호출자별 Future로 나눠 준다(어떤 경우에도 모든 Future를 완료) */
+    private void dispatch(PendingBatch batch) {
+        final int n = batch.size();
+        batchSizeSummary.record(n);
+        try {
+            if (n == 1) {
+                batch.results.get(0).complete(predictSingle(batch.payloads.get(0), batch.variant));
+                return;
+            }
+            long t0 = System.nanoTime();
+            List<Map<String, Object>> results;
+            try {
+                results = predictMany(batch.payloads, batch.variant);
+                breaker.onSuccess(System.nanoTime() - t0);
+            } catch (org.springframework.web.client.HttpClientErrorException.NotFound ex) {
+                throw ex;   // 구버전 서버 → 아래에서 단건 호출(각각 차단기에 기록)
+            } catch (org.springframework.web.client.HttpClientErrorException ex) {
+                breaker.onSuccess(System.nanoTime() - t0);
+                throw ex;
+            } catch (RuntimeException ex) {
+                breaker.onFailure(System.nanoTime() - t0);
+                throw ex;
+            }
+            for (int i = 0; i < n; i++) {
+                Map<String, Object> r = (results != null && i < results.size()) ? results.get(i) : null;
+                batch.results.get(i).complete((r != null) ? r : Map.of("ok", false, "error", "missing result in batch"));
+            }
+        } catch (org.springframework.web.client.HttpClientErrorException.NotFound ex) {
+            // /predict/many 가 없는 구버전 ML 서버 → 단건으로 나눠 호출
+            for (int i = 0; i < n; i++) {
+                batch.results.get(i).complete(predictSingle(batch.payloads.get(i), batch.variant));
+            }
+        } catch (RuntimeException ex) {
+            String msg = String.valueOf(ex.getMessage());
+            for (CompletableFuture<Map<String, Object>> f : batch.results) {
+                f.complete(Map.of("ok", false, "error", msg));
+            }
+        }
+    }
+
+    /* ------------------------------------------------------------
+     * 다건 예측 (POST /predict/many?variant=...) — 마이크로배치 전송
+     * - 바디: { items: [payload, ...] } → 응답 results[i] 가 items[i]의 /predict 응답
+     * ------------------------------------------------------------ */
+    private List<Map<String, Object>> predictMany(List<Map<String, Object>> payloads, String variant) {
+        final String url = String.format("%s/predict/many?variant=%s", baseUrl,
+                UriUtils.encodeQueryParam(variant, StandardCharsets.UTF_8));
+
+        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
+        headers.set(org.springframework.http.HttpHeaders.CONTENT_TYPE, org.springframework.http.MediaType.APPLICATION_JSON_VALUE);
+        org.springframework.http.HttpEntity<Map<String, Object>> entity =
+                new org.springframework.http.HttpEntity<>(Map.of("items", payloads), headers);
+
+        ResponseEntity<Map<String, Object>> rsp = rest.exchange(
+                url,
+                org.springframework.http.HttpMethod.POST,
+                entity,
+                new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+        Map<String, Object> body = rsp.getBody();
+        Object results = (body != null) ? body.get("results") : null;
+        if (!(results instanceof List<?> list)) return null;
+
+        List<Map<String, Object>> out = new ArrayList<>(list.size());
+        for (Object o : list) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> m = (o instanceof Map<?, ?>) ? (Map<String, Object>) o : null;
+            out.add(m);
+        }
+        return out;
+    }
+
+    /** 모으는 중인 predict 배치(같은 variant) */
+    private static final class PendingBatch {
+        final String variant;
+        final List<Map<String, Object>> payloads = new ArrayList<>();
+        final List<CompletableFuture<Map<String, Object>>> results = new ArrayList<>();
+
+        PendingBatch(String variant) {
+            this.variant = variant;
+        }
+
+        void add(Map<String, Object> payload, CompletableFuture<Map<String, Object>> result) {
+            payloads.add(payload);
+            results.add(result);
+        }
+
+        int size() {
+            return payloads.size();
+        }
+    }
+
+    /** 단건 예측 (POST /predict?variant=...) — 배치 비활성/1건 배치/구버전 서버 폴백 */
+    private Map<String, Object> predictSingle(Map<String, Object> payload, String v) {
         final String url = String.format("%s/predict?variant=%s", baseUrl,
                 org.springframework.web.util.UriUtils.encodeQueryParam(v, java.nio.charset.StandardCharsets.UTF_8));
 
+        final long t0 = System.nanoTime();
         try {
             org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
             headers.set(org.springframework.http.HttpHeaders.CONTENT_TYPE, org.springframework.http.MediaType.APPLICATION_JSON_VALUE);
@@ -110,20 +505,122 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
                             new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
                     );
 
+            breaker.onSuccess(System.nanoTime() - t0);
             Map<String, Object> body = rsp.getBody();
             return (body != null) ? body : java.util.Map.of("ok", false, "error", "empty body");
 
+        } catch (org.springframework.web.client.HttpClientErrorException ex) {
+            // 4xx: 서버는 살아 있음(입력 문제) → 차단기에는 성공으로 기록
+            breaker.onSuccess(System.nanoTime() - t0);
+            return java.util.Map.of("ok", false, "error", ex.getMessage());
         } catch (org.springframework.web.client.RestClientException ex) {
+            breaker.onFailure(System.nanoTime() - t0);
             return java.util.Map.of("ok", false, "error", ex.getMessage());
         }
     }
 
+    /* ------------------------------------------------------------
+     * [SG-ANCHOR:MLBRIDGE-BREAKER] 차단기 폴백
+     * - ForecastService 결정적 계산(면적×EUI 스케일, 6%/8% 감소)으로 /predict와 같은 모양의 응답 생성
+     * - source=SPRING_FALLBACK, fallback=true 표시(캐시하지 않음)
+     * - 입력: yearsFrom/yearsTo(없으면 올해~+6), builtYear, type(용도), floorAreaM2, pnu
+     * ------------------------------------------------------------ */
+    private Map<String, Object> fallbackPredict(Map<String, Object> payload, String v) {
+        final Map<String, Object> p = (payload != null) ? payload : Map.of();
+        try {
+            final int thisYear = java.time.Year.now().getValue();
+            final Integer builtYear = asInteger(p.get("builtYear"));
+            final Double floorArea = asDouble(p.get("floorAreaM2"));
+            final Integer from = asInteger(p.get("yearsFrom"));
+            final Integer to = asInteger(p.get("yearsTo"));
+            final Object use = p.get("type");
+            final Object pnu = p.get("pnu");
+
+            com.example.co2.dto.ForecastDtos.ForecastResponse resp = forecastService.computeDeterministic(
+                    (from != null) ? from : thisYear,
+                    (to != null) ? to : thisYear,
+                    builtYear,
+                    (use != null) ? String.valueOf(use) : null,
+                    floorArea,
+                    (pnu != null) ? String.valueOf(pnu) : null
+            );
+
+            Map<String, Object> body = keyMapper.convertValue(resp, new com.fasterxml.jackson.core.type.TypeReference<LinkedHashMap<String, Object>>() {});
+            @SuppressWarnings("unchecked")
+            Map<String, Object> kpi = (Map<String, Object>) body.get("kpi");
+            if (kpi != null) kpi.put("label", forecastService.statusLabel(resp, builtYear));
+            body.put("source", "SPRING_FALLBACK");
+            body.put("fallback", true);
+            body.put("variant", v);
+            return body;
+        } catch (RuntimeException ex) {
+            return Map.of("ok", false, "error", "ML unavailable (circuit open); fallback failed: " + ex.getMessage());
+        }
+    }
+
+    private static Integer asInteger(Object o) {
+        if (o instanceof Number n) return n.intValue();
+        if (o instanceof String s && !s.isBlank()) {
+            try { return (int) Double.parseDouble(s.trim()); } catch (NumberFormatException ignore) { }
+        }
+        return null;
+    }
+
+    private static Double asDouble(Object o) {
+        if (o instanceof Number n) return n.doubleValue();
+        if (o instanceof String s && !s.isBlank()) {
+            try { return Double.parseDouble(s.trim()); } catch (NumberFormatException ignore) { }
+        }
+        return null;
+    }
+
     /* ------------------------------------------------------------
      * 학습 시작 (POST /train)
      * ------------------------------------------------------------ */
     // [SG-ANCHOR:MLBRIDGE-TRAIN]
-    // FastAPI /train 트리거. 서버가 background/async 파라미터를 모르면 무시됨(문제 없음).
+    // [SG-ANCHOR:MLBRIDGE-TRAIN-JOB] 단일 실행 — 응답에 표시:
+    //  - 새로 시작: FastAPI 응답 그대로(jobId …)
+    //  - 같은 순간 다른 요청이 시작 중: 그 응답 + deduplicated=true
+    //  - 진행 중 작업 있음: on-busy 정책(join → deduplicated / queue → queued / reject → rejected)
     public Map<String, Object> startTrain() {
+        final CompletableFuture<Map<String, Object>> flight;
+        synchronized (trainLock) {
+            if (trainStarting != null) {
+                flight = trainStarting;                 // 같은 순간의 다른 요청 → 같은 POST 결과
+            } else if (trainJob != null && !trainJob.terminal()) {
+                return busyResponse(trainJob);
+            } else {
+                trainStarting = new CompletableFuture<>();
+                flight = null;
+            }
+        }
+        if (flight != null) {
+            Map<String, Object> shared = new LinkedHashMap<>(flight.join());
+            shared.put("deduplicated", true);
+            return shared;
+        }
+
+        Map<String, Object> body = java.util.Map.of("ok", false, "error", "train start failed");
+        try {
+            body = postTrain();
+        } finally {
+            CompletableFuture<Map<String, Object>> done;
+            synchronized (trainLock) {
+                Object jobId = body.get("jobId");
+                if (jobId != null) {
+                    trainJob = new TrainJob(String.valueOf(jobId));
+                    pinnedRunId = trainJob.jobId;
+                }
+                done = trainStarting;
+                trainStarting = null;
+            }
+            done.complete(body);
+        }
+        return body;
+    }
+
+    /** FastAPI /train 트리거. 서버가 background/async 파라미터를 모르면 무시됨(문제 없음). */
+    private Map<String, Object> postTrain() {
         final String url = baseUrl + "/train?background=1&mode=async";
         try {
             org.springframework.http.ResponseEntity<Map<String, Object>> rsp =
@@ -140,6 +637,51 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
         }
     }
 
+    /** 진행 중 작업이 있을 때의 시작 응답(trainLock 안에서 호출) — on-busy 정책 */
+    private Map<String, Object> busyResponse(TrainJob job) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        switch (trainOnBusy) {
+            case "reject" -> {
+                out.put("ok", false);
+                out.put("rejected", true);
+                out.put("error", "training already in progress");
+            }
+            case "queue" -> {
+                trainQueued = true;
+                out.put("ok", true);
+                out.put("queued", true);
+                out.put("queuedBehind", job.jobId);
+            }
+            default -> {
+                out.put("ok", true);
+                out.put("deduplicated", true);
+                out.put("jobId", job.jobId);
+            }
+        }
+        out.put("job", job.view());
+        return out;
+    }
+
+    /** 서버가 추적 중인 최근 학습 작업 { jobId, state, progress, startedAt, finishedAt?, error?, queuedNext } — 없으면 null */
+    public Map<String, Object> currentTrainJob() {
+        synchronized (trainLock) {
+            if (trainJob == null) return null;
+            Map<String, Object> view = trainJob.view();
+            view.put("queuedNext", trainQueued);
+            return view;
+        }
+    }
+
+    /** 서버가 기억하는 최신 run_id(= 마지막으로 시작한 jobId 또는 pinRunId 값), 모르면 null */
+    public String currentRunId() {
+        return pinnedRunId;
+    }
+
+    /** FastAPI 응답에 jobId가 없어 다른 경로(로그 추정 등)로 정한 run_id 기억 */
+    public void pinRunId(String runId) {
+        if (runId != null && !runId.isBlank()) pinnedRunId = runId;
+    }
+
 
 
     /* ------------------------------------------------------------
@@ -161,6 +703,7 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
                     );
 
             Map<String, Object> body = rsp.getBody();
+            if (body != null) trackTrainState(jobId, body);
             return (body != null) ? body : java.util.Map.of("ok", false, "error", "empty body");
 
         } catch (org.springframework.web.client.RestClientException ex) {
@@ -168,6 +711,58 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
         }
     }
 
+    /** 응답 { jobId, detail: { state, progress, error } } → 추적 중인 작업 갱신, READY로 바뀌면 모델 재로딩 + 캐시 무효화 */
+    private void trackTrainState(String jobId, Map<String, Object> body) {
+        Object detail = body.get("detail");
+        if (!(detail instanceof Map<?, ?> d) || !(d.get("state") instanceof String state)) return;
+        boolean finished;
+        synchronized (trainLock) {
+            TrainJob job = trainJob;
+            if (job == null || !job.jobId.equals(jobId) || job.terminal()) return;
+            int progress = (d.get("progress") instanceof Number n) ? n.intValue() : job.progress;
+            Object error = d.get("error");
+            job.update(state, progress, (error == null) ? null : String.valueOf(error));
+            finished = "READY".equals(state);
+        }
+        if (finished) onTrainingFinished();
+    }
+
+    /* [SG-ANCHOR:MLBRIDGE-TRAIN-JOB] 학습 작업 1건의 상태(trainLock 보호) — FastAPI state: QUEUED/TRAINING/EVALUATING/SAVING/READY/FAILED (+ LOST) */
+    private static final class TrainJob {
+        final String jobId;
+        final long startedAt = System.currentTimeMillis();
+        String state = "QUEUED";
+        int progress;
+        String error;
+        long finishedAt;
+
+        TrainJob(String jobId) {
+            this.jobId = jobId;
+        }
+
+        boolean terminal() {
+            return "READY".equals(state) || "FAILED".equals(state) || "LOST".equals(state);
+        }
+
+        void update(String state, int progress, String error) {
+            this.state = state;
+            this.progress = Math.max(0, Math.min(progress, 100));
+            this.error = error;
+            if (terminal()) finishedAt = System.currentTimeMillis();
+        }
+
+        Map<String, Object> view() {
+            Map<String, Object> v = new LinkedHashMap<>();
+            v.put("jobId", jobId);
+            v.put("state", state);
+            v.put("progress", progress);
+            v.put("startedAt", java.time.Instant.ofEpochMilli(startedAt).toString());
+            if (finishedAt > 0) v.put("finishedAt", java.time.Instant.ofEpochMilli(finishedAt).toString());
+            if (error != null) v.put("error", error);
+            return v;
+        }
+    }
+
 
     /* ------------------------------------------------------------
      * 최근 JSONL 로그 tail(lastN)
@@ -182,8 +777,8 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
                 return Map.of("ok", false,
                         "error", "No JSONL logs found under " + logsRoot.toAbsolutePath());
             }
-            List<Map<String, Object>> rows = tailJsonl(target, Math.max(1, Math.min(lastN, 500)));
-            Map<String, Object> last = rows.isEmpty() ? Map.of() : rows.get(rows.size() - 1);
+            List<MlLogEvent> rows = tailJsonl(target, Math.max(1, Math.min(lastN, 500)));
+            Object last = rows.isEmpty() ? Map.of() : rows.get(rows.size() - 1);
             return Map.of(
                     "ok", true,
                     "path", target.toAbsolutePath().toString(),
@@ -196,6 +791,25 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
         }
     }
 
+    /* ------------------------------------------------------------
+     * 특정 run 로그 (MlRunIndex)
+     * - 색인된 [파일, 구간]을 직접 읽어 파싱 → 일자 파일/줄 수 제한 없이 run 전체
+     * - 항목 모양은 tailLatestLogs().lastN[] 과 같음(MlLogEvent, 숫자는 Double)
+     * ------------------------------------------------------------ */
+    // [SG-ANCHOR:MLBRIDGE-LOGS-BYRUN]
+    public List<MlLogEvent> logsByRun(String runId) {
+        try {
+            return parseJsonlLines(runIndex.readRun(runId));
+        } catch (IOException ex) {
+            return List.of();
+        }
+    }
+
+    /** 가장 최근 학습 run_id(train_start / score_* / cv 로그 기준, 없으면 null) */
+    public String latestRunId() {
+        return runIndex.latestRunId();
+    }
+
     /* ============================================================
      * 내부 유틸: 로그 파일 선택/읽기
      * ============================================================ */
@@ -216,110 +830,24 @@ public class MlBridgeService { // [SG-ANCHOR:MLBRIDGE-SERVICE]
     }
 
     // [SG-ANCHOR:MLBRIDGE-JSONL-PARSE]
-    // 파일 끝에서부터 lastN 라인을 효율적으로 읽고(JSONL) Map으로 파싱
-    // - 제네릭 타입 명시(TypeReference)로 unchecked 경고 제거
-    // - BOM/주석 라인 무시, 깨진 라인은 스킵(내구성)
-    // - 파싱 직후 숫자 스칼라 타입을 Double로 정규화(타입 매핑 미스 방지)
-    private List<Map<String, Object>> tailJsonl(Path path, int lastN) throws IOException {
-        // 오래된→최신 순으로 tail 라인 확보
-        List<String> lines = readLastLines(path, lastN);
-
-        final com.fasterxml.jackson.databind.ObjectMapper om =
-                new com.fasterxml.jackson.databind.ObjectMapper();
-        final com.fasterxml.jackson.core.type.TypeReference<java.util.Map<String, Object>> T =
-                new com.fasterxml.jackson.core.type.TypeReference<java.util.Map<String, Object>>() {};
-
-        List<Map<String, Object>> out = new ArrayList<>(lines.size());
+    // 파일 끝에서부터 lastN 라인을 효율적으로 읽고(JSONL) MlLogEvent로 파싱
+    // - 스트리밍 파서(MlLogEventParser)가 응답에 필요한 필드만 만들고 나머지 하위 트리는 건너뜀
+    // - 숫자는 파싱 시점에 Double로(예전 normalizeNumberTypes 재귀 복사 불필요)
+    // - BOM/주석 라인/깨진 라인은 스킵(내구성)
+    private List<MlLogEvent> tailJsonl(Path path, int lastN) throws IOException {
+        // 오래된→최신 순으로 tail 라인 확보(끝에서 64KB 블록 단위 역방향 스캔, 줄 단위 UTF-8 디코드)
+        return parseJsonlLines(JsonlTailReader.readLastLines(path, lastN));
+    }
 
+    // JSONL 줄들 → MlLogEvent 목록(tail / run 색인 조회 공용)
+    private static List<MlLogEvent> parseJsonlLines(List<String> lines) {
+        List<MlLogEvent> out = new ArrayList<>(lines.size());
         for (String raw : lines) {
-            if (raw == null) continue;
-            String s = raw.trim();
-            if (s.isEmpty()) continue;
-
-            // BOM 방어
-            if (!s.isEmpty() && s.charAt(0) == '\uFEFF') {
-                s = s.substring(1);
-                if (s.isEmpty()) continue;
-            }
-            // 주석 라인 방어
-            if (s.startsWith("#") || s.startsWith("//")) continue;
-
-            try {
-                Map<String, Object> obj = om.readValue(s, T);	// 안전 파싱
-                if (obj != null && !obj.isEmpty()) {
-                    // [핵심] 숫자 타입 정규화: Integer/Long/BigDecimal → Double
-                    //       (DTO/FE 쪽이 List<Double> 가정할 때 타입 미스 방지)
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> normalized = (Map<String, Object>) normalizeNumberTypes(obj);
-                    out.add(normalized);
-                }
-            } catch (Exception ignore) {
-                // 부분 기록 등 깨진 라인은 스킵
-            }
+            if (raw == null || raw.isBlank()) continue;
+            MlLogEvent ev = MlLogEventParser.parse(raw, MlLogEventParser.Projection.LOG_VIEW);
+            if (ev != null) out.add(ev);   // 주석/부분 기록 등 깨진 라인은 null → 스킵
         }
         return out;
     }
 
-
-
-    // RandomAccessFile로 tail 구현(오래된→최신 순서로 반환)
-    private List<String> readLastLines(Path path, int lastN) throws IOException {
-        List<String> lines = new ArrayList<>(lastN);
-        try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "r")) {
-            long pos = raf.length() - 1;
-            int count = 0;
-            StringBuilder sb = new StringBuilder();
-
-            while (pos >= 0 && count < lastN) {
-                raf.seek(pos);
-                int c = raf.read();
-                if (c == '\n') {
-                    if (sb.length() > 0) {
-                        lines.add(sb.reverse().toString());
-                        sb.setLength(0);
-                        count++;
-                    }
-                } else if (c != '\r') {
-                    sb.append((char) c);
-                }
-                pos--;
-            }
-            if (sb.length() > 0 && count < lastN) {
-                lines.add(sb.reverse().toString());
-            }
-        }
-        Collections.reverse(lines);
-        return lines;
-    }
-
-    // [SG-ANCHOR:MLBRIDGE-NUM-NORMALIZE]
-// JSON(Map/List) 트리를 순회하면서 숫자 스칼라를 Double로 정규화한다.
-// - 이유: JSON 파서가 상황에 따라 Integer/Long/BigDecimal/Double을 섞어 줄 수 있음
-//         → DTO(List<Double>) 또는 FE(차트 데이터)에서 타입 미스(ClassCastException/NaN) 유발
-// - 동작: Number면 doubleValue()로 박싱(Double), Map/List는 재귀 처리, 그 외는 그대로 반환
-    private Object normalizeNumberTypes(Object v) {
-        if (v == null) return null;
-
-        if (v instanceof Number num) {
-            return Double.valueOf(num.doubleValue());
-        }
-        if (v instanceof Map<?, ?> map) {
-            Map<String, Object> m2 = new LinkedHashMap<>();
-            for (Map.Entry<?, ?> e : map.entrySet()) {
-                String key = String.valueOf(e.getKey());
-                m2.put(key, normalizeNumberTypes(e.getValue()));
-            }
-            return m2;
-        }
-        if (v instanceof List<?> list) {
-            List<Object> l2 = new ArrayList<>(list.size());
-            for (Object o : list) {
-                l2.add(normalizeNumberTypes(o));
-            }
-            return l2;
-        }
-        // String/Boolean 등은 그대로
-        return v;
-    }
-
 }
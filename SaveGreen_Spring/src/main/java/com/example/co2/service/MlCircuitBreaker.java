@@ -0,0 +1,212 @@
+package com.example.co2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * MlCircuitBreaker — FastAPI(ML) 호출 차단기
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - ML 서버가 죽었거나 느릴 때 요청마다 타임아웃(savegreen.ml.timeout.ms)만큼
+ *    Tomcat 스레드가 묶이지 않도록, 실패/지연이 쌓이면 호출 자체를 잠시 막는다.
+ *  - 막힌 동안 MlBridgeService는 ForecastService의 결정적 계산으로 응답한다(fallback=true).
+ *
+ * 상태
+ *  - CLOSED    : 정상. 최근 window-size 건의 결과를 링 버퍼에 기록하고, min-calls 이상 쌓인 뒤
+ *                실패율 ≥ failure-rate-pct 또는 지연율 ≥ slow-rate-pct 이면 OPEN.
+ *  - OPEN      : open-ms 동안 모든 호출 거절(즉시 폴백).
+ *  - HALF_OPEN : open-ms 경과 후 half-open-probes 건만 시험 호출로 통과.
+ *                시험 호출이 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN.
+ *
+ * 결과 판정(호출하는 쪽이 HTTP 호출 단위로 기록)
+ *  - 실패: 연결 실패/타임아웃/5xx
+ *  - 지연: 성공했지만 slow-call-ms 이상 걸림
+ *  - 4xx는 서버가 살아 있다는 뜻이므로 성공으로 기록
+ *
+ * 지표(Micrometer)
+ *  - ml.breaker.state       : 0=CLOSED, 1=OPEN, 2=HALF_OPEN (gauge)
+ *  - ml.breaker.transitions : 상태 전이 수 {to=closed|open|half_open}
+ *  - ml.breaker.rejected    : OPEN/시험 호출 초과로 거절한 호출 수
+ *
+ * 설정(savegreen.ml.breaker.*)
+ *  - enabled, window-size, min-calls, failure-rate-pct, slow-call-ms, slow-rate-pct, open-ms, half-open-probes
+ *
+ * 동기화
+ *  - 모든 상태 변경은 synchronized — 구간이 짧고(배열 갱신 몇 번) HTTP 호출 비용에 비해 무시할 수준.
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class MlCircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	/** tryAcquire 결과 — PROBE는 HALF_OPEN 시험 호출(배치에 섞지 말고 단건으로 보낼 것) */
+	public enum Permission { REJECTED, PERMITTED, PROBE }
+
+	private static final byte OK = 0;
+	private static final byte FAILED = 1;
+	private static final byte SLOW = 2;
+
+	private final boolean enabled;
+	private final int minCalls;
+	private final int failureRatePct;
+	private final long slowCallNanos;
+	private final int slowRatePct;
+	private final long openNanos;
+	private final int halfOpenProbes;
+
+	// CLOSED 구간의 최근 결과(링 버퍼)
+	private final byte[] window;
+	private int windowPos;
+	private int windowCount;
+	private int failedCount;
+	private int slowCount;
+
+	private State state = State.CLOSED;
+	private long openedAt;
+	private int probesIssued;
+	private int probesSucceeded;
+
+	private final Counter rejectedCounter;
+	private final Map<State, Counter> transitionCounters = new EnumMap<>(State.class);
+
+	public MlCircuitBreaker(
+			MeterRegistry meterRegistry,
+			@Value("${savegreen.ml.breaker.enabled:true}") boolean enabled,
+			@Value("${savegreen.ml.breaker.window-size:20}") int windowSize,
+			@Value("${savegreen.ml.breaker.min-calls:10}") int minCalls,
+			@Value("${savegreen.ml.breaker.failure-rate-pct:50}") int failureRatePct,
+			@Value("${savegreen.ml.breaker.slow-call-ms:2000}") long slowCallMs,
+			@Value("${savegreen.ml.breaker.slow-rate-pct:80}") int slowRatePct,
+			@Value("${savegreen.ml.breaker.open-ms:30000}") long openMs,
+			@Value("${savegreen.ml.breaker.half-open-probes:3}") int halfOpenProbes
+	) {
+		this.enabled = enabled;
+		this.window = new byte[Math.max(1, windowSize)];
+		this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+		this.failureRatePct = failureRatePct;
+		this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, slowCallMs));
+		this.slowRatePct = slowRatePct;
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, openMs));
+		this.halfOpenProbes = Math.max(1, halfOpenProbes);
+
+		Gauge.builder("ml.breaker.state", this, b -> b.state().ordinal())
+				.description("ML 호출 차단기 상태(0=CLOSED, 1=OPEN, 2=HALF_OPEN)")
+				.register(meterRegistry);
+		this.rejectedCounter = Counter.builder("ml.breaker.rejected")
+				.description("차단기가 거절해 폴백으로 응답한 호출 수")
+				.register(meterRegistry);
+		for (State s : State.values()) {
+			transitionCounters.put(s, Counter.builder("ml.breaker.transitions")
+					.description("차단기 상태 전이 수")
+					.tag("to", s.name().toLowerCase())
+					.register(meterRegistry));
+		}
+	}
+
+	/** 현재 상태(OPEN 유지 시간이 지났으면 HALF_OPEN으로 본다) */
+	public synchronized State state() {
+		if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+			transitionTo(State.HALF_OPEN);
+		}
+		return state;
+	}
+
+	/** 호출 전 통과 여부 확인 — REJECTED면 ML 서버를 부르지 말고 폴백 */
+	public synchronized Permission tryAcquire() {
+		if (!enabled) return Permission.PERMITTED;
+		switch (state()) {
+			case CLOSED:
+				return Permission.PERMITTED;
+			case HALF_OPEN:
+				if (probesIssued < halfOpenProbes) {
+					probesIssued++;
+					return Permission.PROBE;
+				}
+				// fall through — 시험 호출 결과를 기다리는 중
+			default:
+				rejectedCounter.increment();
+				return Permission.REJECTED;
+		}
+	}
+
+	/** HTTP 호출 성공(4xx 포함) 기록 — slow-call-ms 이상이면 지연으로 집계 */
+	public void onSuccess(long elapsedNanos) {
+		record(elapsedNanos >= slowCallNanos ? SLOW : OK);
+	}
+
+	/** HTTP 호출 실패(연결 실패/타임아웃/5xx) 기록 */
+	public void onFailure(long elapsedNanos) {
+		record(FAILED);
+	}
+
+	/* ===== 내부 구현 ===== */
+
+	private synchronized void record(byte outcome) {
+		if (!enabled) return;
+		switch (state) {
+			case HALF_OPEN:
+				// 시험 호출은 지연이어도 "응답은 왔다"로 보고, 실패만 다시 연다
+				if (outcome == FAILED) {
+					transitionTo(State.OPEN);
+				} else if (++probesSucceeded >= halfOpenProbes) {
+					transitionTo(State.CLOSED);
+				}
+				return;
+			case OPEN:
+				return; // 열리기 전에 나간 호출의 늦은 결과 — 무시
+			default:
+				break;
+		}
+
+		if (windowCount == window.length) {
+			byte evicted = window[windowPos];
+			if (evicted == FAILED) failedCount--;
+			else if (evicted == SLOW) slowCount--;
+		} else {
+			windowCount++;
+		}
+		window[windowPos] = outcome;
+		windowPos = (windowPos + 1) % window.length;
+		if (outcome == FAILED) failedCount++;
+		else if (outcome == SLOW) slowCount++;
+
+		if (windowCount < minCalls) return;
+		if (failedCount * 100 >= failureRatePct * windowCount || slowCount * 100 >= slowRatePct * windowCount) {
+			log.warn("ML circuit breaker OPEN: failed={}, slow={}, calls={}", failedCount, slowCount, windowCount);
+			transitionTo(State.OPEN);
+		}
+	}
+
+	private void transitionTo(State next) {
+		if (state == next) return;
+		state = next;
+		switch (next) {
+			case OPEN:
+				openedAt = System.nanoTime();
+				break;
+			case HALF_OPEN:
+				probesIssued = 0;
+				probesSucceeded = 0;
+				break;
+			case CLOSED:
+				windowPos = 0;
+				windowCount = 0;
+				failedCount = 0;
+				slowCount = 0;
+				break;
+		}
+		transitionCounters.get(next).increment();
+		log.info("ML circuit breaker → {}", next);
+	}
+}
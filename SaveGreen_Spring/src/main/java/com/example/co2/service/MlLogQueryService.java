@@ -0,0 +1,387 @@
+package com.example.co2.service;
+
+import com.example.co2.dto.MlLogEvent;
+import com.example.co2.util.MlLogEventParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * MlLogQueryService — 여러 일자 ML JSONL 로그 조건 검색(NDJSON 스트리밍)
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - /logs/latest 는 pickLatestJsonlKstAware()가 고른 "하루치 파일 1개"만 본다.
+ *    logs.root 아래 모든 YYYY-MM-DD.jsonl 을 시간/타입/kind/variant/run_id/PNU 조건으로 검색.
+ *
+ * 방식
+ *  1) 파일명 날짜(KST)로 from~to 범위 밖 파일은 열지 않는다.
+ *  2) 남은 파일을 chunk-bytes(기본 4MB) 구간으로 나눠 전용 ForkJoinPool에 순서대로 제출.
+ *     구간은 "시작 바이트가 [start, end) 안에 있는 줄"만 맡는다(경계에 걸친 줄은 앞 구간이 끝까지 읽음).
+ *     한 번에 제출해 두는 구간은 parallelism × 2 개까지 — 응답 스레드가 하나를 join할 때마다 다음 구간을 제출
+ *     → 범위가 넓거나 클라이언트가 느려도 메모리에 쌓이는 결과는 (창 크기 × limit) 이내.
+ *  3) 줄마다 먼저 바이트 검색(run_id/pnu/kind 문자열 포함 여부)으로 거른 뒤에만
+ *     MlLogEventParser(LOG_VIEW)로 파싱 → 나머지 조건 확인.
+ *  4) 응답 스레드는 구간을 파일/위치 순서대로 join → 결과를 바로 NDJSON 한 줄씩 써서 flush.
+ *     → 출력 순서 = 파일(날짜) 순 + 파일 안 기록 순(오래된 → 최신).
+ *
+ * 조기 종료
+ *  - limit 건을 다 쓰면 stopAfter에 현재 구간 번호를 기록 → 뒤 구간은 시작하지 않거나 읽는 도중 멈추고,
+ *    남은 작업은 cancel.
+ *  - 로그는 기록 시각 순으로 append되므로 ts > to 인 줄을 만나면 그 뒤(같은 파일 나머지 + 다음 날짜 파일)도 모두 범위 밖
+ *    → 같은 방식으로 멈춘다.
+ *  - 각 구간은 제출 시점에 "아직 더 써야 하는 건수(limit - 이미 쓴 수)"까지만 모은다.
+ *
+ * 설정(savegreen.ml.log-query.*)
+ *  - parallelism : 0이면 min(4, CPU 수)
+ *  - chunk-bytes : 구간 크기(기본 4MB, 64KB ~ 64MB)
+ *  - max-limit   : 요청 limit 상한(기본 10000)
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class MlLogQueryService {
+
+	private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+	private static final Pattern DAILY_FILE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})\\.jsonl");
+	private static final int TAIL_BLOCK = 64 * 1024;
+
+	private final Path logsRoot;
+	private final ObjectMapper objectMapper;
+	private final ForkJoinPool pool;
+	private final long chunkBytes;
+	private final int maxLimit;
+
+	/**
+	 * 검색 조건 — null/빈 값은 조건 없음
+	 * - from/to : ts 범위(from 포함, to 제외)
+	 * - variant : payload.variant 또는 tags.model("A", "C_Ensemble" 처럼 "C_..." 접두 포함)
+	 * - kind    : kind 또는 예전 포맷의 event
+	 */
+	public record Query(Instant from, Instant to, String type, String kind, String variant,
+						String runId, String pnu, int limit) {}
+
+	public MlLogQueryService(
+			ObjectMapper objectMapper,
+			@Value("${savegreen.ml.logs.root}") String logsRoot,
+			@Value("${savegreen.ml.log-query.parallelism:0}") int parallelism,
+			@Value("${savegreen.ml.log-query.chunk-bytes:4194304}") long chunkBytes,
+			@Value("${savegreen.ml.log-query.max-limit:10000}") int maxLimit
+	) {
+		this.objectMapper = objectMapper;
+		this.logsRoot = Paths.get(logsRoot);
+		this.chunkBytes = Math.max(64L * 1024, Math.min(chunkBytes, 64L * 1024 * 1024));
+		this.maxLimit = Math.max(1, maxLimit);
+
+		int threads = (parallelism > 0) ? parallelism : Math.min(4, Runtime.getRuntime().availableProcessors());
+		AtomicInteger seq = new AtomicInteger();
+		this.pool = new ForkJoinPool(threads, p -> {
+			ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+			t.setName("ml-log-query-" + seq.incrementAndGet());
+			return t;
+		}, null, false);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/** 요청 limit 보정(1 ~ max-limit) */
+	public int clampLimit(int limit) {
+		return Math.max(1, Math.min(limit, maxLimit));
+	}
+
+	/**
+	 * 조건에 맞는 로그를 NDJSON(한 줄 = MlLogEvent JSON)으로 out에 쓴다.
+	 * - 반환: 쓴 줄 수
+	 * - out 쓰기 실패(클라이언트 종료 등) 시 IOException — 남은 구간 작업은 취소된다.
+	 */
+	public int stream(Query q, OutputStream out) throws IOException {
+		final int limit = clampLimit(q.limit());
+		final List<Chunk> chunks = plan(q);
+		final Scan scan = new Scan(q);
+
+		final int window = pool.getParallelism() * 2;
+		Deque<ForkJoinTask<List<MlLogEvent>>> inFlight = new ArrayDeque<>(window);
+		int next = 0;   // 다음에 제출할 구간 번호
+
+		int written = 0;
+		try {
+			for (int k = 0; k < chunks.size() && written < limit; k++) {
+				// 창 채우기: 구간 k .. k+window-1 (조기 종료로 필요 없어진 구간은 제출하지 않음)
+				while (next < chunks.size() && next < k + window && !scan.cancelled(next)) {
+					Chunk c = chunks.get(next++);
+					int cap = limit - written;
+					inFlight.addLast(pool.submit(() -> scanChunk(c, scan, cap)));
+				}
+				ForkJoinTask<List<MlLogEvent>> task = inFlight.pollFirst();   // = 구간 k
+				if (task == null) break;
+				for (MlLogEvent ev : task.join()) {
+					out.write(objectMapper.writeValueAsBytes(ev));
+					out.write('\n');
+					if (++written >= limit) break;
+				}
+				out.flush();
+				if (written >= limit) scan.stopAt(k);
+				if (k >= scan.stopAfter) break;   // ts > to 에 도달한 구간까지 썼으면 끝
+			}
+		} catch (UncheckedIOException e) {
+			log.warn("[ml-log-query] scan failed: {}", e.getCause().toString());
+			throw e.getCause();
+		} finally {
+			scan.stopAt(-1);
+			for (ForkJoinTask<?> t : inFlight) t.cancel(false);
+		}
+		return written;
+	}
+
+	/* ===== 계획: 파일 선택 + 구간 분할 ===== */
+
+	private List<Chunk> plan(Query q) throws IOException {
+		if (!Files.isDirectory(logsRoot)) return List.of();
+
+		LocalDate fromDay = (q.from() != null) ? q.from().atZone(KST).toLocalDate() : null;
+		LocalDate toDay = (q.to() != null) ? q.to().atZone(KST).toLocalDate() : null;
+
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> s = Files.list(logsRoot)) {
+			s.forEach(p -> {
+				Matcher m = DAILY_FILE.matcher(p.getFileName().toString());
+				if (!m.matches() || !Files.isRegularFile(p)) return;
+				LocalDate day;
+				try {
+					day = LocalDate.parse(m.group(1));
+				} catch (DateTimeParseException e) {
+					return;
+				}
+				if (fromDay != null && day.isBefore(fromDay)) return;
+				if (toDay != null && day.isAfter(toDay)) return;
+				files.add(p);
+			});
+		}
+		files.sort(null);   // YYYY-MM-DD → 이름 순 = 날짜 순
+
+		List<Chunk> chunks = new ArrayList<>();
+		for (Path p : files) {
+			long size;
+			try {
+				size = Files.size(p);
+			} catch (NoSuchFileException e) {
+				continue;   // 보존 기간 정리로 방금 삭제됨
+			}
+			for (long start = 0; start < size; start += chunkBytes) {
+				chunks.add(new Chunk(chunks.size(), p, start, Math.min(size, start + chunkBytes)));
+			}
+		}
+		return chunks;
+	}
+
+	/** 파일 p에서 시작 바이트가 [start, end) 안에 있는 줄들 */
+	private record Chunk(int index, Path file, long start, long end) {}
+
+	/** 한 번의 검색에 공유되는 조건/조기 종료 상태 */
+	private static final class Scan {
+		final Query q;
+		final byte[][] needles;   // 줄에 반드시 들어 있어야 하는 바이트열(run_id/pnu/kind)
+		volatile int stopAfter = Integer.MAX_VALUE;   // 이 번호보다 뒤 구간은 필요 없음
+
+		Scan(Query q) {
+			this.q = q;
+			this.needles = Stream.of(q.runId(), q.pnu(), q.kind())
+					.filter(s -> s != null && !s.isBlank())
+					.map(s -> s.getBytes(StandardCharsets.UTF_8))
+					.toArray(byte[][]::new);
+		}
+
+		synchronized void stopAt(int k) {
+			if (k < stopAfter) stopAfter = k;
+		}
+
+		boolean cancelled(int k) {
+			return k > stopAfter;
+		}
+	}
+
+	/* ===== 구간 스캔(ForkJoinPool 작업) ===== */
+
+	/** cap: 이 구간에서 모을 최대 건수(제출 시점의 남은 limit) */
+	private List<MlLogEvent> scanChunk(Chunk c, Scan scan, int cap) {
+		if (scan.cancelled(c.index())) return List.of();
+		try (FileChannel ch = FileChannel.open(c.file(), StandardOpenOption.READ)) {
+			// 앞 구간과 경계에 걸친 줄은 건너뛰기 위해 1바이트 앞부터 읽는다
+			long readFrom = (c.start() > 0) ? c.start() - 1 : 0;
+			ByteBuffer buf = ByteBuffer.allocate((int) (c.end() - readFrom));
+			readFully(ch, buf, readFrom);
+			byte[] a = buf.array();
+			int len = buf.position();
+
+			int pos = 0;
+			if (c.start() > 0) {
+				while (pos < len && a[pos] != '\n') pos++;
+				pos++;   // 구간 안 첫 줄의 시작
+			}
+
+			List<MlLogEvent> hits = new ArrayList<>();
+			while (pos < len) {
+				if (scan.cancelled(c.index())) return hits;
+
+				int nl = indexOf(a, pos, len, (byte) '\n');
+				if (nl < 0) {
+					// 마지막 줄이 구간 끝을 넘어감 → 줄 끝까지 이어서 읽음
+					byte[] line = readLineTail(ch, a, pos, len, readFrom + len);
+					match(line, 0, line.length, c, scan, cap, hits);
+					break;
+				}
+				if (!match(a, pos, nl, c, scan, cap, hits)) break;
+				pos = nl + 1;
+			}
+			return hits;
+		} catch (NoSuchFileException e) {
+			return List.of();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 줄 [from, to) 검사 — 맞으면 hits에 추가
+	 * @return false면 이 구간 스캔 중단(cap 도달 또는 ts > to)
+	 */
+	private boolean match(byte[] a, int from, int to, Chunk c, Scan scan, int cap, List<MlLogEvent> hits) {
+		if (to > from && a[to - 1] == '\r') to--;
+		if (to <= from) return true;
+		for (byte[] n : scan.needles) {
+			if (indexOf(a, from, to, n) < 0) return true;
+		}
+
+		MlLogEvent ev = MlLogEventParser.parse(a, from, to - from, MlLogEventParser.Projection.LOG_VIEW);
+		if (ev == null) return true;
+
+		Query q = scan.q;
+		if (q.from() != null || q.to() != null) {
+			Instant ts = parseTs(ev.ts());
+			if (ts == null) return true;
+			if (q.to() != null && !ts.isBefore(q.to())) {
+				scan.stopAt(c.index());   // 기록 순 = 시간 순 → 뒤 구간/파일도 범위 밖
+				return false;
+			}
+			if (q.from() != null && ts.isBefore(q.from())) return true;
+		}
+		if (!blank(q.type()) && !q.type().equals(ev.type())) return true;
+		if (!blank(q.kind()) && !q.kind().equals(ev.kind()) && !q.kind().equals(ev.event())) return true;
+		if (!blank(q.runId()) && !q.runId().equals(ev.resolveRunId())) return true;
+		if (!blank(q.pnu()) && !q.pnu().equals(payloadText(ev, "pnu"))) return true;
+		if (!blank(q.variant()) && !variantMatches(q.variant(), ev)) return true;
+
+		hits.add(ev);
+		return hits.size() < cap;
+	}
+
+	private static boolean variantMatches(String variant, MlLogEvent ev) {
+		if (variant.equalsIgnoreCase(payloadText(ev, "variant"))) return true;
+		String model = ev.tag("model");
+		return model != null
+				&& (model.equalsIgnoreCase(variant) || model.regionMatches(true, 0, variant + "_", 0, variant.length() + 1));
+	}
+
+	private static String payloadText(MlLogEvent ev, String key) {
+		Map<String, Object> p = ev.payload();
+		Object v = (p != null) ? p.get(key) : null;
+		return (v != null) ? String.valueOf(v) : null;
+	}
+
+	private static Instant parseTs(String ts) {
+		if (ts == null || ts.isEmpty()) return null;
+		try {
+			return OffsetDateTime.parse(ts).toInstant();
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	private static boolean blank(String s) {
+		return s == null || s.isBlank();
+	}
+
+	/* ===== 바이트 유틸 ===== */
+
+	/** a[pos, len)에 이어 파일 offset부터 '\n'(또는 EOF)까지 읽어 한 줄로 */
+	private static byte[] readLineTail(FileChannel ch, byte[] a, int pos, int len, long offset) throws IOException {
+		byte[] line = Arrays.copyOfRange(a, pos, len);
+		int n = line.length;
+		ByteBuffer block = ByteBuffer.allocate(TAIL_BLOCK);
+		while (true) {
+			block.clear();
+			int r = ch.read(block, offset);
+			if (r <= 0) break;
+			offset += r;
+			int nl = indexOf(block.array(), 0, r, (byte) '\n');
+			int take = (nl < 0) ? r : nl;
+			if (n + take > line.length) line = Arrays.copyOf(line, Math.max(line.length * 2, n + take));
+			System.arraycopy(block.array(), 0, line, n, take);
+			n += take;
+			if (nl >= 0) break;
+		}
+		return (n == line.length) ? line : Arrays.copyOf(line, n);
+	}
+
+	private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			if (ch.read(buf, position + buf.position()) < 0) break;
+		}
+	}
+
+	private static int indexOf(byte[] a, int from, int to, byte b) {
+		for (int i = from; i < to; i++) {
+			if (a[i] == b) return i;
+		}
+		return -1;
+	}
+
+	private static int indexOf(byte[] a, int from, int to, byte[] n) {
+		if (n.length == 0) return from;
+		byte first = n[0];
+		outer:
+		for (int i = from, last = to - n.length; i <= last; i++) {
+			if (a[i] != first) continue;
+			for (int j = 1; j < n.length; j++) {
+				if (a[i + j] != n[j]) continue outer;
+			}
+			return i;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,434 @@
+package com.example.co2.service;
+
+import com.example.co2.dto.MlLogEvent;
+import com.example.co2.util.JsonlAppendReader;
+import com.example.co2.util.MlLogEventParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * MlMetricsRollup — 학습 지표(score_train / score_test / cv) run·variant별 요약
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - run 간 지표 비교를 위해 FE가 /logs/latest 원본 줄을 받아 브라우저에서 집계하던 방식 대체.
+ *    백그라운드에서 새 JSONL 줄만 접어(fold) 두고, 조회는 미리 만든 스냅샷을 그대로 돌려준다
+ *    (로그 줄 수와 무관한 O(1)).
+ *
+ * 집계 규칙
+ *  - 대상: type=metrics, kind ∈ {score_train, score_test, cv}, tags.run_id + tags.model 이 있는 줄
+ *  - variant: tags.model 의 '_' 앞부분("A_ElasticNet" → A, "C_Ensemble" → C)
+ *  - 지표마다 Stat { n, mean, last, best, trend }
+ *      · best  : r2 계열은 최댓값, 그 외(mae/rmse/std/delta)는 최솟값
+ *      · trend : last − 직전 값(값이 1개면 null) — 음수/양수의 좋고 나쁨은 best 방향과 같이 읽는다
+ *  - run 요약   : 그 run 안의 줄들(cv는 그리드 조합마다 1줄 → best = 최적 조합)
+ *  - variant 요약: run마다 "그 run의 best" 1개를 표본으로(같은 run 줄이 더 오면 표본 갱신)
+ *                 → last = 최신 run, trend = 최신 run − 직전 run, bestRunId 포함
+ *
+ * 갱신/보관
+ *  - @Scheduled(poll-ms) 로 logs.root/*.jsonl 새로 붙은 완성된 줄만 읽는다(JsonlAppendReader).
+ *  - 한 번에 접는 양은 max-bytes-per-tick(기본 8MB)까지 — 처음 긴 이력을 접을 때도 한 tick이 짧게 끝나
+ *    같은 스케줄러 스레드를 쓰는 다른 @Scheduled 작업(하우스키핑/학습 상태 폴링 등)을 막지 않는다.
+ *    남은 분량은 다음 tick들이 파일(날짜) 순서대로 이어서 접는다.
+ *  - 원본 파일이 보존 기간 정리로 사라져도 요약은 유지.
+ *  - 파일이 작아지면(교체) 지금 내용은 접지 않고 건너뛴다(이후 새로 붙는 줄만 집계).
+ *    누적 요약은 파일별로 되돌릴 수 없어서, 겹치는 내용을 다시 접으면 n/sum/last/trend가 이중 집계되기 때문.
+ *  - run 요약은 max-runs(기본 200)개까지(오래된 run부터 제거), variant 요약은 전체 기간 누적.
+ *  - savegreen.ml.metrics-rollup.file(기본: logs.root/.metrics-rollup.json)에
+ *    지표마다 숫자 배열 하나로 저장 → 재기동 시 이어서 집계.
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class MlMetricsRollup {
+
+	private static final int FORMAT_VERSION = 1;
+	private static final Set<String> KINDS = Set.of("score_train", "score_test", "cv");
+	private static final MlLogEventParser.Projection METRICS_ONLY = new MlLogEventParser.Projection(true, true, Set.of());
+
+	private final Path logsRoot;
+	private final Path rollupFile;
+	private final ObjectMapper objectMapper;
+	private final int maxRuns;
+	private final long persistIntervalNanos;
+	private final long maxBytesPerTick;
+
+	// 아래 상태는 모두 this 잠금으로 보호
+	private final Map<String, Long> foldedBytes = new HashMap<>();                  // 파일명 → 집계 끝 위치
+	private final LinkedHashMap<String, RunAcc> runs = new LinkedHashMap<>();       // run_id → 요약(처음 본 순)
+	private final Map<String, Stat> variants = new TreeMap<>();                     // "A|score_test|test_mae" → 요약
+	private boolean changed;
+	private boolean dirty;
+	private long lastPersist = System.nanoTime();
+
+	// 조회용 불변 스냅샷(갱신 때만 다시 만듦)
+	private volatile Map<String, Object> variantView = Map.of();
+	private volatile Map<String, Map<String, Object>> runView = Map.of();
+	private volatile String updatedAt;
+
+	public MlMetricsRollup(
+			ObjectMapper objectMapper,
+			@Value("${savegreen.ml.logs.root}") String logsRoot,
+			@Value("${savegreen.ml.metrics-rollup.file:}") String rollupFile,
+			@Value("${savegreen.ml.metrics-rollup.max-runs:200}") int maxRuns,
+			@Value("${savegreen.ml.metrics-rollup.persist-interval-ms:10000}") long persistIntervalMs,
+			@Value("${savegreen.ml.metrics-rollup.max-bytes-per-tick:8388608}") long maxBytesPerTick
+	) {
+		this.objectMapper = objectMapper;
+		this.logsRoot = Paths.get(logsRoot);
+		this.rollupFile = (rollupFile == null || rollupFile.isBlank())
+				? this.logsRoot.resolve(".metrics-rollup.json")
+				: Paths.get(rollupFile);
+		this.maxRuns = Math.max(1, maxRuns);
+		this.persistIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, persistIntervalMs));
+		this.maxBytesPerTick = Math.max(64L * 1024, maxBytesPerTick);
+		load();
+		publish();
+	}
+
+	@PreDestroy
+	synchronized void flush() {
+		if (dirty) persist();
+	}
+
+	/* ===== 조회(O(1)) ===== */
+
+	/** variant별 요약 전체: { variants: { A: { score_test: { test_mae: Stat } } }, runs, updatedAt } */
+	public Map<String, Object> summary() {
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("variants", variantView);
+		out.put("runs", runView.size());
+		out.put("updatedAt", updatedAt);
+		return out;
+	}
+
+	/** run 요약(없으면 null): { runId, firstTs, lastTs, variants: { A: { cv: { mae_mean: Stat } } } } */
+	public Map<String, Object> run(String runId) {
+		return (runId == null) ? null : runView.get(runId);
+	}
+
+	/* ===== 집계 ===== */
+
+	@Scheduled(initialDelayString = "${savegreen.ml.metrics-rollup.poll-ms:5000}",
+			fixedDelayString = "${savegreen.ml.metrics-rollup.poll-ms:5000}")
+	public synchronized void refresh() {
+		if (!Files.isDirectory(logsRoot)) return;
+
+		Map<String, Long> sizes = new TreeMap<>();   // 파일명(YYYY-MM-DD) 순 = 시간 순
+		try (Stream<Path> s = Files.list(logsRoot)) {
+			s.filter(p -> p.getFileName().toString().toLowerCase().endsWith(".jsonl")).forEach(p -> {
+				try {
+					sizes.put(p.getFileName().toString(), Files.size(p));
+				} catch (IOException ignore) {
+					// 목록 직후 삭제된 파일
+				}
+			});
+		} catch (IOException e) {
+			log.warn("ml metrics rollup: list failed {}", logsRoot, e);
+			return;
+		}
+
+		// 사라진 파일: 위치만 잊는다(요약은 유지). 작아진 파일: 교체로 보고 현재 끝으로 건너뜀(이중 집계 방지)
+		foldedBytes.keySet().removeIf(name -> !sizes.containsKey(name));
+		long budget = maxBytesPerTick;
+		for (Map.Entry<String, Long> e : sizes.entrySet()) {
+			if (budget <= 0) break;   // 나머지는 다음 tick(파일 순서 유지)
+			long from = foldedBytes.getOrDefault(e.getKey(), 0L);
+			if (e.getValue() < from) {
+				log.warn("ml metrics rollup: {} shrank ({} → {} bytes); skipping its current content", e.getKey(), from, e.getValue());
+				foldedBytes.put(e.getKey(), e.getValue());
+				dirty = true;
+				continue;
+			}
+			if (e.getValue() > from) budget -= foldFrom(e.getKey(), from, budget);
+		}
+
+		if (changed) {
+			publish();
+			changed = false;
+		}
+		if (dirty && System.nanoTime() - lastPersist >= persistIntervalNanos) persist();
+	}
+
+	/** from부터 약 maxBytes까지 접음 — 반환: 접은 바이트 수 */
+	private long foldFrom(String name, long from, long maxBytes) {
+		Path p = logsRoot.resolve(name);
+		try {
+			long next = JsonlAppendReader.readFrom(p, from, maxBytes, (start, end, buf, off, len) -> foldLine(buf, off, len));
+			if (next != from) {
+				foldedBytes.put(name, next);
+				dirty = true;
+			}
+			return next - from;
+		} catch (IOException e) {
+			log.warn("ml metrics rollup: read failed {}", p, e);
+			return 0L;
+		}
+	}
+
+	private void foldLine(byte[] buf, int off, int len) {
+		MlLogEvent ev = MlLogEventParser.parse(buf, off, len, METRICS_ONLY);
+		if (ev == null || !"metrics".equals(ev.type()) || ev.kind() == null || !KINDS.contains(ev.kind()) || ev.metrics() == null) return;
+		String runId = ev.resolveRunId();
+		String variant = variantOf(ev.tag("model"));
+		if (runId == null || runId.isEmpty() || variant == null) return;
+
+		RunAcc run = runs.get(runId);
+		if (run == null) {
+			run = new RunAcc(ev.ts());
+			runs.put(runId, run);
+			if (runs.size() > maxRuns) {
+				Iterator<String> it = runs.keySet().iterator();
+				it.next();
+				it.remove();
+			}
+		}
+		if (ev.ts() != null) run.lastTs = ev.ts();
+
+		String prefix = variant + "|" + ev.kind() + "|";
+		for (Map.Entry<String, Object> m : flatten(ev.metrics()).entrySet()) {
+			String key = prefix + m.getKey();
+			double v = ((Number) m.getValue()).doubleValue();
+			boolean maximize = m.getKey().contains("r2");
+
+			Stat rs = run.stats.computeIfAbsent(key, k -> new Stat());
+			rs.add(v, maximize, null);
+			variants.computeIfAbsent(key, k -> new Stat()).sample(runId, rs.best, maximize);
+		}
+		changed = true;
+		dirty = true;
+	}
+
+	/** "A_ElasticNet" → "A", "C" → "C" (없으면 null) */
+	private static String variantOf(String model) {
+		if (model == null || model.isBlank()) return null;
+		int us = model.indexOf('_');
+		return (us > 0) ? model.substring(0, us) : model.trim();
+	}
+
+	/** 숫자 지표만, 중첩 객체는 "train.mae" 처럼 점으로 이어 붙임 */
+	private static Map<String, Object> flatten(Map<String, Object> metrics) {
+		Map<String, Object> out = new LinkedHashMap<>();
+		flattenInto("", metrics, out);
+		return out;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void flattenInto(String prefix, Map<String, Object> m, Map<String, Object> out) {
+		for (Map.Entry<String, Object> e : m.entrySet()) {
+			Object v = e.getValue();
+			if (v instanceof Number n && Double.isFinite(n.doubleValue())) out.put(prefix + e.getKey(), n);
+			else if (v instanceof Map<?, ?> sub) flattenInto(prefix + e.getKey() + ".", (Map<String, Object>) sub, out);
+		}
+	}
+
+	/** 한 run의 누적 상태 */
+	private static final class RunAcc {
+		final String firstTs;
+		String lastTs;
+		final Map<String, Stat> stats = new TreeMap<>();   // "A|cv|mae_mean" → 요약
+
+		RunAcc(String firstTs) {
+			this.firstTs = firstTs;
+			this.lastTs = firstTs;
+		}
+	}
+
+	/** 지표 하나의 누적 요약 */
+	private static final class Stat {
+		long n;
+		double sum, last, prev = Double.NaN, best = Double.NaN;
+		String lastRunId, bestRunId;   // variant 요약에서만 사용
+
+		/** 표본 추가(run 요약) */
+		void add(double v, boolean maximize, String runId) {
+			n++;
+			sum += v;
+			prev = (n > 1) ? last : Double.NaN;
+			last = v;
+			if (Double.isNaN(best) || (maximize ? v > best : v < best)) {
+				best = v;
+				bestRunId = runId;
+			}
+			lastRunId = runId;
+		}
+
+		/** run 대표값 갱신(variant 요약) — 같은 run이면 표본 교체, 새 run이면 추가 */
+		void sample(String runId, double v, boolean maximize) {
+			if (runId.equals(lastRunId)) {
+				sum += v - last;
+				last = v;
+				if (maximize ? v > best : v < best) {
+					best = v;
+					bestRunId = runId;
+				}
+			} else {
+				add(v, maximize, runId);
+			}
+		}
+
+		Map<String, Object> view(boolean withRuns) {
+			Map<String, Object> out = new LinkedHashMap<>();
+			out.put("n", n);
+			out.put("last", last);
+			out.put("best", best);
+			out.put("mean", sum / n);
+			out.put("trend", Double.isNaN(prev) ? null : last - prev);
+			if (withRuns) {
+				out.put("lastRunId", lastRunId);
+				out.put("bestRunId", bestRunId);
+			}
+			return out;
+		}
+
+		double[] pack() {
+			return new double[]{n, sum, last, prev, best};
+		}
+
+		static Stat unpack(JsonNode a) {
+			Stat s = new Stat();
+			s.n = a.get(0).asLong();
+			s.sum = num(a.get(1));
+			s.last = num(a.get(2));
+			s.prev = num(a.get(3));
+			s.best = num(a.get(4));
+			return s;
+		}
+	}
+
+	/* ===== 스냅샷 ===== */
+
+	/** 조회용 불변 트리 생성(호출자가 this 잠금 보유) — 비용은 run 수 × 지표 수, 로그 줄 수와 무관 */
+	private void publish() {
+		Map<String, Object> vv = new TreeMap<>();
+		for (Map.Entry<String, Stat> e : variants.entrySet()) {
+			put(vv, e.getKey(), e.getValue().view(true));
+		}
+
+		Map<String, Map<String, Object>> rv = new HashMap<>();
+		for (Map.Entry<String, RunAcc> e : runs.entrySet()) {
+			Map<String, Object> byVariant = new TreeMap<>();
+			for (Map.Entry<String, Stat> s : e.getValue().stats.entrySet()) {
+				put(byVariant, s.getKey(), s.getValue().view(false));
+			}
+			Map<String, Object> one = new LinkedHashMap<>();
+			one.put("runId", e.getKey());
+			one.put("firstTs", e.getValue().firstTs);
+			one.put("lastTs", e.getValue().lastTs);
+			one.put("variants", Collections.unmodifiableMap(byVariant));
+			rv.put(e.getKey(), Collections.unmodifiableMap(one));
+		}
+
+		variantView = Collections.unmodifiableMap(vv);
+		runView = Collections.unmodifiableMap(rv);
+		updatedAt = OffsetDateTime.now().toString();
+	}
+
+	/** "A|score_test|test_mae" → root[A][score_test][test_mae] = value */
+	@SuppressWarnings("unchecked")
+	private static void put(Map<String, Object> root, String key, Object value) {
+		String[] k = key.split("\\|", 3);
+		Map<String, Object> byKind = (Map<String, Object>) root.computeIfAbsent(k[0], x -> new TreeMap<>());
+		Map<String, Object> byMetric = (Map<String, Object>) byKind.computeIfAbsent(k[1], x -> new TreeMap<>());
+		byMetric.put(k[2], value);
+	}
+
+	/* ===== 영속화 ===== */
+
+	private void load() {
+		if (!Files.isRegularFile(rollupFile)) return;
+		try {
+			JsonNode root = objectMapper.readTree(rollupFile.toFile());
+			if (root.path("version").asInt() != FORMAT_VERSION) return;
+
+			for (Map.Entry<String, JsonNode> e : root.path("files").properties()) {
+				foldedBytes.put(e.getKey(), e.getValue().asLong());
+			}
+			for (Map.Entry<String, JsonNode> e : root.path("variants").properties()) {
+				Stat s = Stat.unpack(e.getValue());
+				s.lastRunId = e.getValue().path(5).asText(null);
+				s.bestRunId = e.getValue().path(6).asText(null);
+				variants.put(e.getKey(), s);
+			}
+			for (JsonNode r : root.path("runs")) {
+				RunAcc run = new RunAcc(r.path("firstTs").asText(null));
+				run.lastTs = r.path("lastTs").asText(null);
+				for (Map.Entry<String, JsonNode> e : r.path("stats").properties()) {
+					run.stats.put(e.getKey(), Stat.unpack(e.getValue()));
+				}
+				runs.put(r.path("runId").asText(), run);
+			}
+			log.info("ml metrics rollup loaded: {} runs, {} variant metrics", runs.size(), variants.size());
+		} catch (IOException | RuntimeException e) {
+			// 손상된 파일 → 처음부터 다시
+			log.warn("ml metrics rollup: ignoring unreadable {}", rollupFile, e);
+			foldedBytes.clear();
+			runs.clear();
+			variants.clear();
+		}
+	}
+
+	private void persist() {
+		Map<String, Object> root = new LinkedHashMap<>();
+		root.put("version", FORMAT_VERSION);
+		root.put("files", foldedBytes);
+
+		Map<String, Object[]> vs = new LinkedHashMap<>();
+		for (Map.Entry<String, Stat> e : variants.entrySet()) {
+			double[] p = e.getValue().pack();
+			vs.put(e.getKey(), new Object[]{p[0], p[1], p[2], p[3], p[4], e.getValue().lastRunId, e.getValue().bestRunId});
+		}
+		root.put("variants", vs);
+
+		List<Map<String, Object>> rs = new ArrayList<>(runs.size());
+		for (Map.Entry<String, RunAcc> e : runs.entrySet()) {
+			Map<String, Object> r = new LinkedHashMap<>();
+			r.put("runId", e.getKey());
+			r.put("firstTs", e.getValue().firstTs);
+			r.put("lastTs", e.getValue().lastTs);
+			Map<String, double[]> stats = new LinkedHashMap<>();
+			for (Map.Entry<String, Stat> s : e.getValue().stats.entrySet()) stats.put(s.getKey(), s.getValue().pack());
+			r.put("stats", stats);
+			rs.add(r);
+		}
+		root.put("runs", rs);
+
+		lastPersist = System.nanoTime();
+		try {
+			Path tmp = rollupFile.resolveSibling(rollupFile.getFileName() + ".tmp");
+			objectMapper.writeValue(tmp.toFile(), root);
+			Files.move(tmp, rollupFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			dirty = false;
+		} catch (IOException e) {
+			log.warn("ml metrics rollup: persist failed {} ({})", rollupFile, e.toString());
+		}
+	}
+
+	/** NaN은 JSON에 null로 저장됨 → 되돌림 */
+	private static double num(JsonNode n) {
+		return (n == null || n.isNull() || !n.isNumber()) ? Double.NaN : n.asDouble();
+	}
+}
@@ -0,0 +1,300 @@
+package com.example.co2.service;
+
+import com.example.co2.dto.MlLogEvent;
+import com.example.co2.util.JsonlAppendReader;
+import com.example.co2.util.MlLogEventParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * MlRunIndex — ML JSONL 로그의 run_id → (파일, 바이트 구간) 색인
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - /logs/by-run 이 "오늘 파일 마지막 2000줄"만 훑던 방식 대체: 긴 학습 run도 잘리지 않고,
+ *    이미 본 줄은 다시 파싱하지 않는다.
+ *  - 최신 run_id(train_start 이벤트 / score_train·score_test·cv 지표 기준)를 O(1)로 조회.
+ *
+ * 색인 방식
+ *  - logs.root 아래 일자별 *.jsonl 파일마다 "색인한 바이트 위치"를 기억 → 새로 붙은 완성된 줄만 읽는다.
+ *  - 줄마다 run_id(tags.run_id → tags.runId → run_id → runId)를 뽑아 [파일, 시작, 끝) 구간에 추가.
+ *    같은 run의 줄이 연속이면 구간을 이어 붙인다(학습 로그는 대부분 한 구간).
+ *  - 파일이 작아졌거나(교체) 사라지면(보존 기간 정리) 그 파일의 구간을 버리고 다시 색인.
+ *  - 조회 시마다 refresh() — 변경이 없으면 디렉토리 목록 + 파일 크기 확인만 한다.
+ *
+ * 영속화
+ *  - savegreen.ml.run-index.file(기본: logs.root/.run-index.json)에 JSON으로 저장
+ *    (변경이 있을 때 persist-interval-ms 간격으로, 종료 시 1회). 재기동 시 불러와 이어서 색인.
+ *  - 저장 실패(읽기 전용 디렉토리 등)는 경고만 남기고 메모리 색인으로 계속 동작.
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class MlRunIndex {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final Path logsRoot;
+	private final Path indexFile;
+	private final ObjectMapper objectMapper;
+	private final long persistIntervalNanos;
+
+	// 아래 상태는 모두 this 잠금으로 보호
+	private final Map<String, Long> indexedBytes = new HashMap<>();       // 파일명 → 색인 끝 위치
+	private final Map<String, List<Span>> runs = new HashMap<>();         // run_id → 구간들(파일/시간 순)
+	private String latestRunId;
+	private String latestTs = "";
+	private boolean dirty;
+	private long lastPersist = System.nanoTime();
+
+	/** 한 run의 연속 줄 구간 [start, end) */
+	public record Span(String file, long start, long end) {}
+
+	public MlRunIndex(
+			ObjectMapper objectMapper,
+			@Value("${savegreen.ml.logs.root}") String logsRoot,
+			@Value("${savegreen.ml.run-index.file:}") String indexFile,
+			@Value("${savegreen.ml.run-index.persist-interval-ms:10000}") long persistIntervalMs
+	) {
+		this.objectMapper = objectMapper;
+		this.logsRoot = Paths.get(logsRoot);
+		this.indexFile = (indexFile == null || indexFile.isBlank())
+				? this.logsRoot.resolve(".run-index.json")
+				: Paths.get(indexFile);
+		this.persistIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, persistIntervalMs));
+		load();
+	}
+
+	@PreDestroy
+	synchronized void flush() {
+		if (dirty) persist();
+	}
+
+	/** 최신 run_id(없으면 null) */
+	public synchronized String latestRunId() {
+		refresh();
+		return latestRunId;
+	}
+
+	/** run의 줄(오래된 → 최신) — 구간마다 직접 seek해서 읽는다 */
+	public List<String> readRun(String runId) throws IOException {
+		List<Span> spans;
+		synchronized (this) {
+			refresh();
+			List<Span> s = runs.get(runId);
+			if (s == null) return List.of();
+			spans = new ArrayList<>(s);
+		}
+
+		List<String> lines = new ArrayList<>();
+		Path openFile = null;
+		FileChannel ch = null;
+		try {
+			for (Span sp : spans) {
+				Path p = logsRoot.resolve(sp.file());
+				if (!p.equals(openFile)) {
+					if (ch != null) ch.close();
+					ch = FileChannel.open(p, StandardOpenOption.READ);
+					openFile = p;
+				}
+				ByteBuffer buf = ByteBuffer.allocate((int) (sp.end() - sp.start()));
+				while (buf.hasRemaining()) {
+					if (ch.read(buf, sp.start() + buf.position()) < 0) break;
+				}
+				splitLines(buf.array(), buf.position(), lines);
+			}
+		} finally {
+			if (ch != null) ch.close();
+		}
+		return lines;
+	}
+
+	/* ===== 색인 갱신 ===== */
+
+	/** 새로 추가된 줄만 색인(호출자가 this 잠금 보유) */
+	private void refresh() {
+		if (!Files.isDirectory(logsRoot)) return;
+
+		Map<String, Long> sizes = new TreeMap<>();   // 파일명(YYYY-MM-DD) 순 = 시간 순
+		try (Stream<Path> s = Files.list(logsRoot)) {
+			s.filter(p -> p.getFileName().toString().toLowerCase().endsWith(".jsonl")).forEach(p -> {
+				try {
+					sizes.put(p.getFileName().toString(), Files.size(p));
+				} catch (IOException ignore) {
+					// 목록 직후 삭제된 파일
+				}
+			});
+		} catch (IOException e) {
+			log.warn("ml run index: list failed {}", logsRoot, e);
+			return;
+		}
+
+		// 사라졌거나 작아진 파일 → 그 파일 구간 제거(작아진 파일은 처음부터 다시)
+		for (Iterator<Map.Entry<String, Long>> it = indexedBytes.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<String, Long> e = it.next();
+			Long size = sizes.get(e.getKey());
+			if (size == null || size < e.getValue()) {
+				dropFile(e.getKey());
+				it.remove();
+			}
+		}
+
+		for (Map.Entry<String, Long> e : sizes.entrySet()) {
+			long from = indexedBytes.getOrDefault(e.getKey(), 0L);
+			if (e.getValue() > from) indexFrom(e.getKey(), from);
+		}
+
+		if (dirty && System.nanoTime() - lastPersist >= persistIntervalNanos) persist();
+	}
+
+	/** from 이후의 완성된 줄을 색인하고 색인 위치를 마지막 '\n' 다음으로 옮긴다 */
+	private void indexFrom(String name, long from) {
+		Path p = logsRoot.resolve(name);
+		try {
+			long next = JsonlAppendReader.readFrom(p, from, (start, end, buf, off, len) -> indexLine(name, start, end, buf, off, len));
+			if (next > from || !indexedBytes.containsKey(name)) {
+				indexedBytes.put(name, next);   // 줄 끝('\n') 전 조각은 다음 refresh에서
+				dirty = true;
+			}
+		} catch (IOException e) {
+			log.warn("ml run index: read failed {}", p, e);
+		}
+	}
+
+	private void indexLine(String file, long start, long end, byte[] buf, int off, int len) {
+		// 스트리밍 파서: run_id/type/kind/ts + tags만 읽고 payload/metrics 하위 트리는 건너뜀
+		MlLogEvent ev = MlLogEventParser.parse(buf, off, len, MlLogEventParser.Projection.INDEX);
+		if (ev == null) return;   // 빈 줄/주석/깨진 줄
+		String runId = ev.resolveRunId();
+		if (runId == null || runId.isEmpty()) return;
+
+		List<Span> spans = runs.computeIfAbsent(runId, k -> new ArrayList<>());
+		Span last = spans.isEmpty() ? null : spans.get(spans.size() - 1);
+		if (last != null && last.file().equals(file) && last.end() == start) {
+			spans.set(spans.size() - 1, new Span(file, last.start(), end));
+		} else {
+			spans.add(new Span(file, start, end));
+		}
+
+		// 최신 run: 학습 시작 이벤트 또는 학습 지표 줄 기준(ts 역전 방어)
+		String type = String.valueOf(ev.type());
+		String kind = String.valueOf(ev.kind());
+		boolean meaningful = ("event".equals(type) && "train_start".equals(kind))
+				|| ("metrics".equals(type) && ("score_train".equals(kind) || "score_test".equals(kind) || "cv".equals(kind)));
+		String ts = (ev.ts() != null) ? ev.ts() : "";
+		if (meaningful && ts.compareTo(latestTs) >= 0) {
+			latestTs = ts;
+			latestRunId = runId;
+		}
+	}
+
+	private void dropFile(String file) {
+		for (Iterator<Map.Entry<String, List<Span>>> it = runs.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<String, List<Span>> e = it.next();
+			e.getValue().removeIf(sp -> sp.file().equals(file));
+			if (e.getValue().isEmpty()) it.remove();
+		}
+		if (latestRunId != null && !runs.containsKey(latestRunId)) {
+			latestRunId = null;
+			latestTs = "";
+		}
+		dirty = true;
+	}
+
+	/* ===== 영속화 ===== */
+
+	private void load() {
+		if (!Files.isRegularFile(indexFile)) return;
+		try {
+			JsonNode root = objectMapper.readTree(indexFile.toFile());
+			if (root.path("version").asInt() != FORMAT_VERSION) return;
+
+			for (Map.Entry<String, JsonNode> e : root.path("files").properties()) {
+				indexedBytes.put(e.getKey(), e.getValue().asLong());
+			}
+			for (Map.Entry<String, JsonNode> e : root.path("runs").properties()) {
+				List<Span> spans = new ArrayList<>();
+				for (JsonNode sp : e.getValue()) spans.add(new Span(sp.get(0).asText(), sp.get(1).asLong(), sp.get(2).asLong()));
+				runs.put(e.getKey(), spans);
+			}
+			latestRunId = text(root.path("latestRunId"));
+			latestTs = root.path("latestTs").asText("");
+			log.info("ml run index loaded: {} runs, {} files", runs.size(), indexedBytes.size());
+		} catch (IOException | RuntimeException e) {
+			// 손상된 색인 → 처음부터 다시
+			log.warn("ml run index: ignoring unreadable {}", indexFile, e);
+			indexedBytes.clear();
+			runs.clear();
+			latestRunId = null;
+			latestTs = "";
+		}
+	}
+
+	private void persist() {
+		Map<String, Object> root = new LinkedHashMap<>();
+		root.put("version", FORMAT_VERSION);
+		root.put("files", indexedBytes);
+		Map<String, List<Object[]>> out = new LinkedHashMap<>();
+		for (Map.Entry<String, List<Span>> e : runs.entrySet()) {
+			List<Object[]> spans = new ArrayList<>(e.getValue().size());
+			for (Span sp : e.getValue()) spans.add(new Object[]{sp.file(), sp.start(), sp.end()});
+			out.put(e.getKey(), spans);
+		}
+		root.put("runs", out);
+		root.put("latestRunId", latestRunId);
+		root.put("latestTs", latestTs);
+
+		lastPersist = System.nanoTime();
+		try {
+			Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+			objectMapper.writeValue(tmp.toFile(), root);
+			Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			dirty = false;
+		} catch (IOException e) {
+			log.warn("ml run index: persist failed {} ({})", indexFile, e.toString());
+		}
+	}
+
+	/* ===== 내부 유틸 ===== */
+
+	private static String text(JsonNode n) {
+		if (n == null || n.isMissingNode() || n.isNull()) return null;
+		String s = n.asText();
+		return s.isEmpty() ? null : s;
+	}
+
+	/** 구간 바이트 → 비어 있지 않은 줄(UTF-8, 끝의 '\r' 제거) */
+	private static void splitLines(byte[] a, int len, List<String> out) {
+		int lineStart = 0;
+		for (int i = 0; i <= len; i++) {
+			if (i < len && a[i] != '\n') continue;
+			int end = i;
+			if (end > lineStart && a[end - 1] == '\r') end--;
+			if (end > lineStart) out.add(new String(a, lineStart, end - lineStart, StandardCharsets.UTF_8));
+			lineStart = i + 1;
+		}
+	}
+}
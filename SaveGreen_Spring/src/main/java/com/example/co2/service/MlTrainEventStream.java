@@ -0,0 +1,438 @@
+package com.example.co2.service;
+
+import com.example.co2.dto.MlLogEvent;
+import com.example.co2.util.MlLogEventParser;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * MlTrainEventStream — 학습 로그(JSONL) → SSE 푸시
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - FE가 /train/status, /logs/latest 를 반복 폴링하면 요청마다 JSONL tail을 다시 읽고 파싱한다.
+ *  - 대신 감시 스레드 하나가 savegreen.ml.logs.root 의 *.jsonl 에 "새로 붙은 줄"만 한 번 읽고,
+ *    run_id(tags.run_id → top-level run_id)별 구독자(SseEmitter) 모두에게 같은 이벤트를 보낸다.
+ *
+ * 동작 규칙
+ *  - 파일별 읽은 위치(offset)를 기억 → 추가된 바이트만 읽음. 줄 끝(\n) 전의 조각은 다음 읽기로 미룸.
+ *  - 기동 시점의 기존 내용은 건너뛴다(과거 로그는 /logs/by-run 으로 조회).
+ *  - run별 최근 replay-size 건은 메모리에 보관 → 늦게 구독한 클라이언트에게 먼저 재전송.
+ *  - WatchService 이벤트가 늦는 플랫폼(폴링 구현) 대비, poll-ms 마다 추적 중인 파일 크기도 확인.
+ *  - heartbeat-ms 마다 SSE 주석(ping) 전송 → 프록시 유휴 종료 방지 + 끊긴 구독자 정리.
+ *
+ * 전송(감시 스레드는 소켓에 쓰지 않는다)
+ *  - 구독자마다 대기열 1개: 감시 스레드/subscribe는 lock 안에서 대기열에 넣기만 하고,
+ *    실제 emitter.send는 전송 풀(ml-train-sse-N)에서 구독자별로 한 번에 하나씩(순서 유지) 수행.
+ *    → 느리거나 반쯤 끊긴 클라이언트 하나가 tail/다른 구독자 전달을 막지 않는다.
+ *  - 대기열이 replay-size + max-pending 을 넘으면(따라오지 못하는 클라이언트) 구독을 끊는다
+ *    — EventSource가 재연결하면 보관 중인 최근 이벤트부터 다시 받는다.
+ *  - 구독 등록/해제/발행은 모두 lock 안 → 해제와 동시에 등록된 구독자가 빠지는 일이 없다.
+ *
+ * SSE 형식
+ *  - id: 로그 레코드 id, data: 로그 레코드 JSON(한 줄 그대로의 구조)
+ *  - 이벤트 이름 없음(EventSource.onmessage 로 수신)
+ *
+ * 지표
+ *  - ml.train_stream.subscribers : 현재 SSE 구독자 수(gauge)
+ *
+ * 설정(savegreen.ml.stream.*)
+ *  - timeout-ms(구독 최대 유지), replay-size, max-pending, poll-ms, heartbeat-ms
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class MlTrainEventStream {
+
+	private static final int MAX_REPLAY_RUNS = 16;
+
+	private final Path logsRoot;
+	private final long emitterTimeoutMs;
+	private final int replaySize;
+	private final long pollMs;
+	private final long heartbeatMs;
+	private final int maxQueued;
+
+	// run_id → 구독자 — 변경은 lock 안에서만(읽기는 지표/종료 시 lock 없이)
+	private final ConcurrentMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+	// run_id → 최근 이벤트(오래된 run부터 축출) — 대기열 적재 순서를 맞추기 위해 lock 안에서만 사용
+	private final Object lock = new Object();
+	private final Map<String, Deque<MlLogEvent>> replay = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Deque<MlLogEvent>> eldest) {
+			return size() > MAX_REPLAY_RUNS;
+		}
+	};
+
+	// 파일별 tail 상태 — 감시 스레드 전용
+	private final Map<Path, TailState> tails = new HashMap<>();
+
+	private volatile boolean running;
+	private Thread watcher;
+
+	// 구독자 대기열 → emitter.send 실행(구독자당 동시에 1개 작업)
+	private final ExecutorService sender;
+
+	public MlTrainEventStream(
+			MeterRegistry meterRegistry,
+			@Value("${savegreen.ml.logs.root}") String logsRoot,
+			@Value("${savegreen.ml.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+			@Value("${savegreen.ml.stream.replay-size:500}") int replaySize,
+			@Value("${savegreen.ml.stream.max-pending:1000}") int maxPending,
+			@Value("${savegreen.ml.stream.poll-ms:1000}") long pollMs,
+			@Value("${savegreen.ml.stream.heartbeat-ms:15000}") long heartbeatMs
+	) {
+		this.logsRoot = Paths.get(logsRoot);
+		this.emitterTimeoutMs = emitterTimeoutMs;
+		this.replaySize = Math.max(0, replaySize);
+		this.pollMs = Math.max(100L, pollMs);
+		this.heartbeatMs = Math.max(1000L, heartbeatMs);
+		this.maxQueued = this.replaySize + Math.max(1, maxPending);
+
+		AtomicInteger seq = new AtomicInteger();
+		this.sender = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "ml-train-sse-" + seq.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+
+		Gauge.builder("ml.train_stream.subscribers", this, MlTrainEventStream::subscriberCount)
+				.description("학습 로그 SSE 구독자 수")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		running = true;
+		watcher = new Thread(this::runLoop, "ml-train-event-stream");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	@PreDestroy
+	void stop() {
+		running = false;
+		watcher.interrupt();
+		synchronized (lock) {
+			for (Set<Subscriber> set : subscribers.values()) {
+				for (Subscriber sub : set) sub.close();
+			}
+			subscribers.clear();
+		}
+		sender.shutdown();
+	}
+
+	/** run_id 구독 — 보관 중인 최근 이벤트를 먼저 보내고, 이후 새 줄이 생길 때마다 푸시 */
+	public SseEmitter subscribe(String runId) {
+		SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+		Subscriber sub = new Subscriber(runId, emitter);
+		Runnable remove = () -> unsubscribe(sub);
+		emitter.onCompletion(remove);
+		emitter.onTimeout(remove);
+		emitter.onError(e -> remove.run());
+
+		// 등록 + 최근 이벤트 적재를 한 번에 → 이후 발행분은 그 뒤에 쌓임(순서 유지, 전송은 비동기)
+		synchronized (lock) {
+			subscribers.computeIfAbsent(runId, k -> new CopyOnWriteArraySet<>()).add(sub);
+			Deque<MlLogEvent> recent = replay.get(runId);
+			if (recent != null) {
+				for (MlLogEvent ev : recent) sub.offer(ev);
+			}
+		}
+		return emitter;
+	}
+
+	/** 현재 구독자 수(run 합계) — 지표 ml.train_stream.subscribers */
+	int subscriberCount() {
+		int n = 0;
+		for (Set<Subscriber> set : subscribers.values()) n += set.size();
+		return n;
+	}
+
+	/* ===== 감시 스레드 ===== */
+
+	private void runLoop() {
+		long lastHeartbeat = System.nanoTime();
+		while (running) {
+			try (WatchService ws = logsRoot.getFileSystem().newWatchService()) {
+				if (!Files.isDirectory(logsRoot)) {
+					TimeUnit.MILLISECONDS.sleep(pollMs * 5);   // 로그 디렉토리가 생길 때까지 대기
+					continue;
+				}
+				logsRoot.register(ws, ENTRY_CREATE, ENTRY_MODIFY);
+				trackExisting();
+
+				while (running) {
+					WatchKey key = ws.poll(pollMs, TimeUnit.MILLISECONDS);
+					if (key != null) {
+						for (WatchEvent<?> ev : key.pollEvents()) {
+							if (!(ev.context() instanceof Path name)) continue; // OVERFLOW 등 → 아래 전체 확인으로 보완
+							if (!isJsonl(name)) continue;
+							Path file = logsRoot.resolve(name);
+							tails.computeIfAbsent(file, f -> new TailState(0L));
+						}
+						if (!key.reset()) break;   // 디렉토리 삭제됨 → 재등록
+					}
+					for (Iterator<Map.Entry<Path, TailState>> it = tails.entrySet().iterator(); it.hasNext(); ) {
+						Map.Entry<Path, TailState> e = it.next();
+						if (Files.exists(e.getKey())) readAppended(e.getKey(), e.getValue());
+						else it.remove();   // 정리된 옛 로그 파일
+					}
+					if (System.nanoTime() - lastHeartbeat >= TimeUnit.MILLISECONDS.toNanos(heartbeatMs)) {
+						heartbeat();
+						lastHeartbeat = System.nanoTime();
+					}
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				if (!running) break;
+			} catch (IOException | RuntimeException e) {
+				log.warn("ml train event stream watcher error; retrying", e);
+				try {
+					TimeUnit.MILLISECONDS.sleep(pollMs * 5);
+				} catch (InterruptedException ie) {
+					if (!running) break;
+				}
+			}
+		}
+	}
+
+	/** 기동(또는 재등록) 시점의 기존 파일은 현재 끝에서부터 추적 */
+	private void trackExisting() throws IOException {
+		try (Stream<Path> s = Files.list(logsRoot)) {
+			s.filter(p -> isJsonl(p.getFileName())).forEach(p -> {
+				if (!tails.containsKey(p)) {
+					try {
+						tails.put(p, new TailState(Files.size(p)));
+					} catch (IOException ignore) {
+						// 목록 직후 삭제된 파일
+					}
+				}
+			});
+		}
+	}
+
+	/** offset 이후 추가된 바이트만 읽어 완성된 줄을 이벤트로 발행 */
+	private void readAppended(Path file, TailState t) {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size < t.offset) {   // 잘림/교체 → 처음부터
+				t.offset = 0L;
+				t.partial.reset();
+			}
+			if (size == t.offset) return;
+
+			ByteBuffer buf = ByteBuffer.allocate((int) Math.min(64 * 1024, size - t.offset));
+			while (t.offset < size) {
+				buf.clear();
+				int n = ch.read(buf, t.offset);
+				if (n <= 0) break;
+				t.offset += n;
+				byte[] a = buf.array();
+				int start = 0;
+				for (int i = 0; i < n; i++) {
+					if (a[i] != '\n') continue;
+					t.partial.write(a, start, i - start);
+					publishLine(t.partial.toString(StandardCharsets.UTF_8));
+					t.partial.reset();
+					start = i + 1;
+				}
+				t.partial.write(a, start, n - start);   // 줄 끝 전 조각은 다음 읽기로
+			}
+		} catch (IOException e) {
+			log.debug("ml train event stream read failed: {}", file, e);
+		}
+	}
+
+	private void publishLine(String raw) {
+		String s = raw.trim();
+		if (!s.isEmpty() && s.charAt(0) == '\uFEFF') s = s.substring(1);
+		if (s.isEmpty() || s.startsWith("#") || s.startsWith("//")) return;
+
+		// /logs/by-run 과 같은 투영(MlLogEvent) — 깨진 줄은 null
+		MlLogEvent ev = MlLogEventParser.parse(s, MlLogEventParser.Projection.LOG_VIEW);
+		if (ev == null) return;
+		String runId = ev.resolveRunId();
+		if (runId == null) return;
+
+		synchronized (lock) {
+			if (replaySize > 0) {
+				Deque<MlLogEvent> recent = replay.computeIfAbsent(runId, k -> new ArrayDeque<>());
+				recent.addLast(ev);
+				while (recent.size() > replaySize) recent.removeFirst();
+			}
+			Set<Subscriber> set = subscribers.get(runId);
+			if (set == null) return;
+			for (Subscriber sub : set) sub.offer(ev);   // 대기열에 넣기만(소켓 쓰기는 전송 풀)
+		}
+	}
+
+	private void heartbeat() {
+		synchronized (lock) {
+			for (Set<Subscriber> set : subscribers.values()) {
+				for (Subscriber sub : set) sub.offer(PING);
+			}
+		}
+	}
+
+	private void unsubscribe(Subscriber sub) {
+		synchronized (lock) {
+			subscribers.computeIfPresent(sub.runId, (k, set) -> {
+				set.remove(sub);
+				return set.isEmpty() ? null : set;
+			});
+		}
+	}
+
+	private static boolean isJsonl(Path name) {
+		return name != null && name.toString().toLowerCase().endsWith(".jsonl");
+	}
+
+	private static final Object PING = new Object();
+
+	/*
+	 * 구독자 1명: 대기열(MlLogEvent 또는 PING) + 전송 풀에서 도는 drain 작업(동시에 최대 1개)
+	 * - offer: lock 안(감시 스레드/subscribe/heartbeat)에서만 호출, 블로킹 없음
+	 * - drain: 전송 풀 스레드 — 실패/초과 시 구독 해제 + emitter 종료
+	 */
+	private final class Subscriber {
+		final String runId;
+		final SseEmitter emitter;
+		private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger queued = new AtomicInteger();
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private volatile boolean closed;
+
+		Subscriber(String runId, SseEmitter emitter) {
+			this.runId = runId;
+			this.emitter = emitter;
+		}
+
+		void offer(Object item) {
+			if (closed) return;
+			if (queued.incrementAndGet() > maxQueued) {
+				log.debug("ml train stream subscriber too slow (run={}, queued>{}); dropping", runId, maxQueued);
+				drop();
+				return;
+			}
+			queue.add(item);
+			schedule();
+		}
+
+		private void schedule() {
+			if (!draining.compareAndSet(false, true)) return;
+			try {
+				sender.execute(this::drain);
+			} catch (RejectedExecutionException ex) {   // 종료 중
+				draining.set(false);
+			}
+		}
+
+		private void drain() {
+			try {
+				Object item;
+				while (!closed && (item = queue.poll()) != null) {
+					queued.decrementAndGet();
+					if (!deliver(item)) {
+						drop();   // 끊긴 클라이언트
+						return;
+					}
+				}
+			} finally {
+				draining.set(false);
+			}
+			if (!closed && !queue.isEmpty()) schedule();   // drain 종료 직전에 들어온 항목
+		}
+
+		private boolean deliver(Object item) {
+			try {
+				if (item == PING) {
+					emitter.send(SseEmitter.event().comment("ping"));
+				} else {
+					MlLogEvent ev = (MlLogEvent) item;
+					SseEmitter.SseEventBuilder b = SseEmitter.event().data(ev, MediaType.APPLICATION_JSON);
+					if (ev.id() != null) b.id(ev.id());
+					emitter.send(b);
+				}
+				return true;
+			} catch (IOException | IllegalStateException ex) {
+				return false;
+			}
+		}
+
+		/** 구독 해제 + emitter 종료(종료는 전송 풀에서 — 호출 스레드를 붙잡지 않음) */
+		private void drop() {
+			if (closed) return;
+			closed = true;
+			unsubscribe(this);
+			queue.clear();
+			try {
+				sender.execute(this::close);
+			} catch (RejectedExecutionException ex) {
+				close();
+			}
+		}
+
+		void close() {
+			closed = true;
+			try {
+				emitter.complete();
+			} catch (RuntimeException ignore) {
+				// 이미 종료됨
+			}
+		}
+	}
+
+	/** 파일별 읽은 위치 + 줄 끝 전 조각 */
+	private static final class TailState {
+		long offset;
+		final ByteArrayOutputStream partial = new ByteArrayOutputStream(256);
+
+		TailState(long offset) {
+			this.offset = offset;
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package com.example.co2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * ────────────────────────────────────────────────────────────────────────────
+ * MlVariantComparer — 한 요청을 여러 variant(A/B/C)로 동시에 예측해 비교
+ * ────────────────────────────────────────────────────────────────────────────
+ * 목적
+ *  - FE가 variant 비교를 위해 /predict?variant=A → B → C 를 순서대로 3번 부르던 것을 1번으로.
+ *    각 variant는 MlBridgeService.predict(캐시 → JVM 내 예측 → 마이크로배치/HTTP)를 그대로 탄다.
+ *  - 운영 중 섀도 평가: /predict 응답을 돌려준 뒤 같은 요청을 다른 variant로 백그라운드 예측해
+ *    지연/불일치만 지표로 남긴다(사용자 응답 지연 없음).
+ *
+ * compare(payload, variants, baseline, deadlineMs)
+ *  - variant마다 전용 풀에 제출 → 전부 끝나거나 deadline이 지나면 반환.
+ *    deadline 안에 못 끝난 variant는 { ok:false, error:"deadline exceeded" } (작업은 계속 돌아 지표는 남김)
+ *  - divergence: baseline(기본 C) 대비 savingPct / savingKwhYr / paybackYears 차이(variant − baseline)와 label 일치 여부
+ *
+ * shadow(payload, servedVariant, servedBody)
+ *  - savegreen.ml.shadow.sample-rate(기본 0 = 끔) 비율로 표본 추출, 나머지 variant를 백그라운드 예측.
+ *  - 풀 대기열이 차면 그 표본은 버린다(ml.predict.shadow.dropped) — 사용자 요청을 기다리게 하지 않음.
+ *  - 섀도 예측도 ML 서버 /predict를 부를 수 있으므로 그쪽 predict_variant 로그가 함께 쌓인다.
+ *
+ * 지표(Micrometer)
+ *  - ml.predict.variant.latency{variant, mode=compare|shadow}   : variant별 예측 시간
+ *  - ml.predict.variant.divergence{variant, baseline}           : |savingPct − baseline savingPct| (%p)
+ *  - ml.predict.variant.label_disagreement{variant, baseline}   : label이 baseline과 다른 건수
+ *  - ml.predict.variant.deadline_exceeded{variant}              : compare deadline 초과 건수
+ *  - ml.predict.shadow.dropped                                  : 대기열이 차서 버린 섀도 표본
+ * ────────────────────────────────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class MlVariantComparer {
+
+	static final List<String> ALL_VARIANTS = List.of("A", "B", "C");
+
+	private final MlBridgeService ml;
+	private final MeterRegistry meterRegistry;
+	private final long defaultDeadlineMs;
+	private final long maxDeadlineMs;
+	private final double shadowSampleRate;
+	private final ThreadPoolExecutor executor;
+	private final Counter shadowDropped;
+
+	public MlVariantComparer(
+			MlBridgeService ml,
+			MeterRegistry meterRegistry,
+			@Value("${savegreen.ml.compare.deadline-ms:3000}") long defaultDeadlineMs,
+			@Value("${savegreen.ml.compare.max-deadline-ms:30000}") long maxDeadlineMs,
+			@Value("${savegreen.ml.compare.threads:6}") int threads,
+			@Value("${savegreen.ml.shadow.sample-rate:0}") double shadowSampleRate
+	) {
+		this.ml = ml;
+		this.meterRegistry = meterRegistry;
+		this.maxDeadlineMs = Math.max(1L, maxDeadlineMs);
+		this.defaultDeadlineMs = Math.min(Math.max(1L, defaultDeadlineMs), this.maxDeadlineMs);
+		this.shadowSampleRate = Math.max(0.0, Math.min(shadowSampleRate, 1.0));
+		this.shadowDropped = Counter.builder("ml.predict.shadow.dropped")
+				.description("대기열이 차서 버린 섀도 예측 표본 수")
+				.register(meterRegistry);
+
+		AtomicInteger seq = new AtomicInteger();
+		int n = Math.max(1, threads);
+		this.executor = new ThreadPoolExecutor(
+				n, n, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(256),
+				r -> {
+					Thread t = new Thread(r, "ml-variant-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+		);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	/** deadlineMs: null/0 이하 → 기본값, 최대 max-deadline-ms */
+	public long clampDeadline(Long deadlineMs) {
+		if (deadlineMs == null || deadlineMs <= 0) return defaultDeadlineMs;
+		return Math.min(deadlineMs, maxDeadlineMs);
+	}
+
+	/* ===== 동시 비교 ===== */
+
+	/*
+	 * 응답: { ok, baseline, deadlineMs, results{ A:{..predict 응답..}, ... }, latencyMs{ A:.. },
+	 *        divergence{ A:{ savingPctDelta, savingKwhYrDelta, paybackYearsDelta, labelAgrees } }, incomplete[] }
+	 */
+	public Map<String, Object> compare(Map<String, Object> payload, List<String> variants, String baseline, long deadlineMs) {
+		String base = normalize(baseline, "C");
+		Set<String> targets = new LinkedHashSet<>();
+		if (variants != null) {
+			for (String v : variants) {
+				String nv = normalize(v, null);
+				if (nv != null) targets.add(nv);
+			}
+		}
+		if (targets.isEmpty()) targets.addAll(ALL_VARIANTS);
+		targets.add(base);
+
+		long t0 = System.nanoTime();
+		Map<String, CompletableFuture<Timed>> futures = new LinkedHashMap<>();
+		for (String v : targets) futures.put(v, submit(payload, v, "compare"));
+
+		try {
+			CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+					.get(deadlineMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException ex) {
+			// 끝난 것만 담아 반환, 나머지는 계속 실행(지연 지표는 끝날 때 기록)
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			// 개별 결과에서 처리(아래 isCompletedExceptionally)
+		}
+
+		Map<String, Object> results = new LinkedHashMap<>();
+		Map<String, Object> latency = new LinkedHashMap<>();
+		List<String> incomplete = new ArrayList<>();
+		for (Map.Entry<String, CompletableFuture<Timed>> e : futures.entrySet()) {
+			String v = e.getKey();
+			CompletableFuture<Timed> f = e.getValue();
+			if (!f.isDone()) {
+				incomplete.add(v);
+				Counter.builder("ml.predict.variant.deadline_exceeded").tag("variant", v)
+						.description("compare deadline 안에 끝나지 않은 variant 예측 수")
+						.register(meterRegistry).increment();
+				results.put(v, Map.of("ok", false, "error", "deadline exceeded", "variant", v));
+				continue;
+			}
+			Timed t = f.isCompletedExceptionally() ? null : f.join();
+			if (t == null || t.body == null) {
+				results.put(v, Map.of("ok", false, "error", "prediction failed", "variant", v));
+			} else {
+				results.put(v, t.body);
+				latency.put(v, TimeUnit.NANOSECONDS.toMillis(t.nanos));
+			}
+		}
+
+		Map<String, Object> divergence = new LinkedHashMap<>();
+		Object baseBody = results.get(base);
+		for (String v : targets) {
+			if (v.equals(base)) continue;
+			Map<String, Object> d = divergence(v, base, results.get(v), baseBody);
+			if (d != null) divergence.put(v, d);
+		}
+
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("ok", !incomplete.contains(base) && kpi(baseBody) != null);
+		out.put("baseline", base);
+		out.put("deadlineMs", deadlineMs);
+		out.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+		out.put("results", results);
+		out.put("latencyMs", latency);
+		out.put("divergence", divergence);
+		out.put("incomplete", incomplete);
+		return out;
+	}
+
+	/* ===== 섀도 평가 ===== */
+
+	/** /predict 응답 후 호출 — 표본이면 나머지 variant를 백그라운드로 예측해 지표만 기록(결과는 버림) */
+	public void shadow(Map<String, Object> payload, String servedVariant, Map<String, Object> servedBody) {
+		if (shadowSampleRate <= 0.0 || payload == null || kpi(servedBody) == null) return;
+		if (shadowSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= shadowSampleRate) return;
+
+		String served = normalize(servedVariant, "C");
+		Map<String, Object> copy = new LinkedHashMap<>(payload);   // 요청 스레드가 끝난 뒤에도 안전하게
+		for (String v : ALL_VARIANTS) {
+			if (v.equals(served)) continue;
+			try {
+				executor.execute(() -> {
+					Timed t = timed(copy, v, "shadow");
+					divergence(v, served, t.body, servedBody);
+				});
+			} catch (RejectedExecutionException ex) {
+				shadowDropped.increment();
+			}
+		}
+	}
+
+	/* ===== 내부 ===== */
+
+	private record Timed(Map<String, Object> body, long nanos) {}
+
+	private CompletableFuture<Timed> submit(Map<String, Object> payload, String v, String mode) {
+		try {
+			return CompletableFuture.supplyAsync(() -> timed(payload, v, mode), executor);
+		} catch (RejectedExecutionException ex) {
+			// 풀이 가득 참 → 요청 스레드에서 직접(비교 요청은 결과가 필요)
+			return CompletableFuture.completedFuture(timed(payload, v, mode));
+		}
+	}
+
+	private Timed timed(Map<String, Object> payload, String v, String mode) {
+		long t0 = System.nanoTime();
+		Map<String, Object> body = null;
+		try {
+			body = ml.predict(payload, v);
+		} catch (RuntimeException ex) {
+			log.debug("[variant] {} predict failed: {}", v, ex.toString());
+		}
+		long nanos = System.nanoTime() - t0;
+		Timer.builder("ml.predict.variant.latency")
+				.description("variant별 예측 시간(compare/shadow)")
+				.tag("variant", v)
+				.tag("mode", mode)
+				.register(meterRegistry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+		return new Timed(body, nanos);
+	}
+
+	/** variant − baseline 차이(둘 다 모델 예측일 때만 — 규칙/차단기 폴백 응답은 비교하지 않음) + 불일치 지표 기록 */
+	private Map<String, Object> divergence(String v, String base, Object body, Object baseBody) {
+		Map<?, ?> k = kpi(body);
+		Map<?, ?> kb = kpi(baseBody);
+		if (k == null || kb == null || isFallback(body) || isFallback(baseBody)) return null;
+
+		Double pct = delta(k.get("savingPct"), kb.get("savingPct"));
+		Double kwh = delta(k.get("savingKwhYr"), kb.get("savingKwhYr"));
+		Double payback = delta(k.get("paybackYears"), kb.get("paybackYears"));
+		boolean labelAgrees = String.valueOf(k.get("label")).equals(String.valueOf(kb.get("label")));
+
+		if (pct != null) {
+			DistributionSummary.builder("ml.predict.variant.divergence")
+					.description("baseline 대비 절감률 차이의 절댓값(%p)")
+					.baseUnit("percent_points")
+					.tag("variant", v)
+					.tag("baseline", base)
+					.register(meterRegistry)
+					.record(Math.abs(pct));
+		}
+		if (!labelAgrees) {
+			Counter.builder("ml.predict.variant.label_disagreement")
+					.description("label이 baseline과 다른 예측 수")
+					.tag("variant", v)
+					.tag("baseline", base)
+					.register(meterRegistry)
+					.increment();
+		}
+
+		Map<String, Object> d = new LinkedHashMap<>();
+		d.put("savingPctDelta", pct);
+		d.put("savingKwhYrDelta", kwh);
+		d.put("paybackYearsDelta", payback);
+		d.put("labelAgrees", labelAgrees);
+		return d;
+	}
+
+	private static Map<?, ?> kpi(Object body) {
+		if (!(body instanceof Map<?, ?> m) || Boolean.FALSE.equals(m.get("ok"))) return null;
+		return (m.get("kpi") instanceof Map<?, ?> k) ? k : null;
+	}
+
+	private static boolean isFallback(Object body) {
+		Map<?, ?> m = (Map<?, ?>) body;
+		return Boolean.TRUE.equals(m.get("fallback")) || "RULE_FALLBACK".equals(m.get("source"));
+	}
+
+	private static Double delta(Object a, Object b) {
+		return (a instanceof Number x && b instanceof Number y) ? x.doubleValue() - y.doubleValue() : null;
+	}
+
+	private static String normalize(String v, String dflt) {
+		if (v == null || v.isBlank()) return dflt;
+		String u = v.trim().toUpperCase(Locale.ROOT);
+		return ALL_VARIANTS.contains(u) ? u : dflt;
+	}
+}
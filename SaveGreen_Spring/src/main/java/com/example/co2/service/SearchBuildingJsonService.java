@@ -1,51 +1,32 @@
 package com.example.co2.service;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import com.example.co2.dto.SearchBuilding;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class SearchBuildingJsonService {
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private static final String SEARCH_JSON_PATH = "static/dummy/searchbuildingdata.json";
+    // searchbuildingdata.json — 기동 시 1회 로드 + PNU 색인(BuildingDataStore, 파일이 바뀌면 재로드)
+    private final BuildingDataStore store;
 
+    /** 전체 레코드(읽기 전용, 공유 스냅샷) */
     public List<SearchBuilding> readAll(){
-        try (InputStream is = new ClassPathResource(SEARCH_JSON_PATH).getInputStream()){
-            return objectMapper.readValue(is,new TypeReference<List<SearchBuilding>>() {});
-        }catch(Exception e){
-            throw new IllegalStateException("searchbuildingdata 로드 실패 : "+ SEARCH_JSON_PATH,e);
-        }
+        return store.search().all();
     }
     public SearchBuilding findByPnu(String pnu){
-       
         if(pnu ==null) return null;
-
-        List<SearchBuilding> list = readAll();
-        String target = pnu.trim();
-
-        for (SearchBuilding b : list ){
-            String recordPnu = b.getPnu();
-            if (recordPnu ==null){ continue;}
-            if (recordPnu.trim().equals(target)){
-                return b;
-            }
-        }
-        return null;
-        
+        return store.search().firstByPnu(pnu);
     }
     public List<Double> getMonthlyPercentByBuilding(String pnu) {
-        List<SearchBuilding> list = readAll();
+        // 같은 PNU(trim) 후보만 확인 — 일치 조건(원문 PNU equals)은 기존과 동일
+        List<SearchBuilding> list = store.search().byPnu(pnu);
 
         for (SearchBuilding b : list) {
             if (b == null) continue;
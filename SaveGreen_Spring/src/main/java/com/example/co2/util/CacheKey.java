@@ -0,0 +1,54 @@
+package com.example.co2.util;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * api_cache 캐시 키 (SHA-256 32바이트, DB 컬럼 cache_key_bin BINARY(32)).
+ * - L1/진행 중 계산 맵의 키로 쓰므로 내용 기준 equals/hashCode.
+ * - 16진수 문자열은 로그에 찍을 때만 만든다.
+ */
+public final class CacheKey {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final byte[] bytes;
+    private final int hash;
+
+    private CacheKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /** 소유권을 넘겨받는다(호출부는 배열을 더 이상 수정하지 말 것) */
+    public static CacheKey of(byte[] bytes) {
+        if (bytes == null) throw new IllegalArgumentException("cache key bytes required");
+        return new CacheKey(bytes);
+    }
+
+    /** DB 바인딩용 원본 바이트 (수정 금지) */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public String hex() {
+        return HEX.formatHex(bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey other)) return false;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return hex();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.co2.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/*
+ * 캐시 키 빌더 — 문자열 이어붙이기/hex 인코딩 없이 SHA-256 키를 만든다.
+ *
+ * 사용
+ *   CacheKeyBuilder kb = CacheKeyBuilder.get();   // 스레드별 인스턴스(버퍼/다이제스트 재사용)
+ *   kb.reset().field("buildingId", id).field("from", from) ...;
+ *   CacheKey key = kb.digest();                   // 할당: 결과 32바이트 + CacheKey 1개
+ *   String raw = kb.toRawString();                // (MISS 저장 시에만) cache_key_raw 디버그 문자열
+ *
+ * 규칙
+ *  - 버퍼 내용은 기존 "k=v;k=v" 키 문자열의 UTF-8 바이트와 한 글자도 다르지 않아야 한다.
+ *    (기존 행은 마이그레이션에서 UNHEX(cache_key_hash)로 옮겼으므로, 같은 입력 → 같은 키)
+ *  - 한 스레드 안에서 reset()~digest() 사이에 다른 키를 만들지 말 것(재진입 불가).
+ */
+public final class CacheKeyBuilder {
+
+    private static final ThreadLocal<CacheKeyBuilder> LOCAL = ThreadLocal.withInitial(CacheKeyBuilder::new);
+
+    private final MessageDigest sha256;
+    private byte[] buf = new byte[256];
+    private int len;
+
+    private CacheKeyBuilder() {
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    }
+
+    /** 현재 스레드의 빌더 */
+    public static CacheKeyBuilder get() {
+        return LOCAL.get();
+    }
+
+    public CacheKeyBuilder reset() {
+        len = 0;
+        return this;
+    }
+
+    /** name=value (첫 필드가 아니면 앞에 ';') */
+    public CacheKeyBuilder field(String name, CharSequence value) {
+        name(name);
+        appendUtf8(value);
+        return this;
+    }
+
+    public CacheKeyBuilder field(String name, long value) {
+        name(name);
+        appendLong(value);
+        return this;
+    }
+
+    public CacheKey digest() {
+        sha256.update(buf, 0, len);
+        return CacheKey.of(sha256.digest());
+    }
+
+    public String toRawString() {
+        return new String(buf, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /* ===== 내부 구현 ===== */
+
+    private void name(String name) {
+        if (len > 0) put((byte) ';');
+        appendUtf8(name);
+        put((byte) '=');
+    }
+
+    private void appendLong(long v) {
+        if (v == Long.MIN_VALUE) {
+            appendUtf8("-9223372036854775808");
+            return;
+        }
+        if (v < 0) {
+            put((byte) '-');
+            v = -v;
+        }
+        ensure(19);
+        int start = len;
+        do {
+            buf[len++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        // 역순으로 쓴 자릿수 뒤집기
+        for (int i = start, j = len - 1; i < j; i++, j--) {
+            byte t = buf[i]; buf[i] = buf[j]; buf[j] = t;
+        }
+    }
+
+    /** String.getBytes(UTF_8)과 같은 결과(짝 없는 서로게이트는 '?') */
+    private void appendUtf8(CharSequence s) {
+        int n = s.length();
+        ensure(n * 3);
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[len++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[len++] = (byte) (0xC0 | (c >> 6));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[len++] = (byte) (0xF0 | (cp >> 18));
+                buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf[len++] = (byte) '?';
+            } else {
+                buf[len++] = (byte) (0xE0 | (c >> 12));
+                buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void put(byte b) {
+        ensure(1);
+        buf[len++] = b;
+    }
+
+    private void ensure(int n) {
+        if (len + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.co2.util;
+
+import com.example.co2.dto.ForecastDtos.Cost;
+import com.example.co2.dto.ForecastDtos.ForecastResponse;
+import com.example.co2.dto.ForecastDtos.Kpi;
+import com.example.co2.dto.ForecastDtos.Series;
+
+import java.util.Arrays;
+
+/*
+ * ForecastResponse ↔ 압축 바이너리 (api_cache.payload_bin)
+ *
+ * 포맷 (버전 1)
+ *  - 헤더: 'F' 'C' + 버전(1바이트)
+ *  - years        : long 배열 (int[] 연도)
+ *  - series.after : long 배열
+ *  - series.saving: long 배열
+ *  - cost.saving  : long 배열
+ *  - kpi          : 존재 플래그(1바이트) → savingKwhYr, savingCostYr (zigzag varint),
+ *                   savingPct(존재 플래그 + zigzag varint), paybackYears(IEEE754 8바이트)
+ *
+ * long 배열 인코딩
+ *  - 길이+1 (varint, 0이면 null) → 첫 값 zigzag varint → 이후는 직전 값과의 차이(delta) zigzag varint
+ *  - 연도(+1씩), 지수감소 시계열(차이가 작음)이 1~3바이트로 줄어든다.
+ *
+ * 제약
+ *  - 알 수 없는 헤더/버전/잘린 입력, KPI 블록 뒤에 남은 바이트 → IllegalArgumentException
+ *  - series의 after/saving이 둘 다 null이면 series == null, cost.saving이 null이면 cost == null로 디코딩
+ */
+public final class ForecastBinaryCodec {
+
+	private static final byte MAGIC_0 = 'F';
+	private static final byte MAGIC_1 = 'C';
+	private static final byte VERSION = 1;
+
+	private ForecastBinaryCodec() {}
+
+	public static byte[] encode(ForecastResponse r) {
+		Writer w = new Writer(128);
+		w.put(MAGIC_0);
+		w.put(MAGIC_1);
+		w.put(VERSION);
+
+		w.putInts(r.years());
+		w.putLongs(r.series() == null ? null : r.series().after());
+		w.putLongs(r.series() == null ? null : r.series().saving());
+		w.putLongs(r.cost() == null ? null : r.cost().saving());
+
+		Kpi k = r.kpi();
+		if (k == null) {
+			w.put((byte) 0);
+		} else {
+			w.put((byte) 1);
+			w.putZigZag(k.savingKwhYr());
+			w.putZigZag(k.savingCostYr());
+			if (k.savingPct() == null) {
+				w.put((byte) 0);
+			} else {
+				w.put((byte) 1);
+				w.putZigZag(k.savingPct());
+			}
+			w.putDouble(k.paybackYears());
+		}
+		return w.toByteArray();
+	}
+
+	public static ForecastResponse decode(byte[] bytes) {
+		Reader rd = new Reader(bytes);
+		if (bytes.length < 3 || rd.get() != MAGIC_0 || rd.get() != MAGIC_1) {
+			throw new IllegalArgumentException("not a forecast payload");
+		}
+		byte version = rd.get();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("unsupported forecast payload version: " + version);
+		}
+
+		int[] years = rd.getInts();
+		long[] after = rd.getLongs();
+		long[] saving = rd.getLongs();
+		long[] costSaving = rd.getLongs();
+
+		Kpi kpi = null;
+		if (rd.get() == 1) {
+			long savingKwhYr = rd.getZigZag();
+			long savingCostYr = rd.getZigZag();
+			Integer savingPct = (rd.get() == 1) ? (int) rd.getZigZag() : null;
+			double paybackYears = rd.getDouble();
+			kpi = new Kpi(savingKwhYr, savingCostYr, savingPct, paybackYears);
+		}
+		if (rd.remaining() != 0) {
+			throw new IllegalArgumentException("trailing bytes after forecast payload: " + rd.remaining());
+		}
+
+		Series series = (after == null && saving == null) ? null : new Series(after, saving);
+		Cost cost = (costSaving == null) ? null : new Cost(costSaving);
+		return new ForecastResponse(years, series, cost, kpi);
+	}
+
+	/* ===== 내부 구현 ===== */
+
+	private static final class Writer {
+		private byte[] buf;
+		private int pos;
+
+		Writer(int initial) {
+			this.buf = new byte[initial];
+		}
+
+		void put(byte b) {
+			ensure(1);
+			buf[pos++] = b;
+		}
+
+		void putVarint(long v) {
+			ensure(10);
+			while ((v & ~0x7FL) != 0) {
+				buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			buf[pos++] = (byte) v;
+		}
+
+		void putZigZag(long v) {
+			putVarint((v << 1) ^ (v >> 63));
+		}
+
+		void putDouble(double d) {
+			long bits = Double.doubleToRawLongBits(d);
+			ensure(8);
+			for (int i = 0; i < 8; i++) {
+				buf[pos++] = (byte) (bits >>> (8 * i));
+			}
+		}
+
+		void putLongs(long[] values) {
+			if (values == null) {
+				putVarint(0);
+				return;
+			}
+			putVarint(values.length + 1L);
+			long prev = 0;
+			for (long v : values) {
+				putZigZag(v - prev);
+				prev = v;
+			}
+		}
+
+		void putInts(int[] values) {
+			if (values == null) {
+				putVarint(0);
+				return;
+			}
+			putVarint(values.length + 1L);
+			long prev = 0;
+			for (int v : values) {
+				putZigZag(v - prev);
+				prev = v;
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(buf, pos);
+		}
+
+		private void ensure(int n) {
+			if (pos + n > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+			}
+		}
+	}
+
+	private static final class Reader {
+		private final byte[] buf;
+		private int pos;
+
+		Reader(byte[] buf) {
+			this.buf = buf;
+		}
+
+		byte get() {
+			if (pos >= buf.length) throw new IllegalArgumentException("truncated forecast payload");
+			return buf[pos++];
+		}
+
+		long getVarint() {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				byte b = get();
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) return result;
+			}
+			throw new IllegalArgumentException("malformed varint");
+		}
+
+		long getZigZag() {
+			long v = getVarint();
+			return (v >>> 1) ^ -(v & 1);
+		}
+
+		double getDouble() {
+			long bits = 0;
+			for (int i = 0; i < 8; i++) {
+				bits |= (long) (get() & 0xFF) << (8 * i);
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		long[] getLongs() {
+			long n = getVarint();
+			if (n == 0) return null;
+			long[] out = new long[arraySize(n)];
+			long prev = 0;
+			for (int i = 0; i < out.length; i++) {
+				prev += getZigZag();
+				out[i] = prev;
+			}
+			return out;
+		}
+
+		int[] getInts() {
+			long[] values = getLongs();
+			if (values == null) return null;
+			int[] out = new int[values.length];
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != (int) values[i]) throw new IllegalArgumentException("year out of range: " + values[i]);
+				out[i] = (int) values[i];
+			}
+			return out;
+		}
+
+		int remaining() {
+			return buf.length - pos;
+		}
+
+		/** 길이+1 → 길이 (원소당 최소 1바이트이므로 남은 바이트보다 길면 잘린 입력) */
+		private int arraySize(long n) {
+			long size = n - 1;
+			if (size > buf.length - pos) throw new IllegalArgumentException("truncated forecast payload");
+			return (int) size;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.co2.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * append-only JSONL 파일 이어 읽기 — MlRunIndex / MlMetricsRollup 공용
+ *
+ * 방식
+ *  - from(이전에 읽은 끝 위치)부터 READ_CHUNK 단위로 읽어 '\n'으로 끝난 완성된 줄만 넘긴다.
+ *  - 마지막 '\n' 뒤 조각(기록 중인 줄)은 넘기지 않고, 반환값(다음 시작 위치)이 그 조각의 시작을 가리킨다
+ *    → 다음 호출에서 완성된 뒤 한 번만 처리된다.
+ *  - 줄 바이트에는 '\n'이 포함되지 않는다('\r'은 그대로 — JSON 파서가 공백으로 처리).
+ *  - maxBytes: 한 번에 읽을 양의 상한(READ_CHUNK 단위로 확인) — 넘으면 완성된 줄까지만 넘기고 멈춘다.
+ *    줄 하나가 상한보다 길어도 그 줄은 끝까지 읽는다(진행 보장).
+ */
+public final class JsonlAppendReader {
+
+	private static final int READ_CHUNK = 256 * 1024;
+
+	/** 완성된 줄 하나: 파일 위치 [start, end) (end는 '\n' 다음), 내용 buf[off, off + len) — buf는 호출 뒤 재사용됨 */
+	@FunctionalInterface
+	public interface LineSink {
+		void line(long start, long end, byte[] buf, int off, int len);
+	}
+
+	private JsonlAppendReader() {}
+
+	/** from 이후 완성된 줄을 sink로 넘기고, 다음에 읽을 위치(마지막 '\n' 다음)를 반환 */
+	public static long readFrom(Path path, long from, LineSink sink) throws IOException {
+		return readFrom(path, from, Long.MAX_VALUE, sink);
+	}
+
+	/** readFrom과 같되 약 maxBytes까지만 읽음 — 반환값이 파일 끝보다 앞이면 나머지는 다음 호출에서 */
+	public static long readFrom(Path path, long from, long maxBytes, LineSink sink) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size <= from) return from;
+
+			ByteBuffer buf = ByteBuffer.allocate((int) Math.min(READ_CHUNK, size - from));
+			byte[] a = buf.array();
+			long pos = from;          // 다음에 읽을 파일 위치
+			long lineStart = from;    // 아직 끝나지 않은 줄의 시작 위치
+			byte[] carry = new byte[0];
+			int carryLen = 0;
+
+			while (pos < size && (pos - from < maxBytes || lineStart == from)) {
+				buf.clear();
+				int n = ch.read(buf, pos);
+				if (n <= 0) break;
+
+				int start = 0;
+				for (int i = 0; i < n; i++) {
+					if (a[i] != '\n') continue;
+					long lineEnd = pos + i + 1;
+					if (carryLen == 0) {
+						sink.line(lineStart, lineEnd, a, start, i - start);
+					} else {
+						carry = append(carry, carryLen, a, start, i);
+						sink.line(lineStart, lineEnd, carry, 0, carryLen + (i - start));
+						carryLen = 0;
+					}
+					lineStart = lineEnd;
+					start = i + 1;
+				}
+				if (start < n) {
+					carry = append(carry, carryLen, a, start, n);
+					carryLen += n - start;
+				}
+				pos += n;
+			}
+			return lineStart;
+		}
+	}
+
+	private static byte[] append(byte[] carry, int carryLen, byte[] a, int from, int to) {
+		int need = carryLen + (to - from);
+		if (need > carry.length) {
+			byte[] grown = new byte[Math.max(need, carry.length * 2)];
+			System.arraycopy(carry, 0, grown, 0, carryLen);
+			carry = grown;
+		}
+		System.arraycopy(a, from, carry, carryLen, to - from);
+		return carry;
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.co2.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * JSONL(줄 단위 로그) 파일의 마지막 N줄 읽기 — MlBridgeService / ForecastMlController 공용
+ *
+ * 방식
+ *  1) 파일 끝에서부터 BLOCK_SIZE(64KB) 블록 단위로 FileChannel 위치 읽기 → '\n' 개수로
+ *     "마지막 N줄이 시작하는 바이트 위치"만 찾는다(파일 전체를 읽지 않음).
+ *  2) 그 위치부터 끝까지 한 번에 읽어 줄로 나눈 뒤 줄마다 UTF-8 디코드
+ *     → 멀티바이트 문자(한글 등)가 줄 중간/블록 경계에서 깨지지 않는다('\n'은 UTF-8 연속 바이트에 나오지 않음).
+ *
+ * 규칙
+ *  - 빈 줄(공백 없이 비었거나 '\r'만 있는 줄)은 세지 않고 결과에도 넣지 않는다.
+ *  - 줄 끝의 '\r'(CRLF)은 제거.
+ *  - 반환 순서: 오래된 → 최신
+ */
+public final class JsonlTailReader {
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private JsonlTailReader() {}
+
+	/** 마지막 lastN개의 비어 있지 않은 줄(오래된 → 최신) */
+	public static List<String> readLastLines(Path path, int lastN) throws IOException {
+		if (lastN <= 0) return List.of();
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = ch.size();
+			if (size == 0) return List.of();
+
+			final long start = findTailStart(ch, size, lastN);
+			final long len = size - start;
+			if (len > Integer.MAX_VALUE - 8) throw new IOException("tail region too large: " + len + " bytes");
+
+			ByteBuffer buf = ByteBuffer.allocate((int) len);
+			readFully(ch, buf, start);
+			return splitLines(buf.array(), buf.position(), lastN);
+		}
+	}
+
+	/** 끝에서부터 블록 단위로 거꾸로 훑어 마지막 lastN줄의 시작 위치를 찾는다(없으면 0) */
+	private static long findTailStart(FileChannel ch, long size, int lastN) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate((int) Math.min(BLOCK_SIZE, size));
+		byte[] a = block.array();
+		long blockEnd = size;
+		int count = 0;
+		boolean content = false;   // 마지막으로 본 '\n' 이후(파일 뒤쪽 방향) 내용이 있었는지
+
+		while (blockEnd > 0) {
+			long blockStart = Math.max(0L, blockEnd - a.length);
+			int n = (int) (blockEnd - blockStart);
+			block.clear().limit(n);
+			readFully(ch, block, blockStart);
+
+			for (int i = n - 1; i >= 0; i--) {
+				byte b = a[i];
+				if (b == '\n') {
+					if (content && ++count == lastN) return blockStart + i + 1;
+					content = false;
+				} else if (b != '\r') {
+					content = true;
+				}
+			}
+			blockEnd = blockStart;
+		}
+		return 0L;
+	}
+
+	private static List<String> splitLines(byte[] a, int len, int lastN) {
+		List<String> lines = new ArrayList<>(Math.min(lastN, 1024));
+		int lineStart = 0;
+		for (int i = 0; i <= len; i++) {
+			if (i < len && a[i] != '\n') continue;
+			int end = i;
+			if (end > lineStart && a[end - 1] == '\r') end--;
+			if (end > lineStart) lines.add(new String(a, lineStart, end - lineStart, StandardCharsets.UTF_8));
+			lineStart = i + 1;
+		}
+		// 방어적 상한(시작 위치를 정확히 찾았으면 lastN개 이하)
+		return (lines.size() > lastN) ? lines.subList(lines.size() - lastN, lines.size()) : lines;
+	}
+
+	private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			int r = ch.read(buf, position + buf.position());
+			if (r < 0) break;   // 읽는 도중 파일이 잘림 → 읽은 만큼만
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.example.co2.util;
+
+import com.example.co2.dto.MlLogEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * ML JSONL 로그 한 줄 → MlLogEvent (Jackson 스트리밍 JsonParser)
+ *
+ * 방식
+ *  - 토큰을 앞에서부터 한 번만 읽으며, 투영(Projection)에 없는 하위 트리는 skipChildren()으로
+ *    만들지 않고 건너뛴다(예: payload.feature_cols 배열, best_params 객체).
+ *  - 숫자는 읽는 즉시 Double로 만든다 → 기존 "Map 파싱 후 normalizeNumberTypes 재귀 복사" 단계 없음.
+ *
+ * 투영
+ *  - tags    : 스칼라 값만(run_id/model/chart 등)
+ *  - metrics : 숫자 트리 전체(train/test 중첩 포함)
+ *  - payload : payloadFields에 있는 스칼라만. null이면 모든 스칼라, 빈 집합이면 payload 전체 생략.
+ *
+ * 제약
+ *  - 객체가 아니거나 깨진 줄(부분 기록 등) → null (호출 쪽에서 스킵)
+ *  - 스레드 안전(JsonFactory 공유, 파서는 호출마다 생성)
+ */
+public final class MlLogEventParser {
+
+	/** 어떤 필드를 만들지 — 나머지는 건너뜀 */
+	public record Projection(boolean tags, boolean metrics, Set<String> payloadFields) {
+
+		/** 색인/라우팅용: run_id·type·kind·ts + tags */
+		public static final Projection INDEX = new Projection(true, false, Set.of());
+
+		/** 로그 조회 응답용: tags + metrics + payload 스칼라 전체 */
+		public static final Projection LOG_VIEW = new Projection(true, true, null);
+
+		boolean wantsPayload() {
+			return payloadFields == null || !payloadFields.isEmpty();
+		}
+	}
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	private MlLogEventParser() {}
+
+	public static MlLogEvent parse(String line, Projection p) {
+		if (!line.isEmpty() && line.charAt(0) == '\uFEFF') line = line.substring(1);   // BOM
+		try (JsonParser jp = FACTORY.createParser(line)) {
+			return read(jp, p);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	public static MlLogEvent parse(byte[] buf, int off, int len, Projection p) {
+		try (JsonParser jp = FACTORY.createParser(buf, off, len)) {
+			return read(jp, p);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/* ===== 내부 구현 ===== */
+
+	private static MlLogEvent read(JsonParser jp, Projection p) throws IOException {
+		if (jp.nextToken() != JsonToken.START_OBJECT) return null;
+
+		String id = null, ts = null, type = null, kind = null, area = null, event = null, message = null, msg = null, runId = null;
+		Map<String, Object> tags = null, payload = null, metrics = null;
+		boolean any = false;
+
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String name = jp.currentName();
+			JsonToken t = jp.nextToken();
+			any = true;
+			switch (name) {
+				case "id" -> id = text(jp, t);
+				case "ts" -> ts = text(jp, t);
+				case "type" -> type = text(jp, t);
+				case "kind" -> kind = text(jp, t);
+				case "area" -> area = text(jp, t);
+				case "event" -> event = text(jp, t);
+				case "message" -> message = text(jp, t);
+				case "msg" -> msg = text(jp, t);
+				case "run_id", "runId" -> {
+					String v = text(jp, t);
+					if (runId == null) runId = v;
+				}
+				case "tags" -> {
+					if (p.tags() && t == JsonToken.START_OBJECT) tags = readScalars(jp, null);
+					else jp.skipChildren();
+				}
+				case "metrics" -> {
+					if (p.metrics() && t == JsonToken.START_OBJECT) metrics = readObject(jp);
+					else jp.skipChildren();
+				}
+				case "payload" -> {
+					if (p.wantsPayload() && t == JsonToken.START_OBJECT) payload = readScalars(jp, p.payloadFields());
+					else jp.skipChildren();
+				}
+				default -> jp.skipChildren();   // 스칼라면 아무것도 안 함
+			}
+		}
+		if (!any || jp.currentToken() != JsonToken.END_OBJECT) return null;   // 빈 객체 / 잘린 줄
+		return new MlLogEvent(id, ts, type, kind, area, event, message, msg, runId, tags, payload, metrics);
+	}
+
+	/** 객체의 스칼라 필드만(keys가 null이면 전부), 중첩 객체/배열은 건너뜀 — 현재 토큰 START_OBJECT */
+	private static Map<String, Object> readScalars(JsonParser jp, Set<String> keys) throws IOException {
+		Map<String, Object> out = new LinkedHashMap<>();
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String name = jp.currentName();
+			JsonToken t = jp.nextToken();
+			if (t.isStructStart() || (keys != null && !keys.contains(name))) {
+				jp.skipChildren();
+				continue;
+			}
+			out.put(name, scalar(jp, t));
+		}
+		return out;
+	}
+
+	/** 객체 전체(숫자는 Double) — 현재 토큰 START_OBJECT */
+	private static Map<String, Object> readObject(JsonParser jp) throws IOException {
+		Map<String, Object> out = new LinkedHashMap<>();
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String name = jp.currentName();
+			out.put(name, readValue(jp, jp.nextToken()));
+		}
+		return out;
+	}
+
+	private static Object readValue(JsonParser jp, JsonToken t) throws IOException {
+		if (t == JsonToken.START_OBJECT) return readObject(jp);
+		if (t == JsonToken.START_ARRAY) {
+			List<Object> list = new ArrayList<>();
+			JsonToken e;
+			while ((e = jp.nextToken()) != JsonToken.END_ARRAY && e != null) list.add(readValue(jp, e));
+			return list;
+		}
+		return scalar(jp, t);
+	}
+
+	private static Object scalar(JsonParser jp, JsonToken t) throws IOException {
+		return switch (t) {
+			case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> jp.getDoubleValue();
+			case VALUE_TRUE -> Boolean.TRUE;
+			case VALUE_FALSE -> Boolean.FALSE;
+			case VALUE_NULL -> null;
+			default -> jp.getText();
+		};
+	}
+
+	/** 문자열 필드(숫자 등 스칼라는 텍스트로, 객체/배열은 건너뛰고 null) */
+	private static String text(JsonParser jp, JsonToken t) throws IOException {
+		if (t.isStructStart()) {
+			jp.skipChildren();
+			return null;
+		}
+		return (t == JsonToken.VALUE_NULL) ? null : jp.getText();
+	}
+}
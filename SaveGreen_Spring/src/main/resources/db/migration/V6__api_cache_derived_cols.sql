@@ -0,0 +1,4 @@
+-- HIT 경로에서 payload_json 파싱 없이 로그를 남기기 위한 파생 컬럼(저장 시 계산)
+ALTER TABLE Api_Cache
+  ADD COLUMN status_score TINYINT     NULL AFTER payload_json,
+  ADD COLUMN status_label VARCHAR(20) NULL AFTER status_score;
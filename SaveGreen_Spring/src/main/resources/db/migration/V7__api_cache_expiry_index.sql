@@ -0,0 +1,6 @@
+-- 하우스키핑 청크 삭제(DELETE ... WHERE expires_at <= ? ORDER BY expires_at, cache_id LIMIT n)용 인덱스
+-- - (expires_at, cache_id)를 명시해 정렬/LIMIT을 인덱스만으로 처리(filesort 없이 앞쪽부터 삭제)
+-- - 기존 단일 컬럼 인덱스(idx_api_cache_exp)는 이 인덱스의 접두어이므로 제거
+ALTER TABLE Api_Cache
+  ADD KEY idx_api_cache_exp_id (expires_at, cache_id),
+  DROP KEY idx_api_cache_exp;
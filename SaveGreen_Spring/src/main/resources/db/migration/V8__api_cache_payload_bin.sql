@@ -0,0 +1,6 @@
+-- 바이너리 페이로드 코덱(app.cache.payload-codec=binary)용 컬럼
+-- - payload_bin: ForecastBinaryCodec 인코딩(헤더+버전, delta/varint long 배열)
+-- - 바이너리로 저장된 행은 payload_json이 비므로 NULL 허용으로 변경
+ALTER TABLE Api_Cache
+  ADD COLUMN payload_bin BLOB NULL AFTER payload_json,
+  MODIFY COLUMN payload_json JSON NULL;
@@ -0,0 +1,18 @@
+-- 캐시 키를 64자 hex 문자열(cache_key_hash) → SHA-256 원본 32바이트(cache_key_bin)로 전환
+-- - 키 원문/해시 알고리즘은 그대로(SHA-256) → 기존 행은 UNHEX(cache_key_hash)로 옮기면 같은 키로 HIT
+-- - 유니크 인덱스 항목 크기: VARCHAR(64) utf8mb4(최대 256바이트) → BINARY(32)
+-- 1) 새 컬럼 추가(우선 NULL 허용)
+ALTER TABLE Api_Cache
+  ADD COLUMN cache_key_bin BINARY(32) NULL AFTER building_id;
+
+-- 2) 기존 행 이관
+UPDATE Api_Cache
+   SET cache_key_bin = UNHEX(cache_key_hash)
+ WHERE cache_key_bin IS NULL;
+
+-- 3) 제약 전환 후 옛 컬럼/인덱스 제거
+ALTER TABLE Api_Cache
+  MODIFY COLUMN cache_key_bin BINARY(32) NOT NULL,
+  ADD UNIQUE KEY uk_api_cache_key_bin (cache_key_bin),
+  DROP KEY uk_api_cache_hash,
+  DROP COLUMN cache_key_hash;
@@ -0,0 +1,74 @@
+package com.example.co2.bench;
+
+import com.example.co2.dto.ForecastDtos.Cost;
+import com.example.co2.dto.ForecastDtos.ForecastResponse;
+import com.example.co2.dto.ForecastDtos.Kpi;
+import com.example.co2.dto.ForecastDtos.Series;
+import com.example.co2.service.ForecastSeriesEngine;
+import com.example.co2.util.ForecastBinaryCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+ * api_cache 페이로드 코덱 비교(JSON vs ForecastBinaryCodec) — 수동 실행용 마이크로벤치마크
+ * - JUnit 테스트가 아님(빌드 시 실행되지 않음). IDE에서 main 실행.
+ * - 출력: 1건당 바이트 수, 인코드/디코드 평균 ns
+ * - 입력: ForecastService.computeStub와 같은 형태(11년, 6%/8% 감소)의 응답
+ */
+public class ForecastPayloadCodecBenchmark {
+
+	private static final int WARMUP = 200_000;
+	private static final int ITERATIONS = 1_000_000;
+
+	public static void main(String[] args) throws Exception {
+		ObjectMapper om = new ObjectMapper();
+		ForecastResponse sample = sample(2025, 2035, 1_200.0);
+
+		byte[] json = om.writeValueAsBytes(sample);
+		byte[] bin = ForecastBinaryCodec.encode(sample);
+		System.out.printf("row size  : json=%d bytes, binary=%d bytes (%.1f%%)%n",
+				json.length, bin.length, 100.0 * bin.length / json.length);
+
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += om.writeValueAsBytes(sample).length;
+			sink += om.readValue(json, ForecastResponse.class).years().length;
+			sink += ForecastBinaryCodec.encode(sample).length;
+			sink += ForecastBinaryCodec.decode(bin).years().length;
+		}
+
+		long t0 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += om.writeValueAsBytes(sample).length;
+		long jsonEnc = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += om.readValue(json, ForecastResponse.class).years().length;
+		long jsonDec = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += ForecastBinaryCodec.encode(sample).length;
+		long binEnc = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += ForecastBinaryCodec.decode(bin).years().length;
+		long binDec = System.nanoTime() - t0;
+
+		System.out.printf("encode    : json=%d ns/op, binary=%d ns/op%n", jsonEnc / ITERATIONS, binEnc / ITERATIONS);
+		System.out.printf("decode    : json=%d ns/op, binary=%d ns/op%n", jsonDec / ITERATIONS, binDec / ITERATIONS);
+		System.out.println("(sink=" + sink + ", sample=" + new String(json, StandardCharsets.UTF_8).length() + " chars)");
+	}
+
+	private static ForecastResponse sample(int from, int to, double area) {
+		int len = to - from + 1;
+		long baseline = Math.round(area * 380.0);
+		long[] after = ForecastSeriesEngine.decay(baseline, 0.06, len);
+		long[] saving = ForecastSeriesEngine.decay(Math.round(baseline * 0.08), 0.08, len);
+		long[] cost = ForecastSeriesEngine.scale(saving, 150L);
+
+		long lastCost = cost[len - 1];
+		double payback = Math.round((30_000_000.0 + 200_000.0 * area) / lastCost * 100.0) / 100.0;
+		return new ForecastResponse(ForecastSeriesEngine.years(from, len), new Series(after, saving), new Cost(cost),
+				new Kpi(saving[len - 1], lastCost, 8, payback));
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.co2.bench;
+
+import com.example.co2.dto.ForecastDtos.Cost;
+import com.example.co2.dto.ForecastDtos.ForecastResponse;
+import com.example.co2.dto.ForecastDtos.Kpi;
+import com.example.co2.dto.ForecastDtos.Series;
+import com.example.co2.service.ForecastSeriesEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 예측 시계열 생성 + JSON 직렬화 1회당 할당량 비교 — 수동 실행용(main)
+ * - before: List<Long>/List<String> + 연차별 Math.pow + 기본 record 직렬화 (이전 computeStub 방식)
+ * - after : ForecastSeriesEngine(long[]/int[], 누적 곱) + ForecastResponseSerializer
+ * - 측정: com.sun.management.ThreadMXBean#getThreadAllocatedBytes (HotSpot 전용), 평균 ns
+ */
+public class ForecastSeriesAllocationBenchmark {
+
+	private static final int WARMUP = 200_000;
+	private static final int ITERATIONS = 1_000_000;
+	private static final int FROM = 2025;
+	private static final int TO = 2035;
+	private static final double AREA = 1_200.0;
+
+	/** 이전 응답 모양(박싱된 리스트) — 기본 record 직렬화 */
+	record BoxedResponse(List<String> years, BoxedSeries series, BoxedCost cost, Kpi kpi) {}
+	record BoxedSeries(List<Long> after, List<Long> saving) {}
+	record BoxedCost(List<Long> saving) {}
+
+	public static void main(String[] args) throws Exception {
+		ObjectMapper om = new ObjectMapper();
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long tid = Thread.currentThread().getId();
+
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += om.writeValueAsBytes(boxed()).length;
+			sink += om.writeValueAsBytes(primitive()).length;
+		}
+
+		long a0 = mx.getThreadAllocatedBytes(tid);
+		long t0 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += om.writeValueAsBytes(boxed()).length;
+		long boxedNs = System.nanoTime() - t0;
+		long boxedBytes = mx.getThreadAllocatedBytes(tid) - a0;
+
+		a0 = mx.getThreadAllocatedBytes(tid);
+		t0 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += om.writeValueAsBytes(primitive()).length;
+		long primNs = System.nanoTime() - t0;
+		long primBytes = mx.getThreadAllocatedBytes(tid) - a0;
+
+		System.out.printf("before (boxed)    : %,d B/op, %d ns/op%n", boxedBytes / ITERATIONS, boxedNs / ITERATIONS);
+		System.out.printf("after  (primitive): %,d B/op, %d ns/op%n", primBytes / ITERATIONS, primNs / ITERATIONS);
+		System.out.println("same json: " + new String(om.writeValueAsBytes(boxed())).equals(new String(om.writeValueAsBytes(primitive()))));
+		System.out.println("(sink=" + sink + ")");
+	}
+
+	private static BoxedResponse boxed() {
+		int len = TO - FROM + 1;
+		List<String> years = new ArrayList<>(len);
+		for (int y = FROM; y <= TO; y++) years.add(String.valueOf(y));
+
+		long baseline = Math.round(AREA * 380.0);
+		long startSaving = Math.round(baseline * 0.08);
+		List<Long> after = new ArrayList<>(len);
+		List<Long> saving = new ArrayList<>(len);
+		for (int i = 0; i < len; i++) {
+			after.add(Math.max(0L, Math.round(baseline * Math.pow(0.94, i))));
+			saving.add(Math.max(0L, Math.round(startSaving * Math.pow(0.92, i))));
+		}
+		List<Long> cost = new ArrayList<>(len);
+		for (int i = 0; i < len; i++) cost.add(saving.get(i) * 150L);
+
+		return new BoxedResponse(years, new BoxedSeries(after, saving), new BoxedCost(cost), kpi(saving.get(len - 1), cost.get(len - 1)));
+	}
+
+	private static ForecastResponse primitive() {
+		int len = TO - FROM + 1;
+		long baseline = Math.round(AREA * 380.0);
+		long[] after = ForecastSeriesEngine.decay(baseline, 0.06, len);
+		long[] saving = ForecastSeriesEngine.decay(Math.round(baseline * 0.08), 0.08, len);
+		long[] cost = ForecastSeriesEngine.scale(saving, 150L);
+		return new ForecastResponse(ForecastSeriesEngine.years(FROM, len), new Series(after, saving), new Cost(cost),
+				kpi(saving[len - 1], cost[len - 1]));
+	}
+
+	private static Kpi kpi(long savingKwh, long savingCost) {
+		double payback = Math.round((30_000_000.0 + 200_000.0 * AREA) / savingCost * 100.0) / 100.0;
+		return new Kpi(savingKwh, savingCost, 8, payback);
+	}
+}
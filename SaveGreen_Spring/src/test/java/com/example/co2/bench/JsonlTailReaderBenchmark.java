@@ -0,0 +1,123 @@
+package com.example.co2.bench;
+
+import com.example.co2.util.JsonlTailReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * JSONL tail 읽기 비교 — 수동 실행용(main)
+ * - byte    : RandomAccessFile 1바이트씩 역방향 seek/read + (char) 캐스팅 (이전 MlBridgeService.readLastLines)
+ * - readAll : Files.readAllLines 후 마지막 N줄 (이전 ForecastMlController.readLastLines)
+ * - block   : JsonlTailReader (64KB 블록 역방향 스캔 + 줄 단위 UTF-8 디코드)
+ * - 인자: [파일 크기 MB(기본 300)] — 임시 파일을 만들어 측정 후 삭제
+ * - 한글 포함 로그 줄 → byte 방식은 문자가 깨지므로 "same as readAll" 결과도 함께 출력
+ */
+public class JsonlTailReaderBenchmark {
+
+	private static final int[] LAST_N = {50, 500, 2000};
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		long targetMb = (args.length > 0) ? Long.parseLong(args[0]) : 300L;
+		Path file = Files.createTempFile("ml-log-bench", ".jsonl");
+		try {
+			writeLog(file, targetMb * 1024 * 1024);
+			System.out.printf("file: %s (%,d bytes)%n", file, Files.size(file));
+
+			for (int lastN : LAST_N) {
+				List<String> expected = readAll(file, lastN);
+				List<String> block = JsonlTailReader.readLastLines(file, lastN);
+				List<String> bytewise = byteByByte(file, lastN);
+
+				System.out.printf("%nlastN=%d  block same as readAll: %s, byte same as readAll: %s%n",
+						lastN, block.equals(expected), bytewise.equals(expected));
+				System.out.printf("  byte    : %,10d us%n", time(() -> byteByByte(file, lastN)));
+				System.out.printf("  block   : %,10d us%n", time(() -> JsonlTailReader.readLastLines(file, lastN)));
+				if (lastN == LAST_N[0]) {
+					// 파일 전체 읽기는 N과 무관 — 한 번만 측정
+					System.out.printf("  readAll : %,10d us%n", time(() -> readAll(file, lastN)));
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	interface Tail {
+		List<String> read() throws IOException;
+	}
+
+	/** ROUNDS회 중 최솟값(us) — 첫 회는 워밍업 */
+	private static long time(Tail t) throws IOException {
+		long best = Long.MAX_VALUE;
+		long sink = 0;
+		t.read();
+		for (int i = 0; i < ROUNDS; i++) {
+			long t0 = System.nanoTime();
+			sink += t.read().size();
+			best = Math.min(best, System.nanoTime() - t0);
+		}
+		if (sink < 0) System.out.println(sink);
+		return best / 1_000;
+	}
+
+	private static void writeLog(Path file, long bytes) throws IOException {
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			long written = 0;
+			for (long i = 0; written < bytes; i++) {
+				String line = "{\"id\":\"" + Long.toHexString(i) + "\",\"ts\":\"2025-10-24T09:49:30+09:00\",\"type\":\"event\","
+						+ "\"kind\":\"predict_variant\",\"payload\":{\"variant\":\"C\",\"savingPct\":" + (i % 30)
+						+ ",\"buildingName\":\"서울시청 별관 " + i + "동\",\"floorAreaM2\":1234.5},"
+						+ "\"tags\":{\"run_id\":\"20251024-094930-A10C45\",\"chart\":\"predict\"}}\n";
+				w.write(line);
+				written += line.getBytes(StandardCharsets.UTF_8).length;
+			}
+		}
+	}
+
+	private static List<String> readAll(Path file, int lastN) throws IOException {
+		List<String> all = new ArrayList<>();
+		for (String s : Files.readAllLines(file)) {
+			if (!s.isEmpty()) all.add(s);
+		}
+		return new ArrayList<>(all.subList(Math.max(0, all.size() - lastN), all.size()));
+	}
+
+	/** 이전 MlBridgeService.readLastLines 그대로 */
+	private static List<String> byteByByte(Path path, int lastN) throws IOException {
+		List<String> lines = new ArrayList<>(lastN);
+		try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "r")) {
+			long pos = raf.length() - 1;
+			int count = 0;
+			StringBuilder sb = new StringBuilder();
+
+			while (pos >= 0 && count < lastN) {
+				raf.seek(pos);
+				int c = raf.read();
+				if (c == '\n') {
+					if (sb.length() > 0) {
+						lines.add(sb.reverse().toString());
+						sb.setLength(0);
+						count++;
+					}
+				} else if (c != '\r') {
+					sb.append((char) c);
+				}
+				pos--;
+			}
+			if (sb.length() > 0 && count < lastN) {
+				lines.add(sb.reverse().toString());
+			}
+		}
+		Collections.reverse(lines);
+		return lines;
+	}
+}
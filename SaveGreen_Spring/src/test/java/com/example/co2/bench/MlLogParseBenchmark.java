@@ -0,0 +1,97 @@
+package com.example.co2.bench;
+
+import com.example.co2.dto.MlLogEvent;
+import com.example.co2.util.MlLogEventParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * ML 로그 한 줄 파싱 비교 — 수동 실행용(main)
+ * - map    : ObjectMapper.readValue(Map) + normalizeNumberTypes 재귀 복사 (이전 MlBridgeService.tailJsonl)
+ * - stream : MlLogEventParser LOG_VIEW (tags + metrics + payload 스칼라)
+ * - index  : MlLogEventParser INDEX (run_id/type/kind/ts만 — MlRunIndex 색인 경로)
+ * - 줄 구성: train_start(feature_cols 배열 포함) / score_test(중첩 metrics) / predict_variant 를 섞어서 생성
+ * - 출력: 줄당 ns, 줄당 할당 바이트(ThreadMXBean, HotSpot 전용)
+ */
+public class MlLogParseBenchmark {
+
+	private static final int LINES = 20_000;
+	private static final int ROUNDS = 10;
+	private static final ObjectMapper OM = new ObjectMapper();
+
+	public static void main(String[] args) throws Exception {
+		List<String> lines = sampleLines(LINES);
+
+		run("map   ", lines, s -> normalizeNumberTypes(OM.readValue(s, new TypeReference<Map<String, Object>>() {})));
+		run("stream", lines, s -> MlLogEventParser.parse(s, MlLogEventParser.Projection.LOG_VIEW));
+		run("index ", lines, s -> MlLogEventParser.parse(s, MlLogEventParser.Projection.INDEX));
+
+		MlLogEvent sample = MlLogEventParser.parse(lines.get(0), MlLogEventParser.Projection.LOG_VIEW);
+		System.out.println("sample: " + OM.writeValueAsString(sample));
+	}
+
+	interface Parse {
+		Object apply(String line) throws Exception;
+	}
+
+	private static void run(String name, List<String> lines, Parse p) throws Exception {
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long tid = Thread.currentThread().getId();
+		long sink = 0;
+		for (String s : lines) sink += (p.apply(s) != null) ? 1 : 0;   // 워밍업
+
+		long bestNs = Long.MAX_VALUE, bestBytes = Long.MAX_VALUE;
+		for (int r = 0; r < ROUNDS; r++) {
+			long b0 = mx.getThreadAllocatedBytes(tid);
+			long t0 = System.nanoTime();
+			for (String s : lines) sink += (p.apply(s) != null) ? 1 : 0;
+			bestNs = Math.min(bestNs, System.nanoTime() - t0);
+			bestBytes = Math.min(bestBytes, mx.getThreadAllocatedBytes(tid) - b0);
+		}
+		System.out.printf("%s : %,8d ns/line  %,8d B/line  (sink %d)%n",
+				name, bestNs / lines.size(), bestBytes / lines.size(), sink);
+	}
+
+	private static List<String> sampleLines(int n) {
+		List<String> out = new ArrayList<>(n);
+		StringBuilder cols = new StringBuilder();
+		for (int c = 0; c < 40; c++) cols.append(c == 0 ? "" : ",").append("\"feature_").append(c).append('"');
+		for (int i = 0; i < n; i++) {
+			String tags = "\"tags\":{\"run_id\":\"20251024-0949" + (i % 60) + "-A10C45\",\"model\":\"C\",\"chart\":\"train\"}";
+			switch (i % 3) {
+				case 0 -> out.add("{\"id\":\"" + i + "\",\"ts\":\"2025-10-24T09:49:30+09:00\",\"type\":\"event\",\"kind\":\"train_start\","
+						+ "\"area\":\"train\",\"payload\":{\"rows\":" + (1000 + i) + ",\"feature_cols\":[" + cols + "],"
+						+ "\"best_params\":{\"n_estimators\":300,\"max_depth\":8,\"learning_rate\":0.05}}," + tags + "}");
+				case 1 -> out.add("{\"id\":\"" + i + "\",\"ts\":\"2025-10-24T09:49:31+09:00\",\"type\":\"metrics\",\"kind\":\"score_test\","
+						+ "\"metrics\":{\"train\":{\"r2\":0.93,\"mae\":1.2,\"rmse\":2.4},\"test\":{\"r2\":0.88,\"mae\":1.6,\"rmse\":3.1}}," + tags + "}");
+				default -> out.add("{\"id\":\"" + i + "\",\"ts\":\"2025-10-24T09:49:32+09:00\",\"type\":\"event\",\"kind\":\"predict_variant\","
+						+ "\"event\":\"predict_variant\",\"payload\":{\"variant\":\"C\",\"savingPct\":" + (i % 30)
+						+ ",\"buildingName\":\"서울시청 별관 " + i + "동\",\"floorAreaM2\":1234.5,\"builtYear\":1998}," + tags + "}");
+			}
+		}
+		return out;
+	}
+
+	/** 이전 MlBridgeService.normalizeNumberTypes 그대로 */
+	@SuppressWarnings("unchecked")
+	private static Object normalizeNumberTypes(Object v) {
+		if (v instanceof Map<?, ?> m) {
+			Map<String, Object> out = new LinkedHashMap<>();
+			for (Map.Entry<?, ?> e : m.entrySet()) out.put(String.valueOf(e.getKey()), normalizeNumberTypes(e.getValue()));
+			return out;
+		}
+		if (v instanceof List<?> l) {
+			List<Object> out = new ArrayList<>(l.size());
+			for (Object o : l) out.add(normalizeNumberTypes(o));
+			return out;
+		}
+		if (v instanceof Number n) return n.doubleValue();
+		return v;
+	}
+}
@@ -0,0 +1,186 @@
+package com.example.co2.inference;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+ * JVM 예측 ↔ 파이썬(ml/app) 예측 정합성
+ *
+ * 1) model_export_fixture.json — 작은 A(선형)/B(트리 2그루) 산출물
+ *    · parity    : 같은 계수로 파이썬 ModelManager.preview_all_variants가 낸 A/B/C
+ *    · responses : 같은 모델로 파이썬 ModelManager.predict_variant가 낸 응답 전체(nowYear 기준)
+ *    · B의 첫 분기 threshold는 float32 캐스트 여부로 갈래가 달라지는 값(첫 표본 기준)
+ *    · 계수를 틀리게 바꾼 산출물은 로드 시 parity 검증에서 거부돼야 함
+ * 2) ../ml/data/model_export.json — 실제 학습 산출물(train.py가 기록한 parity 포함), 없으면 건너뜀
+ */
+class InProcessScorerParityTest {
+
+	private static final double TOL = 1e-9;
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {};
+
+	@Test
+	void fixturePredictionsMatchPython() throws Exception {
+		ModelArtifact m = readFixture();
+		assertFalse(m.parity().isEmpty());
+		assertParity(m);
+	}
+
+	@Test
+	void fixtureResponsesMatchPython() throws Exception {
+		ModelArtifact m = readFixture();
+		JsonNode doc = fixtureTree();
+		int nowYear = doc.path("nowYear").asInt();
+
+		for (JsonNode c : doc.path("responses")) {
+			String variant = c.path("variant").asText();
+			PredictInput in = PredictInput.from(MAPPER.convertValue(c.path("payload"), PAYLOAD));
+			assertNotNull(in, c.path("payload").toString());
+
+			double pct = m.predictPct(in.features(), variant);
+			Map<String, Object> rsp = ResponseAssembler.assemble(in, variant, pct, m.modelVersion(), nowYear);
+
+			JsonNode expected = c.path("response");
+			JsonNode actual = MAPPER.valueToTree(rsp);
+			assertEquals(fieldNames(expected), fieldNames(actual), "key order");
+			assertTrue(expected.equals(NUMERIC_TOLERANT, actual),
+					variant + " " + c.path("payload") + "\n expected " + expected + "\n actual   " + actual);
+		}
+	}
+
+	@Test
+	void unsupportedInputsFallBackToHttp() throws Exception {
+		InProcessScorer scorer = new InProcessScorer(MAPPER, true, fixturePath().toString(), 1e-6);
+		assertEquals("fixture-2025.11", scorer.modelVersion());
+
+		Map<String, Object> ok = new HashMap<>(Map.of("type", "office", "floorAreaM2", 1200.0, "builtYear", 2001));
+		assertNotNull(scorer.predict(ok, "c"));
+		assertEquals("C", scorer.predict(ok, null).get("variant"));
+
+		Map<String, Object> noType = new HashMap<>(ok);
+		noType.remove("type");
+		assertNull(scorer.predict(noType, "C"));
+
+		Map<String, Object> textNumber = new HashMap<>(ok);
+		textNumber.put("tariffKrwPerKwh", "130");
+		assertNull(scorer.predict(textNumber, "C"));
+
+		Map<String, Object> noArea = new HashMap<>(ok);
+		noArea.remove("floorAreaM2");
+		assertNull(scorer.predict(noArea, "C"));
+
+		InProcessScorer disabled = new InProcessScorer(MAPPER, false, fixturePath().toString(), 1e-6);
+		assertNull(disabled.modelVersion());
+		assertNull(disabled.predict(ok, "C"));
+	}
+
+	@Test
+	void parityMismatchRejectsArtifact() throws Exception {
+		assertNull(readFixture().parityMismatch(1e-6));
+
+		// 계수 하나만 틀린 산출물(내보내기 버그 흉내) — parity 값은 원래 파이썬 값 그대로
+		ObjectNode broken = (ObjectNode) fixtureTree();
+		ArrayNode coef = (ArrayNode) broken.path("models").path("A").path("coef");
+		coef.set(0, coef.get(0).asDouble() + 1.0);
+		Path dir = Files.createTempDirectory("inference");
+		Path bad = dir.resolve("broken.json");
+		MAPPER.writeValue(bad.toFile(), broken);
+
+		// 처음부터 틀린 산출물 → 로드 거부(HTTP만)
+		InProcessScorer rejected = new InProcessScorer(MAPPER, true, bad.toString(), 1e-6);
+		assertNull(rejected.modelVersion());
+
+		// 정상 산출물 로드 후 틀린 산출물로 교체 → 이전 모델 유지
+		Path live = dir.resolve("model_export.json");
+		Files.copy(fixturePath(), live);
+		InProcessScorer scorer = new InProcessScorer(MAPPER, true, live.toString(), 1e-6);
+		assertEquals("fixture-2025.11", scorer.modelVersion());
+		Files.copy(bad, live, StandardCopyOption.REPLACE_EXISTING);
+		Files.setLastModifiedTime(live, FileTime.fromMillis(Files.getLastModifiedTime(live).toMillis() + 5000));
+		scorer.reload();
+		assertEquals("fixture-2025.11", scorer.modelVersion());
+		assertNotNull(scorer.predict(new HashMap<>(Map.of("type", "office", "floorAreaM2", 1200.0, "builtYear", 2001)), "A"));
+	}
+
+	@Test
+	void exportedArtifactMatchesPython() throws Exception {
+		Path real = Paths.get("../ml/data/model_export.json");
+		assumeTrue(Files.isRegularFile(real), "no trained export at " + real.toAbsolutePath());
+		try (InputStream in = Files.newInputStream(real)) {
+			assertParity(ModelArtifact.read(in, MAPPER));
+		}
+	}
+
+	/* ===== helpers ===== */
+
+	private static void assertParity(ModelArtifact m) {
+		for (ModelArtifact.ParityCase c : m.parity()) {
+			PredictInput in = PredictInput.from(c.payload());
+			assertNotNull(in, String.valueOf(c.payload()));
+			FeatureRow row = in.features();
+			assertClose(c.a(), m.predictA(row), "A " + c.payload());
+			assertClose(c.b(), m.predictB(row), "B " + c.payload());
+			assertClose(c.c(), m.predictPct(row, "C"), "C " + c.payload());
+		}
+	}
+
+	private static void assertClose(Double expected, double actual, String msg) {
+		if (expected == null) {
+			assertTrue(Double.isNaN(actual), msg);
+		} else {
+			assertEquals(expected, actual, TOL * Math.max(1.0, Math.abs(expected)), msg);
+		}
+	}
+
+	/** 숫자는 상대 오차 1e-9까지 같다고 봄(정수/실수 표기 차이 포함), 그 밖은 그대로 비교 */
+	private static final Comparator<JsonNode> NUMERIC_TOLERANT = (a, b) -> {
+		if (a.isNumber() && b.isNumber()) {
+			double x = a.asDouble(), y = b.asDouble();
+			return (Math.abs(x - y) <= TOL * Math.max(1.0, Math.abs(x))) ? 0 : 1;
+		}
+		return a.equals(b) ? 0 : 1;
+	};
+
+	private static List<String> fieldNames(JsonNode n) {
+		List<String> out = new ArrayList<>();
+		n.fieldNames().forEachRemaining(out::add);
+		return out;
+	}
+
+	private static Path fixturePath() throws Exception {
+		return Paths.get(InProcessScorerParityTest.class.getResource("/inference/model_export_fixture.json").toURI());
+	}
+
+	private static JsonNode fixtureTree() throws Exception {
+		return MAPPER.readTree(fixturePath().toFile());
+	}
+
+	private static ModelArtifact readFixture() throws Exception {
+		try (InputStream in = Files.newInputStream(fixturePath())) {
+			return ModelArtifact.read(in, MAPPER);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.co2.service;
+
+import com.example.co2.util.CacheKeyBuilder;
+import com.example.co2.util.HashUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * 캐시 키 호환성 — V9는 기존 행의 cache_key_bin 을 UNHEX(cache_key_hash)로 채웠다.
+ * → CacheKeyBuilder 로 만든 키가 예전 방식(문자열 이어붙이기 + HashUtils.sha256Hex)과 바이트 단위로 같아야
+ *   기존 캐시 행을 그대로 찾는다.
+ * - legacyRaw(...)는 V9 이전 ForecastService 의 키 문자열 구성을 그대로 옮긴 것(수정 금지).
+ */
+class ForecastCacheKeyTest {
+
+	private static final List<Long> BUILDING_IDS = Arrays.asList(null, 0L, 42L, -7L, Long.MIN_VALUE, Long.MAX_VALUE);
+	private static final List<String> SCENARIOS = Arrays.asList(null, "", "  ", "base", "절감");
+	private static final List<Integer> BUILT_YEARS = Arrays.asList(null, 0, -1, 1995);
+	private static final List<String> USES = Arrays.asList(
+			null, "", "   ", "office", " 업무시설 ", "교육연구시설",
+			"🏢 빌딩",       // 서로게이트 쌍(4바이트 UTF-8)
+			"a\uD800b",              // 짝 없는 high surrogate
+			"a\uDC00",               // 짝 없는 low surrogate
+			"\uDBFF"                 // 끝에 남은 high surrogate
+	);
+	private static final List<Double> FLOOR_AREAS = Arrays.asList(null, 0.0, -0.0, 1200.0, -35.5, 1.0E10, 1.0E-5, Double.NaN);
+	private static final List<String> PNUS = Arrays.asList(null, "", " ", "1111010100100010000", " 4113510900 ", "\uD800");
+
+	@Test
+	void builderKeyMatchesLegacySha256Hex() {
+		int n = 0;
+		int[][] ranges = {{2025, 2031}, {-3, 5}, {Integer.MIN_VALUE, Integer.MAX_VALUE}};
+		for (Long id : BUILDING_IDS)
+			for (int[] r : ranges)
+				for (String scenario : SCENARIOS)
+					for (Integer built : BUILT_YEARS)
+						for (String use : USES)
+							for (Double area : FLOOR_AREAS)
+								for (String pnu : PNUS) {
+									String raw = legacyRaw(id, r[0], r[1], scenario, built, use, area, pnu);
+									String actual = ForecastService.writeCacheKey(id, r[0], r[1], scenario, built, use, area, pnu).digest().hex();
+									assertEquals(HashUtils.sha256Hex(raw), actual, raw);
+									n++;
+								}
+		assertEquals(BUILDING_IDS.size() * ranges.length * SCENARIOS.size() * BUILT_YEARS.size()
+				* USES.size() * FLOOR_AREAS.size() * PNUS.size(), n);
+	}
+
+	@Test
+	void rawStringMatchesLegacyBytes() {
+		String legacy = legacyRaw(-7L, 2025, 2031, null, 0, " 업무시설 ", 1200.0, " 4113510900 ");
+		assertEquals(legacy, ForecastService.writeCacheKey(-7L, 2025, 2031, null, 0, " 업무시설 ", 1200.0, " 4113510900 ").toRawString());
+
+		// 짝 없는 서로게이트: String.getBytes(UTF_8)처럼 '?' 한 바이트로 기록
+		String lone = legacyRaw(1L, 2025, 2031, "s", 2000, "a\uD800b", null, null);
+		assertEquals(new String(lone.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+				ForecastService.writeCacheKey(1L, 2025, 2031, "s", 2000, "a\uD800b", null, null).toRawString());
+	}
+
+	@Test
+	void longFieldsMatchStringValueOf() {
+		long[] values = {0L, 1L, -1L, 9L, -10L, 1234567890123L, Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE};
+		for (long v : values) {
+			CacheKeyBuilder kb = CacheKeyBuilder.get().reset().field("a", v).field("b", "x");
+			assertEquals("a=" + v + ";b=x", kb.toRawString());
+			assertEquals(HashUtils.sha256Hex("a=" + v + ";b=x"), kb.digest().hex());
+		}
+	}
+
+	/* ===== V9 이전 키 문자열(ForecastService.buildCacheKeyRaw + 확장 필드) ===== */
+
+	private static String legacyRaw(Long buildingId, int from, int to, String scenario,
+									Integer builtYear, String use, Double floorArea, String pnu) {
+		String b = (buildingId == null) ? "none" : String.valueOf(buildingId);
+		String scen = (scenario == null || scenario.isBlank()) ? "default" : scenario;
+		return "buildingId=" + b + ";from=" + from + ";to=" + to + ";scenario=" + scen
+				+ ";builtYear=" + ((builtYear == null || builtYear <= 0) ? "na" : String.valueOf(builtYear))
+				+ ";use=" + ((use == null || use.isBlank()) ? "na" : use.trim())
+				+ ";floorArea=" + ((floorArea == null) ? "na" : String.valueOf(floorArea))
+				+ ";pnu=" + ((pnu == null || pnu.isBlank()) ? "na" : pnu.trim());
+	}
+}
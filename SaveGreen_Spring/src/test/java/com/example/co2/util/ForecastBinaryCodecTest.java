@@ -0,0 +1,141 @@
+package com.example.co2.util;
+
+import com.example.co2.dto.ForecastDtos.Cost;
+import com.example.co2.dto.ForecastDtos.ForecastResponse;
+import com.example.co2.dto.ForecastDtos.Kpi;
+import com.example.co2.dto.ForecastDtos.Series;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+ * ForecastBinaryCodec encode → decode 왕복 + 손상된 payload_bin 거부
+ * - null series/cost/kpi, null savingPct, 음수 delta, Long.MIN_VALUE/MAX_VALUE
+ * - 잘린 입력 / KPI 블록 뒤 남은 바이트 → IllegalArgumentException (ForecastService가 재계산으로 폴백)
+ */
+class ForecastBinaryCodecTest {
+
+	private static final long[] EXTREMES = {
+			Long.MAX_VALUE, Long.MIN_VALUE, 0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L, Long.MIN_VALUE + 1
+	};
+
+	@Test
+	void roundTripTypicalResponse() {
+		ForecastResponse r = new ForecastResponse(
+				new int[]{2025, 2026, 2027, 2028},
+				new Series(new long[]{120_000, 114_000, 108_300, 102_885}, new long[]{0, 6_000, 11_700, 17_115}),
+				new Cost(new long[]{0, 1_200_000, 2_340_000, 3_423_000}),
+				new Kpi(17_115, 3_423_000, 14, 6.25));
+		assertRoundTrip(r);
+	}
+
+	@Test
+	void roundTripNullParts() {
+		Kpi kpi = new Kpi(1, 2, 3, 4.5);
+		Series series = new Series(new long[]{1, 2}, new long[]{3, 4});
+		Cost cost = new Cost(new long[]{5, 6});
+
+		assertRoundTrip(new ForecastResponse(null, null, null, null));
+		assertRoundTrip(new ForecastResponse(new int[]{2025}, null, cost, kpi));
+		assertRoundTrip(new ForecastResponse(new int[]{2025}, series, null, kpi));
+		assertRoundTrip(new ForecastResponse(new int[]{2025}, series, cost, null));
+		assertRoundTrip(new ForecastResponse(new int[0], new Series(new long[0], new long[0]), new Cost(new long[0]), kpi));
+		assertRoundTrip(new ForecastResponse(null, new Series(null, new long[]{7}), null, kpi));
+		assertRoundTrip(new ForecastResponse(null, new Series(new long[]{7}, null), null, kpi));
+	}
+
+	@Test
+	void seriesWithBothArraysNullDecodesAsNullSeries() {
+		ForecastResponse out = ForecastBinaryCodec.decode(
+				ForecastBinaryCodec.encode(new ForecastResponse(null, new Series(null, null), null, null)));
+		assertNull(out.series());
+	}
+
+	@Test
+	void roundTripNullSavingPct() {
+		assertRoundTrip(new ForecastResponse(new int[]{2025}, null, null, new Kpi(10, 20, null, 3.0)));
+	}
+
+	@Test
+	void roundTripNegativeDeltasAndExtremes() {
+		long[] descending = {1_000_000, 500_000, -3, -1_000_000_000_000L, 42};
+		assertRoundTrip(new ForecastResponse(
+				new int[]{2030, 2025, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, -1},
+				new Series(descending, EXTREMES),
+				new Cost(EXTREMES),
+				new Kpi(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, -0.0)));
+		assertRoundTrip(new ForecastResponse(
+				null, null, null, new Kpi(Long.MAX_VALUE, Long.MIN_VALUE, Integer.MAX_VALUE, Double.NaN)));
+		assertRoundTrip(new ForecastResponse(
+				null, null, null, new Kpi(-1, 0, -100, Double.NEGATIVE_INFINITY)));
+	}
+
+	@Test
+	void rejectsTruncatedPayloadAtEveryLength() {
+		byte[] full = ForecastBinaryCodec.encode(new ForecastResponse(
+				new int[]{2025, 2026},
+				new Series(new long[]{100, 90}, EXTREMES),
+				new Cost(new long[]{-5, 5}),
+				new Kpi(10, -20, null, 1.5)));
+		for (int len = 0; len < full.length; len++) {
+			byte[] cut = Arrays.copyOf(full, len);
+			assertThrows(IllegalArgumentException.class, () -> ForecastBinaryCodec.decode(cut), "length " + len);
+		}
+	}
+
+	@Test
+	void rejectsTrailingBytesAfterKpiBlock() {
+		byte[] withKpi = ForecastBinaryCodec.encode(new ForecastResponse(
+				new int[]{2025}, null, null, new Kpi(1, 2, 3, 4.0)));
+		byte[] withoutKpi = ForecastBinaryCodec.encode(new ForecastResponse(new int[]{2025}, null, null, null));
+
+		for (byte[] full : new byte[][]{withKpi, withoutKpi}) {
+			byte[] one = Arrays.copyOf(full, full.length + 1);
+			assertThrows(IllegalArgumentException.class, () -> ForecastBinaryCodec.decode(one));
+
+			byte[] many = Arrays.copyOf(full, full.length + 16);
+			Arrays.fill(many, full.length, many.length, (byte) 0x7F);
+			assertThrows(IllegalArgumentException.class, () -> ForecastBinaryCodec.decode(many));
+		}
+	}
+
+	@Test
+	void rejectsUnknownHeaderOrVersion() {
+		byte[] full = ForecastBinaryCodec.encode(new ForecastResponse(null, null, null, null));
+
+		byte[] magic = full.clone();
+		magic[0] = 'X';
+		assertThrows(IllegalArgumentException.class, () -> ForecastBinaryCodec.decode(magic));
+
+		byte[] version = full.clone();
+		version[2] = 2;
+		assertThrows(IllegalArgumentException.class, () -> ForecastBinaryCodec.decode(version));
+	}
+
+	private static void assertRoundTrip(ForecastResponse in) {
+		ForecastResponse out = ForecastBinaryCodec.decode(ForecastBinaryCodec.encode(in));
+
+		assertArrayEquals(in.years(), out.years());
+
+		if (in.series() == null) {
+			assertNull(out.series());
+		} else {
+			assertArrayEquals(in.series().after(), out.series().after());
+			assertArrayEquals(in.series().saving(), out.series().saving());
+		}
+
+		if (in.cost() == null) {
+			assertNull(out.cost());
+		} else {
+			assertArrayEquals(in.cost().saving(), out.cost().saving());
+		}
+
+		// Kpi는 record — double은 Double.compare 기준이라 NaN/-0.0도 비트 그대로 비교된다
+		assertEquals(in.kpi(), out.kpi());
+	}
+}
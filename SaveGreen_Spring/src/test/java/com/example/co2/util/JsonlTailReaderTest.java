@@ -0,0 +1,101 @@
+package com.example.co2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * JsonlTailReader ↔ Files.readAllLines 기준 tail(빈 줄 제외 마지막 N줄) 비교
+ * - 한글(3바이트 UTF-8) 줄이 64KB 블록 경계에 걸치는 경우
+ * - CRLF / LF 섞인 줄 끝, 빈 줄(""·"\r"), 마지막 줄 개행 없음
+ */
+class JsonlTailReaderTest {
+
+	private static final int BLOCK = 64 * 1024;
+	private static final int[] LAST_N = {1, 2, 3, 7, 50, 333, 1000, 100_000};
+
+	@Test
+	void hangulLinesAcrossBlockBoundariesMatchReadAllLines() throws Exception {
+		Random rnd = new Random(42);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int i = 0;
+		while (out.size() < 5 * BLOCK) {
+			switch (rnd.nextInt(8)) {
+				case 0 -> write(out, "\n");                       // 빈 줄
+				case 1 -> write(out, "\r\n");                     // CR만 있는 빈 줄
+				default -> write(out, line(i++, rnd) + (rnd.nextBoolean() ? "\r\n" : "\n"));
+			}
+		}
+		write(out, line(i, rnd));                                  // 마지막 줄: 개행 없음
+		Path f = temp(out.toByteArray());
+
+		assertStraddlesBlockBoundary(out.toByteArray());
+		for (int n : LAST_N) assertTail(f, n);
+	}
+
+	@Test
+	void blankLinesAtEndAreNotCounted() throws Exception {
+		Path f = temp(("{\"a\":\"첫째\"}\r\n{\"a\":\"둘째\"}\n\n\r\n\n").getBytes(StandardCharsets.UTF_8));
+		assertEquals(List.of("{\"a\":\"둘째\"}"), JsonlTailReader.readLastLines(f, 1));
+		for (int n : LAST_N) assertTail(f, n);
+	}
+
+	@Test
+	void singleLineLongerThanBlock() throws Exception {
+		String big = "{\"msg\":\"" + "가나다라마바사".repeat(BLOCK / 7) + "\"}";
+		Path f = temp(("head\n" + big + "\r\n\n").getBytes(StandardCharsets.UTF_8));
+		assertEquals(List.of(big), JsonlTailReader.readLastLines(f, 1));
+		for (int n : LAST_N) assertTail(f, n);
+	}
+
+	@Test
+	void emptyAndBlankOnlyFiles() throws Exception {
+		assertEquals(List.of(), JsonlTailReader.readLastLines(temp(new byte[0]), 5));
+		assertEquals(List.of(), JsonlTailReader.readLastLines(temp("\n\r\n\n".getBytes(StandardCharsets.UTF_8)), 5));
+		assertEquals(List.of("끝"), JsonlTailReader.readLastLines(temp("끝".getBytes(StandardCharsets.UTF_8)), 5));
+		assertEquals(List.of(), JsonlTailReader.readLastLines(temp("x\n".getBytes(StandardCharsets.UTF_8)), 0));
+	}
+
+	/* ===== helpers ===== */
+
+	private static void assertTail(Path f, int n) throws Exception {
+		List<String> nonBlank = Files.readAllLines(f, StandardCharsets.UTF_8).stream().filter(s -> !s.isEmpty()).toList();
+		List<String> expected = nonBlank.subList(Math.max(0, nonBlank.size() - n), nonBlank.size());
+		assertEquals(expected, JsonlTailReader.readLastLines(f, n), "lastN=" + n);
+	}
+
+	/** 어떤 한글 문자의 바이트가 64KB 블록 경계(파일 끝 기준)에 걸쳐 나뉘는지 — 테스트 데이터 자체 확인 */
+	private static void assertStraddlesBlockBoundary(byte[] data) {
+		boolean split = false;
+		for (int b = data.length - BLOCK; b > 0; b -= BLOCK) {
+			if ((data[b] & 0xC0) == 0x80) split = true;   // 경계 위치가 UTF-8 연속 바이트
+		}
+		assertTrue(split, "no multibyte char split at a block boundary; adjust the generator");
+	}
+
+	private static String line(int i, Random rnd) {
+		StringBuilder sb = new StringBuilder("{\"id\":").append(i).append(",\"msg\":\"");
+		int len = 1 + rnd.nextInt(120);
+		for (int k = 0; k < len; k++) sb.append((char) ('가' + rnd.nextInt(11172)));
+		return sb.append("\"}").toString();
+	}
+
+	private static void write(ByteArrayOutputStream out, String s) {
+		out.writeBytes(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Path temp(byte[] data) throws Exception {
+		Path f = Files.createTempFile("jsonl-tail", ".jsonl");
+		f.toFile().deleteOnExit();
+		Files.write(f, data);
+		return f;
+	}
+}
@@ -0,0 +1,213 @@
+# ============================================================
+# SaveGreen / app/export.py — 휴대용(JVM) 모델 산출물 내보내기
+# ------------------------------------------------------------
+# [역할]
+# - 학습이 끝난 A/B 파이프라인(ColumnTransformer + ElasticNet / RandomForest)을
+#   sklearn/joblib 없이 읽을 수 있는 JSON(model_export.json)으로 내보낸다.
+# - 스프링(com.example.co2.inference)이 이 파일을 읽어 JVM 안에서 직접 예측
+#   → /predict 마다 FastAPI 왕복 + 1행 DataFrame 생성을 건너뜀(FastAPI는 폴백으로 유지).
+#
+# [파일 구조 요약]
+#   {
+#     "format": "savegreen.portable-model", "formatVersion": 1,
+#     "modelVersion": manifest.modelVersion (예측 응답의 modelVersion과 동일),
+#     "models": {
+#       "A": {"estimator": "linear", "preprocess": {...}, "coef": [...], "intercept": x},
+#       "B": {"estimator": "forest", "preprocess": {...},
+#             "trees": [{"left": [], "right": [], "feature": [], "threshold": [], "value": []}, ...]}
+#     },
+#     "ensemble": {"wA": .., "wB": ..},          # ModelManager._ensemble_weights()와 같은 규칙(합=1)
+#     "parity":   [{"payload": {...}, "A": .., "B": .., "C": ..}, ...]   # 파이썬 예측값(정합성 테스트용)
+#   }
+#   preprocess = {"numeric": {"columns", "mean", "scale"}, "categorical": [{"column", "categories"}]}
+#   → 변환 결과 열 순서 = 수치(StandardScaler) 다음 원핫(OneHotEncoder, 모르는 범주는 전부 0)
+#
+# [주의]
+# - 트리 예측은 sklearn과 같게 입력을 float32로 바꾼 뒤 threshold(float64)와 비교해야 한다.
+# - 지원하지 않는 파이프라인 구조면 ValueError → 호출 쪽(train.main)이 경고만 남기고 건너뜀.
+# ============================================================
+
+from __future__ import annotations
+
+import json
+import os
+import tempfile
+import shutil
+import contextlib
+from typing import Any, Dict, List, Optional
+
+import numpy as np
+import pandas as pd
+
+EXPORT_FILE = "model_export.json"
+FORMAT = "savegreen.portable-model"
+FORMAT_VERSION = 1
+
+# model.py EXPECTED_FEATURES_A/B 와 같은 입력 컬럼
+FEATURE_COLS = ["type", "floorAreaM2", "builtYear", "energy_kwh", "eui_kwh_m2y"]
+
+
+# ---------------------------- 전처리/모델 추출 ----------------------------
+
+def _export_preprocess(pre: Any) -> Dict[str, Any]:
+    """ColumnTransformer(num=StandardScaler, cat=OneHotEncoder) → 계수"""
+    numeric: Optional[Dict[str, Any]] = None
+    categorical: List[Dict[str, Any]] = []
+
+    for name, trans, cols in pre.transformers_:
+        if name == "remainder" or trans == "drop":
+            continue
+        steps = dict(getattr(trans, "named_steps", {}) or {})
+        if "scaler" in steps:
+            sc = steps["scaler"]
+            numeric = {
+                "columns": list(cols),
+                "mean": [float(v) for v in sc.mean_],
+                "scale": [float(v) for v in sc.scale_],
+            }
+        elif "ohe" in steps:
+            ohe = steps["ohe"]
+            if getattr(ohe, "handle_unknown", None) != "ignore" or getattr(ohe, "drop_idx_", None) is not None:
+                raise ValueError("unsupported OneHotEncoder settings")
+            for col, cats in zip(cols, ohe.categories_):
+                categorical.append({"column": col, "categories": [str(c) for c in cats]})
+        else:
+            raise ValueError(f"unsupported transformer: {name}")
+
+    if numeric is None:
+        raise ValueError("numeric scaler not found")
+    return {"numeric": numeric, "categorical": categorical}
+
+
+def _export_estimator(est: Any) -> Dict[str, Any]:
+    """ElasticNet → linear, RandomForestRegressor → forest"""
+    if hasattr(est, "coef_") and hasattr(est, "intercept_"):
+        return {
+            "estimator": "linear",
+            "coef": [float(v) for v in np.ravel(est.coef_)],
+            "intercept": float(np.ravel([est.intercept_])[0]),
+        }
+    if hasattr(est, "estimators_"):
+        trees = []
+        for t in est.estimators_:
+            tr = t.tree_
+            trees.append({
+                "left": tr.children_left.tolist(),
+                "right": tr.children_right.tolist(),
+                "feature": tr.feature.tolist(),
+                "threshold": [float(v) for v in tr.threshold],
+                "value": [float(v) for v in tr.value.reshape(tr.node_count, -1)[:, 0]],
+            })
+        return {"estimator": "forest", "trees": trees}
+    raise ValueError(f"unsupported estimator: {type(est).__name__}")
+
+
+def _export_pipeline(pipe: Any) -> Dict[str, Any]:
+    out = _export_estimator(pipe.named_steps["model"])
+    out["preprocess"] = _export_preprocess(pipe.named_steps["pre"])
+    return out
+
+
+# ---------------------------- 앙상블/정합성 ----------------------------
+
+def _effective_weights(manifest: Dict[str, Any]) -> Dict[str, float]:
+    """ModelManager._ensemble_weights()와 같은 우선순위(역수 MAE 제안 → wA/wB → 0.5/0.5), 합=1 정규화"""
+    wA, wB = 0.5, 0.5
+    ens = (manifest or {}).get("ensemble") or {}
+    sugg = ens.get("suggested_by_inverse_mae") or {}
+    sA, sB = sugg.get("wA"), sugg.get("wB")
+    if isinstance(sA, (int, float)) and isinstance(sB, (int, float)):
+        wA, wB = float(sA), float(sB)
+    else:
+        mA, mB = ens.get("wA"), ens.get("wB")
+        if isinstance(mA, (int, float)) and isinstance(mB, (int, float)):
+            wA, wB = float(mA), float(mB)
+    total = (wA or 0.0) + (wB or 0.0)
+    if total <= 0:
+        return {"wA": 0.5, "wB": 0.5}
+    return {"wA": wA / total, "wB": wB / total}
+
+
+def _clip100(v: float) -> float:
+    return max(0.0, min(float(v), 100.0))
+
+
+def _parity_samples(pipes: Dict[str, Any], X_sample: pd.DataFrame, weights: Dict[str, float]) -> List[Dict[str, Any]]:
+    """
+    X_sample 행 + 모르는 용도 1행 → /predict payload 모양과 파이썬 예측값(A/B/C, ModelManager 규칙과 동일)
+    - payload에 energy_kwh를 명시해 model._derive_energy_eui와 같은 eui가 나오게 한다(eui = energy / floor).
+    """
+    rows: List[Dict[str, Any]] = []
+    for _, r in X_sample.iterrows():
+        rows.append({
+            "type": str(r["type"]),
+            "floorAreaM2": float(r["floorAreaM2"]),
+            "builtYear": int(r["builtYear"]),
+            "energy_kwh": float(r["energy_kwh"]),
+        })
+    if rows:
+        unknown = dict(rows[0])
+        unknown["type"] = "__unknown__"
+        rows.append(unknown)
+
+    if not rows:
+        return []
+    frame = pd.DataFrame([{
+        "type": p["type"],
+        "floorAreaM2": p["floorAreaM2"],
+        "builtYear": p["builtYear"],
+        "energy_kwh": p["energy_kwh"],
+        "eui_kwh_m2y": p["energy_kwh"] / p["floorAreaM2"],
+    } for p in rows])[FEATURE_COLS]
+
+    preds = {k: [_clip100(v) for v in pipes[k].predict(frame)] for k in ("A", "B") if pipes.get(k) is not None}
+    out = []
+    for i, p in enumerate(rows):
+        a = preds["A"][i] if "A" in preds else None
+        b = preds["B"][i] if "B" in preds else None
+        if a is not None and b is not None:
+            c = _clip100(weights["wA"] * a + weights["wB"] * b)
+        else:
+            c = a if a is not None else b
+        out.append({"payload": p, "A": a, "B": b, "C": c})
+    return out
+
+
+# ---------------------------- 저장 ----------------------------
+
+def write_portable_export(pipes: Dict[str, Any], outdir: str, X_sample: pd.DataFrame) -> str:
+    """
+    outdir/manifest.json(방금 저장된 버전) + A/B 파이프라인 → outdir/model_export.json (원자적 교체)
+    반환: 저장 경로
+    """
+    with open(os.path.join(outdir, "manifest.json"), "r", encoding="utf-8") as f:
+        manifest = json.load(f)
+
+    models = {k: _export_pipeline(p) for k, p in pipes.items() if k in ("A", "B") and p is not None}
+    if not models:
+        raise ValueError("no pipelines to export")
+    weights = _effective_weights(manifest)
+
+    doc = {
+        "format": FORMAT,
+        "formatVersion": FORMAT_VERSION,
+        "modelVersion": manifest.get("modelVersion") or manifest.get("version"),
+        "exportedAt": manifest.get("version"),
+        "models": models,
+        "ensemble": weights,
+        "parity": _parity_samples(pipes, X_sample, weights),
+    }
+
+    final_path = os.path.join(outdir, EXPORT_FILE)
+    fd, tmp_path = tempfile.mkstemp(prefix=".tmp_", dir=outdir)
+    try:
+        with os.fdopen(fd, "w", encoding="utf-8") as tmp:
+            json.dump(doc, tmp, ensure_ascii=False, separators=(",", ":"))
+            tmp.flush()
+            os.fsync(tmp.fileno())
+        shutil.move(tmp_path, final_path)
+    except Exception:
+        with contextlib.suppress(Exception):
+            os.remove(tmp_path)
+        raise
+    return final_path
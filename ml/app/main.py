@@ -142,6 +142,38 @@ def health():
 #   kpi(첫 해 기준) + meta(가정) + series(에스컬 반영 비용절감 포함)를 반환.
 # • 응답을 변경/반올림하지 않으며, 핵심치(kpi/meta)를 한 줄 로그로 남긴다.
 # ======================================================================
+def _coerce_numeric_fields(payload: Dict[str, Any]) -> None:
+    """/predict, /predict/many 공통 — 숫자 필드를 float로 정규화(실패 시 ValueError/TypeError)"""
+    for k in ("tariffKrwPerKwh", "electricityEscalationPctPerYear",
+              "capexPerM2", "capexFixed", "capexFreeAreaM2",
+              "floorAreaM2", "baselineKwh"):
+        if k in payload and payload[k] is not None:
+            payload[k] = float(payload[k])
+
+
+def _log_predict_variants(payload: Dict[str, Any], result: Dict[str, Any], pv: Dict[str, Any]) -> None:
+    """건물별 per-variant 예측 로그 (A/B/C 각각) — /predict, /predict/many 공통"""
+    bname = (payload.get("buildingName") or result.get("contextEcho", {}).get("buildingName"))
+    pnu   = (payload.get("pnu") or result.get("contextEcho", {}).get("pnu"))
+
+    for letter in ("A", "B", "C"):
+        ml_logging.log_event(
+            "predict_variant",
+            payload={
+                "variant": letter,
+                "savingPct": (pv or {}).get(letter),
+                "buildingName": bname,
+                "pnu": pnu,
+                "floorAreaM2": payload.get("floorAreaM2"),
+                "builtYear": payload.get("builtYear"),
+            },
+            tags={
+                "run_id": SERVER_RUN_ID,
+                "chart": letter
+            }
+        )
+
+
 # ======================================================================
 # [SG-ANCHOR:ML-API-PREDICT-RESPONSE]
 @app.post("/predict")
@@ -151,11 +183,7 @@ def predict(  # type: ignore[call-arg]
 ) -> Dict[str, Any]:
     # [SG-ANCHOR:ML-API-LOG-KPI-META] — 실행 전 입력 가벼운 방어
     try:
-        for k in ("tariffKrwPerKwh", "electricityEscalationPctPerYear",
-                  "capexPerM2", "capexFixed", "capexFreeAreaM2",
-                  "floorAreaM2", "baselineKwh"):
-            if k in payload and payload[k] is not None:
-                payload[k] = float(payload[k])
+        _coerce_numeric_fields(payload)
     except Exception:
         raise HTTPException(status_code=400, detail="invalid numeric fields in payload")
 
@@ -168,27 +196,7 @@ def predict(  # type: ignore[call-arg]
 
     # [추가] 건물별 per-variant 예측 로그 (A/B/C 각각)
     try:
-        from . import ml_logging
-        pv = m.preview_all_variants(payload)  # {"A":..., "B":..., "C":...}
-        bname = (payload.get("buildingName") or result.get("contextEcho", {}).get("buildingName"))
-        pnu   = (payload.get("pnu") or result.get("contextEcho", {}).get("pnu"))
-
-        for letter in ("A", "B", "C"):
-            ml_logging.log_event(
-                "predict_variant",
-                payload={
-                    "variant": letter,
-                    "savingPct": (pv or {}).get(letter),
-                    "buildingName": bname,
-                    "pnu": pnu,
-                    "floorAreaM2": payload.get("floorAreaM2"),
-                    "builtYear": payload.get("builtYear"),
-                },
-                tags={
-                    "run_id": SERVER_RUN_ID,
-                    "chart": letter
-                }
-            )
+        _log_predict_variants(payload, result, m.preview_all_variants(payload))  # {"A":..., "B":..., "C":...}
     except Exception as _e:
         print(f"[ML-LOG] skip per-variant logging: {_e}")
 
@@ -211,6 +219,57 @@ def predict(  # type: ignore[call-arg]
 
 
 
+# ======================================================================
+# /predict/many — 스프링 MlBridgeService 마이크로배치용 다건 예측
+# ----------------------------------------------------------------------
+# • 입력: {"items": [payload, ...]} — 각 payload는 /predict 바디와 동일(검증 없이 그대로)
+# • 모델(A/B)마다 DataFrame 1개 + predict 1회로 전체를 예측(ModelManager.predict_variant_many)
+# • 출력: {"count", "variant", "results": [...]} — results[i]는 items[i]의 /predict 응답과 같은 모양,
+#   해당 항목만 실패하면 {"ok": false, "error": "..."} (나머지 항목은 정상 응답)
+# • /predict/batch(PredictRequest 스키마 검증, 시연/리포트용)와 달리 /predict와 입력/로그가 같다.
+# ======================================================================
+@app.post("/predict/many", summary="마이크로배치 다건 예측(/predict와 동일 입력)")
+def predict_many(
+    body: Dict[str, Any] = Body(...),
+    variant: str = Query("C", description="모델/전처리 변형 옵션")
+) -> Dict[str, Any]:
+    items = body.get("items")
+    if not isinstance(items, list):
+        raise HTTPException(status_code=400, detail="items must be a list")
+
+    # 항목별 입력 방어 — 잘못된 항목은 해당 자리만 에러로 채운다
+    results: List[Optional[Dict[str, Any]]] = [None] * len(items)
+    valid_idx: List[int] = []
+    valid_payloads: List[Dict[str, Any]] = []
+    for i, payload in enumerate(items):
+        if not isinstance(payload, dict):
+            results[i] = {"ok": False, "error": "item must be an object"}
+            continue
+        try:
+            _coerce_numeric_fields(payload)
+        except Exception:
+            results[i] = {"ok": False, "error": "invalid numeric fields in payload"}
+            continue
+        valid_idx.append(i)
+        valid_payloads.append(payload)
+
+    try:
+        m = get_model()
+        predicted, previews = m.predict_variant_many(valid_payloads, variant=variant)
+    except Exception as e:
+        raise HTTPException(status_code=502, detail=f"prediction failed: {e}")
+
+    for i, payload, result, pv in zip(valid_idx, valid_payloads, predicted, previews):
+        results[i] = result
+        try:
+            _log_predict_variants(payload, result, pv)
+        except Exception as _e:
+            print(f"[ML-LOG] skip per-variant logging: {_e}")
+
+    print(f"[predict/many] variant={variant} items={len(items)} ok={len(valid_idx)}")
+    return {"count": len(results), "variant": variant, "results": results}
+
+
 # ------------------------ 라우트: 학습 시작 -----------------------
 
 @app.post("/train", response_model=TrainStartResponse)
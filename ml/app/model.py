@@ -178,6 +178,29 @@ def _make_feature_frame(payload: Dict[str, Any], expected_cols: List[str]) -> pd
     return df[expected_cols]
 
 
+def _make_feature_frame_many(payloads: List[Dict[str, Any]], expected_cols: List[str]) -> pd.DataFrame:
+    """
+    _make_feature_frame의 다건 버전 — 여러 payload를 한 DataFrame(행 N개)으로 만든다.
+    - /predict/many(스프링 마이크로배치)에서 모델당 DataFrame 생성/predict 호출을 1회로 줄이기 위함.
+    - 행 순서 == payloads 순서.
+    """
+    rows = []
+    for payload in payloads:
+        energy_kwh, eui = _derive_energy_eui(payload)
+        rows.append({
+            "type": payload.get("type"),
+            "floorAreaM2": payload.get("floorAreaM2"),
+            "builtYear": payload.get("builtYear"),
+            "energy_kwh": energy_kwh,
+            "eui_kwh_m2y": eui,
+        })
+    df = pd.DataFrame(rows)
+    for c in expected_cols:
+        if c not in df.columns:
+            df[c] = None
+    return df[expected_cols]
+
+
 # ---------------------------- 모델 로더 ----------------------------
 
 class _Loaded:
@@ -243,7 +266,51 @@ class ModelManager:
             warnings.append(f"PREDICT_FAIL:{repr(e)}")
             saving_pct = self._rule_fallback_pct(payload)
 
-        # 응답 생성
+        return self._assemble(payload, var, saving_pct, source, warnings)
+
+    def predict_variant_many(
+        self, payloads: List[Dict[str, Any]], variant: str = "C"
+    ) -> Tuple[List[Dict[str, Any]], List[Dict[str, Optional[float]]]]:
+        """
+        predict_variant의 다건 버전(/predict/many).
+        - A/B 모델마다 DataFrame 1개 + predict 1회로 전체 행을 예측(행마다 DataFrame 생성 X).
+        - 반환: (응답 목록, A/B/C 미리보기 목록) — 둘 다 payloads 순서와 동일.
+          미리보기는 preview_all_variants와 같은 값(로그용)이며 같은 예측값을 재사용한다.
+        """
+        var = (variant or "C").upper()
+        a_vals, a_warns = self._predict_many_with(self.A, payloads, EXPECTED_FEATURES_A, "A")
+        b_vals, b_warns = self._predict_many_with(self.B, payloads, EXPECTED_FEATURES_B, "B")
+
+        results: List[Dict[str, Any]] = []
+        previews: List[Dict[str, Optional[float]]] = []
+        for i, payload in enumerate(payloads):
+            a, b = a_vals[i], b_vals[i]
+            warnings: List[str] = []
+            if var != "B":
+                warnings.extend(a_warns[i])
+            if var != "A":
+                warnings.extend(b_warns[i])
+
+            source = "ML"
+            try:
+                saving_pct = self._pct_from(payload, var, a, b, warnings)
+            except Exception as e:
+                source = "RULE_FALLBACK"
+                warnings.append(f"PREDICT_FAIL:{repr(e)}")
+                saving_pct = self._rule_fallback_pct(payload)
+            results.append(self._assemble(payload, var, saving_pct, source, warnings))
+
+            try:
+                c = self._pct_from(payload, "C", a, b, [])
+            except Exception:
+                c = None
+            previews.append({"A": a, "B": b, "C": c})
+        return results, previews
+
+    def _assemble(
+        self, payload: Dict[str, Any], var: str, saving_pct: float, source: str, warnings: List[str]
+    ) -> Dict[str, Any]:
+        """절감률 → 표준 응답(years/series/cost/kpi + debug/source/variant/uiHints)"""
         years = _build_years(payload.get("yearsFrom"), payload.get("yearsTo"))
         resp = self._finalize_response(payload, years, saving_pct)
         resp.setdefault("debug", {})["warnings"] = warnings
@@ -289,22 +356,35 @@ class ModelManager:
         A/B/C 절감률(%) 예측. A/B는 동일한 훈련 스키마(5컬럼)를 사용.
         C는 A/B 가중 평균(둘 중 하나만 있으면 생존 모델 채택).
         """
+        a = self._predict_with(self.A, payload, EXPECTED_FEATURES_A, "A", warnings) if (self.A and variant != "B") else None
+        b = self._predict_with(self.B, payload, EXPECTED_FEATURES_B, "B", warnings) if (self.B and variant != "A") else None
+        return self._pct_from(payload, variant, a, b, warnings)
+
+    def _pct_from(
+        self,
+        payload: Dict[str, Any],
+        variant: str,
+        a: Optional[float],
+        b: Optional[float],
+        warnings: List[str]
+    ) -> float:
+        """
+        이미 구한 A/B 예측값(실패/부재는 None)으로 variant별 절감률(%) 결정.
+        - 단건(_predict_pct)과 다건(predict_variant_many)이 같은 규칙을 쓰도록 분리.
+        """
         if variant == "A":
             if not self.A:
                 warnings.append("A_MISSING")
                 return self._rule_fallback_pct(payload)
-            return self._predict_with(self.A, payload, EXPECTED_FEATURES_A, "A", warnings)
+            return a
 
         if variant == "B":
             if not self.B:
                 warnings.append("B_MISSING")
                 return self._rule_fallback_pct(payload)
-            return self._predict_with(self.B, payload, EXPECTED_FEATURES_B, "B", warnings)
+            return b
 
         # C: 앙상블
-        a = self._predict_with(self.A, payload, EXPECTED_FEATURES_A, "A", warnings) if self.A else None
-        b = self._predict_with(self.B, payload, EXPECTED_FEATURES_B, "B", warnings) if self.B else None
-
         if a is None and b is None:
             warnings.append("AB_MISSING")
             return self._rule_fallback_pct(payload)
@@ -316,6 +396,32 @@ class ModelManager:
         wA, wB = self._ensemble_weights()
         return max(0.0, min(wA * a + wB * b, 100.0))
 
+    def _predict_many_with(
+        self,
+        loaded: Optional[_Loaded],
+        payloads: List[Dict[str, Any]],
+        expected_cols: List[str],
+        tag: str
+    ) -> Tuple[List[Optional[float]], List[List[str]]]:
+        """
+        다건 파이프라인 예측(DataFrame 1개, predict 1회).
+        - 배치 전체가 실패하면(예: 한 행의 값이 잘못됨) 행 단위 _predict_with로 다시 시도
+          → 나머지 행은 정상 예측, 실패 행만 None + 경고.
+        - 반환: (행별 예측값, 행별 경고 목록)
+        """
+        n = len(payloads)
+        warns: List[List[str]] = [[] for _ in range(n)]
+        if not loaded or n == 0:
+            return [None] * n, warns
+        try:
+            X = _make_feature_frame_many(payloads, expected_cols)
+            y = loaded.pipe.predict(X)
+            return [max(0.0, min(float(v), 100.0)) for v in y], warns
+        except Exception as e:
+            print(f"[ML][WARN] batch predict failed via {loaded.path}: {e!r}; retrying per row")
+            vals = [self._predict_with(loaded, p, expected_cols, tag, warns[i]) for i, p in enumerate(payloads)]
+            return vals, warns
+
     def _predict_with(
         self,
         loaded: Optional[_Loaded],
@@ -495,6 +601,20 @@ class ModelManager:
             }
         }
 
+    def status(self) -> Dict[str, Any]:
+        """
+        /model/status, /health 응답용 상태 요약.
+        - modelVersion: 예측 응답의 modelVersion과 같은 값(스프링 예측 캐시 키에 사용)
+        """
+        wA, wB = self._ensemble_weights()
+        return {
+            "has_A": self.A is not None,
+            "has_B": self.B is not None,
+            "manifest": _resolve(MANIFEST),
+            "ensemble_weights_effective": {"wA": wA, "wB": wB},
+            "modelVersion": self._model_version_hint(),
+        }
+
     def _model_version_hint(self) -> str:
         """manifest에서 버전 힌트를 가져오거나 기본값 제공."""
         try:
@@ -11,6 +11,7 @@
 #     * model_B.pkl : 비선형 성능(RandomForest)
 #     * model.pkl   : 하위호환 단일(베스트 복사본)
 #     * manifest.json : 버전/피처/지표/앙상블 가중치(wA,wB), split/kfold 등 메타
+#     * model_export.json : A/B 계수·트리 + 가중치의 휴대용 JSON(스프링 JVM 추론용, app/export.py)
 #
 # [설계 핵심]
 # 1) 일반화 성능
@@ -64,8 +65,10 @@ from pathlib import Path
 # [수정] 상대/절대 import 모두 시도 (직접 실행/모듈 실행 호환)
 try:
 	from . import ml_logging  # ← 패키지 컨텍스트( -m 실행 )일 때
+	from .export import write_portable_export
 except Exception:
 	from app import ml_logging  # ← 직접 실행일 때
+	from app.export import write_portable_export
 
 # (리소스 제어) BLAS 스레드 제한용
 try:
@@ -758,6 +761,13 @@ def main(k: int = 5, test_size: float = 0.2) -> None:
 	# >>> 원자적 저장(최종): pkl(A/B/BEST), manifest.json 모두 안전 저장 + 로깅
 	save_artifacts(pipes_to_save, manifest, outdir)
 
+	# 휴대용(JVM) 추론 산출물(model_export.json) — 실패해도 학습 결과(pkl/manifest)에는 영향 없음
+	try:
+		export_path = write_portable_export(pipes_to_save, outdir, X_test.head(32))
+		print(f"[save] portable export → {export_path}")
+	except Exception as _e:
+		print(f"[WARN] portable export skipped: {_e!r}")
+
 	# 상태 로그(요약)
 	print(f"[save] model_A.pkl={'ok' if 'A' in pipes_to_save else '-'}, "
 		  f"model_B.pkl={'ok' if 'B' in pipes_to_save else '-'}, "